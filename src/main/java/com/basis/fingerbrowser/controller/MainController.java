@@ -2,15 +2,32 @@ package com.basis.fingerbrowser.controller;
 
 import com.basis.fingerbrowser.model.BrowserProfile;
 import com.basis.fingerbrowser.model.ProfileViewModel;
+import com.basis.fingerbrowser.service.BatchOperation;
 import com.basis.fingerbrowser.service.BrowserService;
+import com.basis.fingerbrowser.service.LaunchPolicy;
+import com.basis.fingerbrowser.service.ProfileAttributeIndex;
+import com.basis.fingerbrowser.service.ProfileDedupIndex;
+import com.basis.fingerbrowser.service.ProfileExporter;
+import com.basis.fingerbrowser.service.ProfileImporter;
 import com.basis.fingerbrowser.service.ProfileManagerService;
+import com.basis.fingerbrowser.service.ProfileQuery;
+import com.basis.fingerbrowser.service.ProfileSortIndex;
 import com.basis.fingerbrowser.service.ThemeService;
+import com.basis.fingerbrowser.util.AppPreferences;
+import com.basis.fingerbrowser.util.DirectoryLayout;
 import com.basis.fingerbrowser.util.FingerprintGenerator;
+import com.basis.fingerbrowser.util.FxEventQueue;
+import com.basis.fingerbrowser.util.SavedViews;
+import javafx.animation.PauseTransition;
 import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
-import javafx.collections.transformation.FilteredList;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
 import javafx.concurrent.Task;
+import javafx.css.PseudoClass;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -22,13 +39,29 @@ import javafx.stage.Modality;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyCodeCombination;
 import javafx.scene.input.KeyCombination;
+import javafx.scene.layout.GridPane;
 import javafx.stage.Stage;
+import javafx.util.Duration;
+import javafx.util.StringConverter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
 import java.util.prefs.Preferences;
 
 public class MainController {
@@ -40,6 +73,13 @@ public class MainController {
     private static final String PROFILES_DIR_NAME = "profiles";
     private static final String BROWSER_DATA_DIR_NAME = "browser_data";
     private static final String BROWSER_PATH_KEY = "browser_path";
+    private static final Duration SEARCH_DEBOUNCE = Duration.millis(150);
+    private static final PseudoClass RUNNING = PseudoClass.getPseudoClass("running");
+    private static final DateTimeFormatter LAST_USED_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    // 批量关闭不涉及启动开销，不限速
+    private static final LaunchPolicy BATCH_STOP_POLICY = new LaunchPolicy(8, 0, false);
+    // 批量操作结束后在提示中列出的失败配置数量上限
+    private static final int MAX_LISTED_FAILURES = 10;
 
     // 移除 browserPathField，现在在设置页面中管理
     // @FXML
@@ -47,7 +87,23 @@ public class MainController {
     @FXML
     private TextField searchField;
     @FXML
-    private ListView<BrowserProfile> profileList;
+    private ChoiceBox<ProfileManagerService.SearchMode> searchModeChoice;
+    @FXML
+    private MenuButton viewsMenu;
+    @FXML
+    private TableView<BrowserProfile> profileTable;
+    @FXML
+    private TableColumn<BrowserProfile, BrowserProfile> nameColumn;
+    @FXML
+    private TableColumn<BrowserProfile, BrowserProfile> statusColumn;
+    @FXML
+    private TableColumn<BrowserProfile, BrowserProfile> proxyColumn;
+    @FXML
+    private TableColumn<BrowserProfile, BrowserProfile> timezoneColumn;
+    @FXML
+    private TableColumn<BrowserProfile, BrowserProfile> lastUsedColumn;
+    @FXML
+    private TableColumn<BrowserProfile, BrowserProfile> tagsColumn;
     @FXML
     private Label profileCountLabel;
     @FXML
@@ -92,18 +148,53 @@ public class MainController {
     private TextField proxyAuthField;
     @FXML
     private TextArea notesArea;
+    @FXML
+    private TextField tagsField;
 
     private ProfileManagerService profileManager;
     private BrowserService browserService;
     private ThemeService themeService;
-    private FilteredList<BrowserProfile> filteredProfiles;
+    // 表格当前显示的行：有排序列时按排序索引的顺序，否则有搜索词时按相关度、没有时按列表原有顺序
+    private final ObservableList<BrowserProfile> visibleProfiles = FXCollections.observableArrayList();
+    // 搜索结果，没有搜索词时为 null
+    private SearchResult searchResult;
+    // 同一脉冲内的多次变更只重建一次表格行
+    private boolean rowRefreshPending;
+    // 配置ID → 在表格行中的位置，随表格行重建
+    private final Map<String, Integer> rowIndex = new HashMap<>();
+    // 浏览器状态变化在任意线程产生，合并后每个脉冲在 FX 线程处理一次
+    private final FxEventQueue<BrowserStateChange> browserStateEvents = new FxEventQueue<>(this::applyBrowserStateChanges);
+    // 正在运行的配置，随状态变化事件增量维护
+    private final Set<String> runningIds = new HashSet<>();
+    // 输入停顿后才开始搜索，连续输入只搜索最后一次
+    private final PauseTransition searchDebounce = new PauseTransition(SEARCH_DEBOUNCE);
+    // 搜索在单独的后台线程执行，新的搜索开始时取消尚未完成的搜索
+    private final java.util.concurrent.ExecutorService searchExecutor = java.util.concurrent.Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "profile-search");
+        t.setDaemon(true);
+        return t;
+    });
+    private Task<SearchResult> searchTask;
     private final ProfileViewModel profileViewModel = new ProfileViewModel();
     private Preferences preferences;
     private final javafx.beans.property.BooleanProperty browserPathValid = new javafx.beans.property.SimpleBooleanProperty(false);
     private java.util.concurrent.ExecutorService executor;
+    // 正在进行的导入任务，同一时间只允许一个
+    private Task<ProfileImporter.Result> importTask;
 
     private final StringProperty status = new SimpleStringProperty("就绪");
 
+    /**
+     * 搜索命中的配置ID，ranked 按相关度排序，ids 用于按排序列显示时过滤；
+     * stateDependent 表示结果依赖运行状态，浏览器状态变化后需重新搜索
+     */
+    private record SearchResult(List<String> ranked, Set<String> ids, boolean stateDependent) {}
+
+    /**
+     * 一次浏览器运行状态变化
+     */
+    private record BrowserStateChange(BrowserProfile profile, boolean running) {}
+
     @FXML
     public void initialize() {
         log.info("Initializing MainController...");
@@ -149,6 +240,7 @@ public class MainController {
 
         try {
             browserService = new BrowserService(browserPath, appDataDir + File.separator + BROWSER_DATA_DIR_NAME);
+            browserService.setProfileLookup(profileManager::getProfile);
             log.info("Browser service initialized. Browser path: {}", browserPath);
             boolean valid = browserPath != null && !browserPath.isBlank() && new File(browserPath).exists();
             browserPathValid.set(valid);
@@ -176,6 +268,20 @@ public class MainController {
             t.setDaemon(true);
             return t;
         });
+
+        // 上次未完成的浏览器数据目录迁移在后台继续
+        if (browserService != null) {
+            BrowserService service = browserService;
+            executor.submit(() -> {
+                try {
+                    if (service.needsLayoutMigration()) {
+                        service.migrateLayout(DirectoryLayout.current(), null);
+                    }
+                } catch (IOException e) {
+                    log.error("Failed to resume user data directory migration", e);
+                }
+            });
+        }
     }
 
     private void setupBindings() {
@@ -195,6 +301,7 @@ public class MainController {
         proxyPortField.textProperty().bind(profileViewModel.proxyPortProperty());
         proxyAuthField.textProperty().bind(profileViewModel.proxyAuthProperty());
         notesArea.textProperty().bind(profileViewModel.notesProperty());
+        tagsField.textProperty().bind(profileViewModel.tagsProperty());
 
         // Bind status label
         statusLabel.textProperty().bind(status);
@@ -205,43 +312,329 @@ public class MainController {
     }
 
     private void setupEventListeners() {
-        // Setup profile list
-        filteredProfiles = new FilteredList<>(profileManager.getProfiles(), p -> true);
-        profileList.setItems(filteredProfiles);
-        updateProfileCount();
+        // Setup profile table
+        setupProfileTable();
+        refreshRows();
+
+        // 配置在后台分批加载，状态栏显示加载进度
+        profileManager.addLoadProgressListener((processed, total) -> {
+            if (processed < total) {
+                setStatus("正在加载配置 " + processed + "/" + total + "...");
+            }
+        });
+        profileManager.getLoadFuture().thenAccept(count -> setStatus("已加载 " + count + " 个配置"));
 
         // Listener for list selection changes
-        profileList.getSelectionModel().selectedItemProperty().addListener(
-                (obs, oldSelection, newSelection) -> profileViewModel.setProfile(newSelection));
-
-        // Listener for search field
-        searchField.textProperty().addListener((obs, oldText, newText) -> {
-            filteredProfiles.setPredicate(profile -> {
-                if (newText == null || newText.isEmpty()) {
-                    return true;
-                }
-                String searchText = newText.toLowerCase();
-                return profile.getName().toLowerCase().contains(searchText) ||
-                        (profile.getNotes() != null && profile.getNotes().toLowerCase().contains(searchText));
-            });
-            updateProfileCount();
+        profileTable.getSelectionModel().selectedItemProperty().addListener(
+                (obs, oldSelection, newSelection) -> profileViewModel.setProfile(profileManager.ensureLoaded(newSelection)));
+
+        // 搜索在后台通过全文索引求出命中的配置及排名，列表只按结果过滤与排序
+        searchDebounce.setOnFinished(event -> runSearch(searchField.getText()));
+        searchField.textProperty().addListener((obs, oldText, newText) -> scheduleSearch(newText));
+        // 精确搜索使用全文索引，模糊搜索使用三元组索引容忍拼写错误；切换后立即按新方式重新搜索
+        searchModeChoice.getItems().setAll(ProfileManagerService.SearchMode.values());
+        searchModeChoice.setValue(ProfileManagerService.SearchMode.fromName(
+                AppPreferences.getNode().get(AppPreferences.SEARCH_MODE_KEY, ProfileManagerService.SearchMode.EXACT.name())));
+        searchModeChoice.valueProperty().addListener((obs, oldMode, mode) -> {
+            AppPreferences.getNode().put(AppPreferences.SEARCH_MODE_KEY, mode.name());
+            runSearch(searchField.getText());
+        });
+        // 保存的查询视图，每次展开时按偏好设置中的最新内容重建
+        viewsMenu.setOnShowing(event -> rebuildViewsMenu());
+        rebuildViewsMenu();
+
+        // 配置列表变更后重建表格行；有搜索词时还需重新搜索以包含新增或修改的配置，连续的变更只搜索一次
+        profileManager.getProfiles().addListener((ListChangeListener<BrowserProfile>) change -> {
+            if (!searchField.getText().isBlank()) {
+                searchDebounce.playFromStart();
+            }
+            scheduleRowRefresh();
         });
 
-        // Cell factory for list view
-        profileList.setCellFactory(param -> new ListCell<>() {
+        // 浏览器启动、关闭或自行退出后的状态变化经事件队列合并处理
+        if (browserService != null) {
+            browserService.addStateListener((profile, running) -> browserStateEvents.post(new BrowserStateChange(profile, running)));
+        }
+    }
+
+    private void setupProfileTable() {
+        profileTable.setItems(visibleProfiles);
+        // 可多选后批量启动或关闭；详情面板显示最后选中的配置
+        profileTable.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        bindColumn(nameColumn, ProfileSortIndex.SortKey.NAME, BrowserProfile::getName);
+        bindColumn(statusColumn, ProfileSortIndex.SortKey.STATUS, profile -> profile.isActive() ? "运行中" : "未运行");
+        bindColumn(proxyColumn, ProfileSortIndex.SortKey.PROXY, ProfileSortIndex::proxyLabel);
+        bindColumn(timezoneColumn, ProfileSortIndex.SortKey.TIMEZONE, BrowserProfile::getTimezone);
+        bindColumn(lastUsedColumn, ProfileSortIndex.SortKey.LAST_USED,
+                profile -> profile.getLastUsed() == null ? "从未使用" : LAST_USED_FORMATTER.format(profile.getLastUsed()));
+        bindColumn(tagsColumn, ProfileSortIndex.SortKey.TAGS, ProfileSortIndex::tagsLabel);
+
+        // 运行状态通过伪类切换样式，样式在样式表中定义
+        profileTable.setRowFactory(table -> new TableRow<>() {
             @Override
             protected void updateItem(BrowserProfile profile, boolean empty) {
                 super.updateItem(profile, empty);
-                if (empty || profile == null) {
-                    setText(null);
-                    setGraphic(null);
-                    setStyle("");
-                } else {
-                    setText(profile.getName());
-                    setStyle(profile.isActive() ? "-fx-font-weight: bold; -fx-text-fill: green;" : "");
+                pseudoClassStateChanged(RUNNING, !empty && profile != null && profile.isActive());
+            }
+        });
+        // 点击列头时按排序索引重建行，不对全部行调用比较器排序；
+        // 排序期间选择模型处于批量修改状态，行在下一个脉冲重建
+        profileTable.setSortPolicy(table -> {
+            scheduleRowRefresh();
+            return true;
+        });
+    }
+
+    /**
+     * 列的单元格直接以配置为值，显示文本在单元格更新时生成
+     */
+    private void bindColumn(TableColumn<BrowserProfile, BrowserProfile> column, ProfileSortIndex.SortKey key,
+                            Function<BrowserProfile, String> text) {
+        column.setUserData(key);
+        column.setCellValueFactory(features -> new ReadOnlyObjectWrapper<>(features.getValue()));
+        column.setCellFactory(c -> new TableCell<>() {
+            @Override
+            protected void updateItem(BrowserProfile profile, boolean empty) {
+                super.updateItem(profile, empty);
+                setText(empty || profile == null ? null : text.apply(profile));
+            }
+        });
+    }
+
+    /**
+     * 处理一个脉冲内积累的浏览器状态变化：增量更新运行数量与排序索引，只重绘受影响的行；
+     * 按状态或最近使用时间排序、或搜索条件依赖运行状态时才重建表格行
+     */
+    private void applyBrowserStateChanges(List<BrowserStateChange> changes) {
+        Map<String, BrowserProfile> affected = new LinkedHashMap<>();
+        for (BrowserStateChange change : changes) {
+            String id = change.profile().getId();
+            if (change.running()) {
+                runningIds.add(id);
+            } else {
+                runningIds.remove(id);
+            }
+            affected.put(id, change.profile());
+        }
+        // 事件携带的是启动时的对象，该配置可能已被替换；按ID同步列表中当前对象的运行状态
+        Map<String, BrowserProfile> current = new LinkedHashMap<>();
+        affected.forEach((id, profile) -> {
+            BrowserProfile listed = profileManager.updateRunningState(profile, runningIds.contains(id));
+            if (listed != null) {
+                current.put(id, listed);
+            }
+        });
+        affected = current;
+
+        if (searchResult != null && searchResult.stateDependent()) {
+            searchDebounce.playFromStart();
+        }
+        TableColumn<BrowserProfile, ?> sortColumn = profileTable.getSortOrder().isEmpty() ? null : profileTable.getSortOrder().get(0);
+        if (sortColumn == statusColumn || sortColumn == lastUsedColumn) {
+            scheduleRowRefresh();
+        } else {
+            List<Integer> selectedRows = selectedRows();
+            for (BrowserProfile profile : affected.values()) {
+                Integer row = rowIndex.get(profile.getId());
+                if (row != null && visibleProfiles.get(row) == profile) {
+                    // 以自身替换该行，表格只重新绘制这一行
+                    visibleProfiles.set(row, profile);
+                }
+            }
+            if (!selectedRows().equals(selectedRows)) {
+                selectRows(selectedRows);
+            }
+        }
+        updateProfileCount();
+    }
+
+    private void scheduleRowRefresh() {
+        if (!rowRefreshPending) {
+            rowRefreshPending = true;
+            Platform.runLater(() -> {
+                rowRefreshPending = false;
+                refreshRows();
+            });
+        }
+    }
+
+    /**
+     * 按当前的排序列与搜索结果重建表格行，并恢复原先选中的配置
+     */
+    private void refreshRows() {
+        List<BrowserProfile> selected = List.copyOf(profileTable.getSelectionModel().getSelectedItems());
+        BrowserProfile focused = profileTable.getSelectionModel().getSelectedItem();
+        List<BrowserProfile> rows;
+        TableColumn<BrowserProfile, ?> sortColumn = profileTable.getSortOrder().isEmpty() ? null : profileTable.getSortOrder().get(0);
+        if (sortColumn != null) {
+            rows = profileManager.getSortedProfiles((ProfileSortIndex.SortKey) sortColumn.getUserData(),
+                    sortColumn.getSortType() == TableColumn.SortType.ASCENDING,
+                    searchResult == null ? null : searchResult.ids()::contains);
+        } else if (searchResult != null) {
+            rows = new ArrayList<>(searchResult.ranked().size());
+            for (String id : searchResult.ranked()) {
+                BrowserProfile profile = profileManager.getProfile(id);
+                if (profile != null) {
+                    rows.add(profile);
                 }
             }
+        } else {
+            rows = profileManager.getProfiles();
+        }
+        visibleProfiles.setAll(rows);
+        rowIndex.clear();
+        for (int i = 0; i < rows.size(); i++) {
+            rowIndex.put(rows.get(i).getId(), i);
+        }
+        List<Integer> selectedRows = new ArrayList<>(selected.size());
+        for (BrowserProfile profile : selected) {
+            Integer row = rowIndex.get(profile.getId());
+            if (row != null && profile != focused && visibleProfiles.get(row) == profile) {
+                selectedRows.add(row);
+            }
+        }
+        // 原先的当前选中项最后选中，仍作为详情面板显示的配置
+        Integer focusedRow = focused == null ? null : rowIndex.get(focused.getId());
+        if (focusedRow != null && visibleProfiles.get(focusedRow) == focused) {
+            selectedRows.add(focusedRow);
+        }
+        selectRows(selectedRows);
+        updateProfileCount();
+    }
+
+    /**
+     * 当前选中的行，当前选中项排在最后
+     */
+    private List<Integer> selectedRows() {
+        int current = profileTable.getSelectionModel().getSelectedIndex();
+        List<Integer> rows = new ArrayList<>();
+        for (Integer row : profileTable.getSelectionModel().getSelectedIndices()) {
+            if (row != current) {
+                rows.add(row);
+            }
+        }
+        if (current >= 0) {
+            rows.add(current);
+        }
+        return rows;
+    }
+
+    /**
+     * 选中指定的行，最后一行成为当前选中项
+     */
+    private void selectRows(List<Integer> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        int[] indices = rows.stream().mapToInt(Integer::intValue).toArray();
+        profileTable.getSelectionModel().clearSelection();
+        profileTable.getSelectionModel().selectIndices(indices[0], Arrays.copyOfRange(indices, 1, indices.length));
+    }
+
+    private void scheduleSearch(String text) {
+        cancelSearch();
+        if (text == null || text.isBlank()) {
+            // 清空搜索无需查询索引，立即恢复完整列表
+            searchDebounce.stop();
+            publishSearch(null);
+        } else {
+            searchDebounce.playFromStart();
+        }
+    }
+
+    private void runSearch(String text) {
+        cancelSearch();
+        if (text == null || text.isBlank()) {
+            publishSearch(null);
+            return;
+        }
+        // 查询先在 JavaFX 线程编译，语法错误时保留当前结果并在状态栏提示
+        ProfileQuery.Plan plan;
+        try {
+            plan = ProfileQuery.compile(text);
+        } catch (IllegalArgumentException e) {
+            setStatus("查询语法错误: " + e.getMessage());
+            return;
+        }
+        ProfileManagerService.SearchMode mode = searchModeChoice.getValue();
+        Task<SearchResult> task = new Task<>() {
+            @Override
+            protected SearchResult call() {
+                List<String> ranked = profileManager.query(plan, mode, this::isCancelled);
+                return new SearchResult(ranked, new HashSet<>(ranked), plan.stateDependent());
+            }
+        };
+        task.setOnSucceeded(event -> {
+            // 取消的任务不会进入成功状态；这里仍核对一次，避免过期结果覆盖较新的搜索
+            if (task == searchTask) {
+                searchTask = null;
+                publishSearch(task.getValue());
+            }
+        });
+        task.setOnFailed(event -> log.error("Profile {} search failed for query '{}'", mode, text, task.getException()));
+        searchTask = task;
+        searchExecutor.submit(task);
+    }
+
+    private void rebuildViewsMenu() {
+        viewsMenu.getItems().clear();
+        Map<String, String> views = SavedViews.list();
+        views.forEach((name, query) -> {
+            MenuItem item = new MenuItem(name);
+            item.setOnAction(event -> searchField.setText(query));
+            viewsMenu.getItems().add(item);
+        });
+        if (!views.isEmpty()) {
+            viewsMenu.getItems().add(new SeparatorMenuItem());
+        }
+
+        MenuItem save = new MenuItem("保存当前查询为视图...");
+        save.setDisable(searchField.getText().isBlank());
+        save.setOnAction(event -> {
+            TextInputDialog dialog = new TextInputDialog();
+            dialog.setTitle("保存视图");
+            dialog.setHeaderText(searchField.getText());
+            dialog.setContentText("视图名称:");
+            dialog.showAndWait().map(String::trim).filter(name -> !name.isEmpty()).ifPresent(name -> {
+                try {
+                    SavedViews.save(name, searchField.getText().trim());
+                    setStatus("已保存视图: " + name);
+                } catch (IllegalArgumentException e) {
+                    showAlert("错误", e.getMessage());
+                }
+            });
         });
+        viewsMenu.getItems().add(save);
+
+        if (!views.isEmpty()) {
+            MenuItem delete = new MenuItem("删除视图...");
+            delete.setOnAction(event -> {
+                ChoiceDialog<String> dialog = new ChoiceDialog<>(views.keySet().iterator().next(), views.keySet());
+                dialog.setTitle("删除视图");
+                dialog.setHeaderText(null);
+                dialog.setContentText("视图:");
+                dialog.showAndWait().ifPresent(name -> {
+                    SavedViews.delete(name);
+                    setStatus("已删除视图: " + name);
+                });
+            });
+            viewsMenu.getItems().add(delete);
+        }
+    }
+
+    private void cancelSearch() {
+        if (searchTask != null) {
+            searchTask.cancel();
+            searchTask = null;
+        }
+    }
+
+    /**
+     * 以新的搜索结果重建表格行，result 为 null 时显示全部配置
+     */
+    private void publishSearch(SearchResult result) {
+        searchResult = result;
+        refreshRows();
     }
 
     private void setupTheme() {
@@ -250,7 +643,7 @@ public class MainController {
 
         // 注册当前场景以支持主题切换
         Platform.runLater(() -> {
-            Scene scene = profileList.getScene();
+            Scene scene = profileTable.getScene();
             if (scene != null) {
                 themeService.registerScene(scene);
                 log.info("Scene registered for theme management");
@@ -272,7 +665,7 @@ public class MainController {
      */
     private void setupKeyboardShortcuts() {
         Platform.runLater(() -> {
-            Scene scene = profileList.getScene();
+            Scene scene = profileTable.getScene();
             if (scene != null) {
                 // macOS: Command + ,
                 // Windows/Linux: Ctrl + ,
@@ -320,6 +713,37 @@ public class MainController {
     }
 
 
+    /**
+     * 切换目录布局（从设置页面调用），在后台迁移配置文件与浏览器数据目录，迁移期间可正常使用
+     */
+    public void changeDirectoryLayout(DirectoryLayout layout) {
+        log.info("Changing directory layout to {}", layout);
+        Task<Integer> task = new Task<>() {
+            @Override
+            protected Integer call() throws Exception {
+                int moved = profileManager.changeLayout(layout, (migrated, total) ->
+                        updateMessage("正在迁移配置文件 " + migrated + "/" + total + "..."));
+                if (browserService != null) {
+                    moved += browserService.migrateLayout(layout, (migrated, total) ->
+                            updateMessage("正在迁移浏览器数据 " + migrated + "/" + total + "..."));
+                }
+                return moved;
+            }
+        };
+        task.messageProperty().addListener((obs, oldMessage, message) -> setStatus(message));
+        task.setOnSucceeded(event -> setStatus("目录布局已切换，迁移了 " + task.getValue() + " 项"));
+        task.setOnFailed(event -> {
+            log.error("Failed to migrate directory layout to {}", layout, task.getException());
+            showAlert("错误", "迁移目录布局失败，未迁移的文件仍可正常使用，下次启动时将继续迁移: " + task.getException().getMessage());
+            setStatus("迁移目录布局失败");
+        });
+        if (executor != null) {
+            executor.submit(task);
+        } else {
+            new Thread(task, "layout-migration").start();
+        }
+    }
+
     private String findDefaultBrowserPath() {
         log.debug("Attempting to find default browser path...");
         String os = System.getProperty("os.name").toLowerCase();
@@ -373,9 +797,8 @@ public class MainController {
     }
 
     private void updateProfileCount() {
-        profileCountLabel.setText(String.valueOf(filteredProfiles.size()));
-        long runningCount = profileManager.getProfiles().stream().filter(BrowserProfile::isActive).count();
-        runningCountLabel.setText(String.valueOf(runningCount));
+        profileCountLabel.setText(String.valueOf(visibleProfiles.size()));
+        runningCountLabel.setText(String.valueOf(runningIds.size()));
     }
 
     @FXML
@@ -406,8 +829,8 @@ public class MainController {
             themeService.unregisterScene(scene);
 
             // After closing the editor, refresh the list and select the new profile
-            if (profileManager.getProfiles().contains(profile)) {
-                profileList.getSelectionModel().select(profile);
+            if (profileManager.containsProfile(profile.getId())) {
+                profileTable.getSelectionModel().select(profile);
             }
             updateProfileCount();
 
@@ -419,7 +842,7 @@ public class MainController {
 
     @FXML
     private void handleEditProfile() {
-        BrowserProfile selectedProfile = profileList.getSelectionModel().getSelectedItem();
+        BrowserProfile selectedProfile = profileTable.getSelectionModel().getSelectedItem();
         if (selectedProfile == null) {
             showAlert("提示", "请先选择一个配置");
             return;
@@ -431,7 +854,7 @@ public class MainController {
 
             ProfileController controller = loader.getController();
             controller.setProfileManager(profileManager);
-            controller.setProfile(selectedProfile);
+            controller.setProfile(profileManager.ensureLoaded(selectedProfile));
 
             Stage stage = new Stage();
             stage.initModality(Modality.APPLICATION_MODAL);
@@ -450,7 +873,7 @@ public class MainController {
 
             // Refresh the view model to reflect changes
             profileViewModel.setProfile(selectedProfile);
-            profileList.refresh();
+            profileTable.refresh();
 
         } catch (IOException e) {
             log.error("Failed to open profile editor for profile '{}'", selectedProfile.getName(), e);
@@ -460,7 +883,7 @@ public class MainController {
 
     @FXML
     private void handleDeleteProfile() {
-        BrowserProfile selectedProfile = profileList.getSelectionModel().getSelectedItem();
+        BrowserProfile selectedProfile = profileTable.getSelectionModel().getSelectedItem();
         if (selectedProfile == null) {
             showAlert("提示", "请先选择一个配置");
             return;
@@ -475,7 +898,7 @@ public class MainController {
         if (result.isPresent() && result.get() == ButtonType.OK) {
             log.info("User confirmed deletion of profile '{}'", selectedProfile.getName());
             if (selectedProfile.isActive()) {
-                handleStopSelected();
+                stopProfile(selectedProfile);
             }
             profileManager.deleteProfile(selectedProfile.getId());
             updateProfileCount();
@@ -484,25 +907,106 @@ public class MainController {
 
     @FXML
     private void handleImportProfile() {
-        FileChooser fileChooser = new FileChooser();
-        fileChooser.setTitle("导入配置文件");
-        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("JSON配置文件", "*.json"));
+        if (importTask != null && importTask.isRunning()) {
+            Alert alert = new Alert(Alert.AlertType.CONFIRMATION, "正在导入配置，是否取消导入？已导入的配置会保留。");
+            alert.setTitle("导入配置");
+            alert.setHeaderText("导入进行中");
+            alert.showAndWait().filter(response -> response == ButtonType.OK).ifPresent(response -> importTask.cancel());
+            return;
+        }
 
-        File file = fileChooser.showOpenDialog(profileList.getScene().getWindow());
-        if (file != null) {
-            log.info("Importing profiles from file: {}", file.getAbsolutePath());
-            profileManager.importProfiles(file);
+        Alert alert = new Alert(Alert.AlertType.CONFIRMATION, "从文件（JSON、NDJSON、ZIP）还是从目录导入配置？",
+                new ButtonType("选择文件", ButtonBar.ButtonData.YES),
+                new ButtonType("选择目录", ButtonBar.ButtonData.NO),
+                new ButtonType("取消", ButtonBar.ButtonData.CANCEL_CLOSE));
+        alert.setTitle("导入配置");
+        alert.setHeaderText("导入配置选项");
+
+        File source = alert.showAndWait().map(response -> {
+            if (response.getButtonData() == ButtonBar.ButtonData.YES) {
+                FileChooser fileChooser = new FileChooser();
+                fileChooser.setTitle("导入配置文件");
+                fileChooser.getExtensionFilters().addAll(
+                        new FileChooser.ExtensionFilter("配置文件", "*.json", "*.ndjson", "*.jsonl", "*.zip"),
+                        new FileChooser.ExtensionFilter("JSON配置文件", "*.json"),
+                        new FileChooser.ExtensionFilter("NDJSON配置文件", "*.ndjson", "*.jsonl"),
+                        new FileChooser.ExtensionFilter("ZIP压缩包", "*.zip"));
+                return fileChooser.showOpenDialog(profileTable.getScene().getWindow());
+            } else if (response.getButtonData() == ButtonBar.ButtonData.NO) {
+                DirectoryChooser dirChooser = new DirectoryChooser();
+                dirChooser.setTitle("选择导入目录");
+                return dirChooser.showDialog(profileTable.getScene().getWindow());
+            }
+            return null;
+        }).orElse(null);
+        if (source != null) {
+            importProfiles(source);
+        }
+    }
+
+    /**
+     * 在后台导入配置，导入进度显示在状态栏；配置分批加入列表，界面在导入期间保持响应
+     */
+    private void importProfiles(File source) {
+        ProfileDedupIndex.DuplicatePolicy policy = ProfileDedupIndex.DuplicatePolicy.fromName(
+                AppPreferences.getNode().get(AppPreferences.IMPORT_DUPLICATE_POLICY_KEY, ProfileDedupIndex.DuplicatePolicy.SKIP.name()));
+        log.info("Importing profiles from: {} (duplicates: {})", source.getAbsolutePath(), policy.name());
+        Task<ProfileImporter.Result> task = new Task<>() {
+            @Override
+            protected ProfileImporter.Result call() throws Exception {
+                return profileManager.importProfiles(source, policy, (imported, failed, bytesRead, totalBytes) -> {
+                    updateProgress(bytesRead, totalBytes);
+                    updateMessage("正在导入配置：已导入 " + imported + " 个"
+                            + (failed > 0 ? "，失败 " + failed + " 个" : "")
+                            + (totalBytes > 0 ? "（" + bytesRead * 100 / totalBytes + "%）" : "") + "...");
+                });
+            }
+        };
+        task.messageProperty().addListener((obs, oldMessage, message) -> setStatus(message));
+        task.setOnSucceeded(event -> {
+            ProfileImporter.Result result = task.getValue();
             updateProfileCount();
-            setStatus("已导入配置");
+            String skipped = result.skipped() > 0 ? "，跳过 " + result.skipped() + " 个重复配置" : "";
+            if (result.cancelled()) {
+                setStatus("已取消导入，已导入 " + result.imported() + " 个配置" + skipped);
+            } else if (result.failed() > 0) {
+                setStatus("已导入 " + result.imported() + " 个配置" + skipped + "，" + result.failed() + " 个失败");
+            } else {
+                setStatus("已导入 " + result.imported() + " 个配置" + skipped);
+            }
+        });
+        task.setOnCancelled(event -> {
+            updateProfileCount();
+            setStatus("已取消导入");
+        });
+        task.setOnFailed(event -> {
+            Throwable ex = task.getException();
+            log.error("Failed to import profiles from: {}", source.getAbsolutePath(), ex);
+            updateProfileCount();
+            showAlert("错误", "导入配置失败: " + ex.getMessage());
+            setStatus("导入配置失败");
+        });
+        importTask = task;
+        if (executor != null) {
+            executor.submit(task);
+        } else {
+            new Thread(task, "profile-import").start();
         }
     }
 
     @FXML
     private void handleExportProfile() {
-        BrowserProfile selectedProfile = profileList.getSelectionModel().getSelectedItem();
+        BrowserProfile selectedProfile = profileTable.getSelectionModel().getSelectedItem();
         if (selectedProfile == null) {
-            Alert alert = new Alert(Alert.AlertType.CONFIRMATION, "您要导出所有配置还是选择特定配置？",
-                    new ButtonType("导出所有", ButtonBar.ButtonData.YES),
+            LocalDateTime lastExport = getLastExportTime();
+            Alert alert = new Alert(Alert.AlertType.CONFIRMATION, lastExport == null
+                    ? "您要导出所有配置还是选择特定配置？"
+                    : "您要导出所有配置、上次导出（" + lastExport.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")) + "）后有变化的配置，还是选择特定配置？");
+            alert.getButtonTypes().setAll(new ButtonType("导出所有", ButtonBar.ButtonData.YES));
+            if (lastExport != null) {
+                alert.getButtonTypes().add(new ButtonType("导出变化", ButtonBar.ButtonData.OTHER));
+            }
+            alert.getButtonTypes().addAll(
                     new ButtonType("选择配置", ButtonBar.ButtonData.NO),
                     new ButtonType("取消", ButtonBar.ButtonData.CANCEL_CLOSE));
             alert.setTitle("导出配置");
@@ -510,7 +1014,9 @@ public class MainController {
 
             alert.showAndWait().ifPresent(response -> {
                 if (response.getButtonData() == ButtonBar.ButtonData.YES) {
-                    exportAllProfiles();
+                    exportAllProfiles(null);
+                } else if (response.getButtonData() == ButtonBar.ButtonData.OTHER) {
+                    exportAllProfiles(lastExport);
                 } else if (response.getButtonData() == ButtonBar.ButtonData.NO) {
                     showProfileSelectionDialog();
                 }
@@ -526,7 +1032,7 @@ public class MainController {
         fileChooser.setInitialFileName(profile.getName() + ".json");
         fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("JSON配置文件", "*.json"));
 
-        File file = fileChooser.showSaveDialog(profileList.getScene().getWindow());
+        File file = fileChooser.showSaveDialog(profileTable.getScene().getWindow());
         if (file != null) {
             log.info("Exporting profile '{}' to file: {}", profile.getName(), file.getAbsolutePath());
             if (profileManager.exportProfile(profile, file)) {
@@ -537,17 +1043,81 @@ public class MainController {
         }
     }
 
-    private void exportAllProfiles() {
-        DirectoryChooser dirChooser = new DirectoryChooser();
-        dirChooser.setTitle("选择导出目录");
-        File dir = dirChooser.showDialog(profileList.getScene().getWindow());
-        if (dir != null) {
-            log.info("Exporting all profiles to directory: {}", dir.getAbsolutePath());
-            if (profileManager.exportAllProfiles(dir)) {
-                setStatus("已导出所有配置到 " + dir.getName() + " 目录");
-            } else {
-                showAlert("错误", "导出配置失败");
+    /**
+     * 将配置导出为单个 ZIP 或 NDJSON 文件，导出在后台进行
+     *
+     * @param changedSince 不为 null 时只导出此后有变化的配置
+     */
+    private void exportAllProfiles(LocalDateTime changedSince) {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle(changedSince == null ? "导出所有配置" : "导出有变化的配置");
+        fileChooser.setInitialFileName("profiles-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"))
+                + ProfileExporter.Format.ZIP.getExtension());
+        fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("ZIP压缩包", "*.zip"),
+                new FileChooser.ExtensionFilter("NDJSON配置文件", "*.ndjson", "*.jsonl"));
+        File selected = fileChooser.showSaveDialog(profileTable.getScene().getWindow());
+        if (selected == null) {
+            return;
+        }
+
+        // 文件名没有扩展名时按所选的过滤器确定格式
+        boolean ndjsonFilter = fileChooser.getSelectedExtensionFilter() != null
+                && fileChooser.getSelectedExtensionFilter().getExtensions().contains("*.ndjson");
+        File file = selected.getName().contains(".") ? selected
+                : new File(selected.getPath() + (ndjsonFilter ? ProfileExporter.Format.NDJSON : ProfileExporter.Format.ZIP).getExtension());
+        ProfileExporter.Format format = ProfileExporter.Format.fromFileName(file.getName());
+        // 以开始时间作为下次增量导出的起点，导出期间发生的修改会包含在下一次导出中
+        LocalDateTime startedAt = LocalDateTime.now();
+
+        log.info("Exporting {} profiles to {} file: {}", changedSince == null ? "all" : "changed", format.name(), file.getAbsolutePath());
+        Task<ProfileExporter.Result> task = new Task<>() {
+            @Override
+            protected ProfileExporter.Result call() throws Exception {
+                return profileManager.exportAll(file, format, changedSince, (exported, failed, total) -> {
+                    updateProgress(exported + failed, total);
+                    updateMessage("正在导出配置：" + (exported + failed) + "/" + total + "...");
+                });
+            }
+        };
+        task.messageProperty().addListener((obs, oldMessage, message) -> setStatus(message));
+        task.setOnSucceeded(event -> {
+            ProfileExporter.Result result = task.getValue();
+            if (result.cancelled()) {
+                setStatus("已取消导出");
+                return;
+            }
+            AppPreferences.getNode().put(AppPreferences.LAST_EXPORT_TIME_KEY, startedAt.toString());
+            if (result.failed() > 0) {
+                showAlert("警告", result.failed() + " 个配置导出失败，详情请查看日志");
             }
+            setStatus("已导出 " + result.exported() + " 个配置到 " + file.getName());
+        });
+        task.setOnFailed(event -> {
+            log.error("Failed to export profiles to: {}", file.getAbsolutePath(), task.getException());
+            showAlert("错误", "导出配置失败: " + task.getException().getMessage());
+            setStatus("导出配置失败");
+        });
+        if (executor != null) {
+            executor.submit(task);
+        } else {
+            new Thread(task, "profile-export").start();
+        }
+    }
+
+    /**
+     * 上次成功导出的时间，从未导出过时返回 null
+     */
+    private LocalDateTime getLastExportTime() {
+        String value = AppPreferences.getNode().get(AppPreferences.LAST_EXPORT_TIME_KEY, null);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            log.warn("Ignoring invalid last export time: {}", value);
+            return null;
         }
     }
 
@@ -573,7 +1143,12 @@ public class MainController {
 
     @FXML
     private void handleLaunchSelected() {
-        BrowserProfile selectedProfile = profileList.getSelectionModel().getSelectedItem();
+        List<BrowserProfile> selectedProfiles = List.copyOf(profileTable.getSelectionModel().getSelectedItems());
+        if (selectedProfiles.size() > 1) {
+            launchProfiles(selectedProfiles);
+            return;
+        }
+        BrowserProfile selectedProfile = profileTable.getSelectionModel().getSelectedItem();
         if (selectedProfile == null) {
             showAlert("提示", "请先选择一个配置");
             return;
@@ -592,14 +1167,47 @@ public class MainController {
             @Override
             protected Boolean call() {
                 // 浏览器路径现在由BrowserService管理，不需要从UI获取
-                return browserService.launchBrowser(selectedProfile);
+                return browserService.launchBrowser(profileManager.ensureLoaded(selectedProfile));
             }
         }, "启动", selectedProfile.getName());
     }
 
+    /**
+     * 按默认节奏批量启动所选配置中未在运行的部分
+     */
+    private void launchProfiles(List<BrowserProfile> profiles) {
+        List<BrowserProfile> stopped = profiles.stream().filter(profile -> !profile.isActive()).toList();
+        if (stopped.isEmpty()) {
+            showAlert("提示", "所选配置均已在运行中。");
+            return;
+        }
+        if (!browserPathValid.get()) {
+            showAlert("提示", "浏览器路径未配置或无效，请先前往设置配置。");
+            return;
+        }
+        runBatch("启动", () -> {
+            // 启动前读取占位配置的完整记录
+            List<BrowserProfile> loaded = new ArrayList<>(stopped.size());
+            for (BrowserProfile profile : stopped) {
+                loaded.add(profileManager.ensureLoaded(profile));
+            }
+            return browserService.launchAll(loaded, LaunchPolicy.DEFAULT);
+        });
+    }
+
     @FXML
     private void handleStopSelected() {
-        BrowserProfile selectedProfile = profileList.getSelectionModel().getSelectedItem();
+        List<BrowserProfile> selectedProfiles = List.copyOf(profileTable.getSelectionModel().getSelectedItems());
+        if (selectedProfiles.size() > 1) {
+            List<BrowserProfile> running = selectedProfiles.stream().filter(BrowserProfile::isActive).toList();
+            if (running.isEmpty()) {
+                showAlert("提示", "所选浏览器实例均未在运行");
+                return;
+            }
+            runBatch("关闭", () -> browserService.stopAll(running, BATCH_STOP_POLICY));
+            return;
+        }
+        BrowserProfile selectedProfile = profileTable.getSelectionModel().getSelectedItem();
         if (selectedProfile == null) {
             showAlert("提示", "请先选择一个配置");
             return;
@@ -608,16 +1216,186 @@ public class MainController {
             showAlert("提示", "此浏览器实例未在运行");
             return;
         }
+        stopProfile(selectedProfile);
+    }
 
-        setStatus("正在关闭浏览器: " + selectedProfile.getName() + "...");
+    private void stopProfile(BrowserProfile profile) {
+        setStatus("正在关闭浏览器: " + profile.getName() + "...");
         runTask(new Task<>() {
             @Override
             protected Boolean call() {
-                return browserService.closeBrowser(selectedProfile);
+                return browserService.closeBrowser(profile);
+            }
+        }, "关闭", profile.getName());
+    }
+
+    /**
+     * 按属性值选出的一组配置
+     */
+    private record ProfileGroup(ProfileAttributeIndex.Attribute attribute, String value, Set<String> profileIds) {
+        String describe() {
+            return attribute.getDisplayName() + "为 " + value + " 的 " + profileIds.size() + " 个配置";
+        }
+    }
+
+    /**
+     * 弹出对话框选择属性及其取值，通过属性索引直接得到对应的配置，无需遍历全部配置
+     */
+    private Optional<ProfileGroup> chooseProfileGroup(String title) {
+        ComboBox<ProfileAttributeIndex.Attribute> attributeCombo = new ComboBox<>();
+        attributeCombo.getItems().setAll(ProfileAttributeIndex.Attribute.values());
+        ComboBox<String> valueCombo = new ComboBox<>();
+        valueCombo.setPrefWidth(260);
+
+        Map<String, Integer> counts = new HashMap<>();
+        valueCombo.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(String value) {
+                return value == null ? "" : value + " (" + counts.getOrDefault(value, 0) + ")";
+            }
+
+            @Override
+            public String fromString(String text) {
+                return text;
+            }
+        });
+        attributeCombo.valueProperty().addListener((obs, oldAttribute, attribute) -> {
+            counts.clear();
+            counts.putAll(profileManager.getAttributeValues(attribute));
+            valueCombo.getItems().setAll(counts.keySet());
+            if (!valueCombo.getItems().isEmpty()) {
+                valueCombo.getSelectionModel().selectFirst();
+            }
+        });
+        attributeCombo.getSelectionModel().select(ProfileAttributeIndex.Attribute.TAG);
+
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(10);
+        grid.addRow(0, new Label("属性:"), attributeCombo);
+        grid.addRow(1, new Label("取值:"), valueCombo);
+
+        Dialog<ProfileGroup> dialog = new Dialog<>();
+        dialog.setTitle(title);
+        dialog.setHeaderText(null);
+        dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+        dialog.getDialogPane().setContent(grid);
+        dialog.getDialogPane().lookupButton(ButtonType.OK).disableProperty().bind(valueCombo.valueProperty().isNull());
+        dialog.setResultConverter(button -> {
+            if (button != ButtonType.OK || valueCombo.getValue() == null) {
+                return null;
+            }
+            ProfileAttributeIndex.Attribute attribute = attributeCombo.getValue();
+            String value = valueCombo.getValue();
+            return new ProfileGroup(attribute, value, profileManager.findProfileIds(attribute, value));
+        });
+        return dialog.showAndWait().filter(group -> !group.profileIds().isEmpty());
+    }
+
+    private Optional<String> askTag(String title) {
+        TextInputDialog dialog = new TextInputDialog();
+        dialog.setTitle(title);
+        dialog.setHeaderText(null);
+        dialog.setContentText("标签:");
+        return dialog.showAndWait().map(String::trim).filter(tag -> !tag.isEmpty());
+    }
+
+    @FXML
+    private void handleBulkAddTag() {
+        chooseProfileGroup("按条件添加标签").ifPresent(group -> askTag("为" + group.describe() + "添加标签").ifPresent(tag ->
+                runBulkTask("添加标签", () -> profileManager.applyTo(group.profileIds(), profile -> {
+                    List<String> tags = profile.getTags() == null ? new ArrayList<>() : new ArrayList<>(profile.getTags());
+                    if (tags.stream().noneMatch(tag::equalsIgnoreCase)) {
+                        tags.add(tag);
+                    }
+                    profile.setTags(tags);
+                }))));
+    }
+
+    @FXML
+    private void handleBulkRemoveTag() {
+        chooseProfileGroup("按条件移除标签").ifPresent(group -> askTag("从" + group.describe() + "移除标签").ifPresent(tag ->
+                runBulkTask("移除标签", () -> profileManager.applyTo(group.profileIds(), profile -> {
+                    List<String> tags = profile.getTags() == null ? new ArrayList<>() : new ArrayList<>(profile.getTags());
+                    tags.removeIf(tag::equalsIgnoreCase);
+                    profile.setTags(tags);
+                }))));
+    }
+
+    @FXML
+    private void handleBulkStop() {
+        if (browserService == null) {
+            return;
+        }
+        chooseProfileGroup("按条件停止浏览器").ifPresent(group -> {
+            List<BrowserProfile> running = new ArrayList<>();
+            for (String id : group.profileIds()) {
+                BrowserProfile profile = profileManager.getProfile(id);
+                if (profile != null && profile.isActive()) {
+                    running.add(profile);
+                }
             }
-        }, "关闭", selectedProfile.getName());
+            if (running.isEmpty()) {
+                showAlert("提示", group.describe() + "均未在运行");
+                return;
+            }
+            runBatch("关闭", () -> browserService.stopAll(running, BATCH_STOP_POLICY));
+        });
+    }
+
+    @FXML
+    private void handleBulkDelete() {
+        chooseProfileGroup("按条件删除配置").ifPresent(group -> {
+            Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+            alert.setTitle("确认删除");
+            alert.setHeaderText("批量删除浏览器配置");
+            alert.setContentText("确定要删除" + group.describe() + "吗？运行中的浏览器会先被关闭，此操作不可恢复。");
+            if (alert.showAndWait().filter(response -> response == ButtonType.OK).isEmpty()) {
+                return;
+            }
+            log.info("User confirmed bulk deletion of {} profile(s) with {} = {}", group.profileIds().size(), group.attribute(), group.value());
+            runBulkTask("删除配置", () -> {
+                for (String id : group.profileIds()) {
+                    BrowserProfile profile = profileManager.getProfile(id);
+                    if (profile != null && profile.isActive() && browserService != null) {
+                        browserService.closeBrowser(profile);
+                    }
+                }
+                return profileManager.bulkDelete(group.profileIds());
+            });
+        });
+    }
+
+    /**
+     * 在后台执行批量操作，完成后在状态栏显示受影响的配置数量
+     */
+    private void runBulkTask(String action, Callable<Integer> work) {
+        setStatus("正在" + action + "...");
+        Task<Integer> task = new Task<>() {
+            @Override
+            protected Integer call() throws Exception {
+                return work.call();
+            }
+        };
+        task.setOnSucceeded(event -> {
+            setStatus(action + "完成，共 " + task.getValue() + " 个配置");
+            profileViewModel.setProfile(profileTable.getSelectionModel().getSelectedItem());
+        });
+        task.setOnFailed(event -> {
+            log.error("Bulk task '{}' failed", action, task.getException());
+            showAlert("错误", action + "失败: " + task.getException().getMessage());
+            setStatus(action + "失败");
+        });
+        if (executor != null) {
+            executor.submit(task);
+        } else {
+            new Thread(task).start();
+        }
     }
 
+    /**
+     * 在后台启动或关闭浏览器；表格与运行数量由浏览器状态变化事件更新
+     */
     private void runTask(Task<Boolean> task, String action, String profileName) {
         task.setOnSucceeded(event -> {
             if (task.getValue()) {
@@ -626,8 +1404,6 @@ public class MainController {
                 showAlert("错误", action + "浏览器失败");
                 setStatus(action + "浏览器失败");
             }
-            profileList.refresh();
-            updateProfileCount();
         });
         task.setOnFailed(event -> {
             Throwable ex = task.getException();
@@ -642,10 +1418,63 @@ public class MainController {
         }
     }
 
+    /**
+     * 在后台开始批量启动或关闭浏览器，状态栏随进度更新，结束后列出失败的配置；
+     * 表格与运行数量由浏览器状态变化事件更新
+     */
+    private void runBatch(String action, Callable<BatchOperation> start) {
+        setStatus("正在" + action + "浏览器...");
+        Task<BatchOperation> task = new Task<>() {
+            @Override
+            protected BatchOperation call() throws Exception {
+                return start.call();
+            }
+        };
+        task.setOnSucceeded(event -> {
+            BatchOperation batch = task.getValue();
+            batch.subscribe(progress -> setStatus("正在" + action + "浏览器 " + progress.completed() + "/" + progress.total()
+                    + (progress.failed() > 0 ? "，" + progress.failed() + " 个失败" : "")));
+            batch.getCompletion().thenAccept(progress -> Platform.runLater(() -> showBatchResult(action, batch, progress)));
+        });
+        task.setOnFailed(event -> {
+            log.error("Batch {} task failed", action, task.getException());
+            showAlert("错误", action + "任务失败: " + task.getException().getMessage());
+            setStatus(action + "浏览器失败");
+        });
+        if (executor != null) {
+            executor.submit(task);
+        } else {
+            new Thread(task).start();
+        }
+    }
+
+    private void showBatchResult(String action, BatchOperation batch, BatchOperation.Progress progress) {
+        StringBuilder summary = new StringBuilder("已" + action + " " + progress.succeeded() + " 个浏览器");
+        if (progress.failed() > 0) {
+            summary.append("，").append(progress.failed()).append(" 个失败");
+        }
+        if (progress.cancelled() > 0) {
+            summary.append("，").append(progress.cancelled()).append(" 个未执行");
+        }
+        setStatus(summary.toString());
+
+        List<String> failedNames = new ArrayList<>();
+        batch.getResults().forEach((id, result) -> {
+            if (!result.isCancelled() && !result.exceptionally(e -> false).join()) {
+                BrowserProfile profile = profileManager.getProfile(id);
+                failedNames.add(profile == null ? id : profile.getName());
+            }
+        });
+        if (!failedNames.isEmpty()) {
+            String names = String.join("、", failedNames.subList(0, Math.min(failedNames.size(), MAX_LISTED_FAILURES)));
+            showAlert("错误", action + "失败的配置: " + names + (failedNames.size() > MAX_LISTED_FAILURES ? " 等" : ""));
+        }
+    }
+
     @FXML
     private void handleRefreshList() {
-        profileList.refresh();
-        updateProfileCount();
+        refreshRows();
+        profileTable.refresh();
         setStatus("已刷新列表");
         log.info("Profile list refreshed.");
     }
@@ -817,8 +1646,8 @@ public class MainController {
      * 提供主界面的 Scene 以供外部展示 Toast 等
      */
     public Scene getScene() {
-        if (profileList != null) {
-            return profileList.getScene();
+        if (profileTable != null) {
+            return profileTable.getScene();
         }
         return null;
     }
@@ -868,6 +1697,13 @@ public class MainController {
      * 应用即将关闭时的清理逻辑
      */
     public void onAppClose() {
+        try {
+            if (profileManager != null) {
+                profileManager.close();
+            }
+        } catch (Exception e) {
+            log.warn("Error while closing ProfileManagerService", e);
+        }
         try {
             if (browserService != null) {
                 browserService.close();
@@ -875,6 +1711,7 @@ public class MainController {
             if (executor != null) {
                 executor.shutdownNow();
             }
+            searchExecutor.shutdownNow();
         } catch (Exception e) {
             log.warn("Error while closing BrowserService", e);
         }
@@ -15,8 +15,12 @@ import javafx.stage.Stage;
 
 import java.io.File;
 import java.net.*;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class ProfileController {
     @FXML
@@ -67,6 +71,8 @@ public class ProfileController {
 
     @FXML
     private TextArea notesArea;
+    @FXML
+    private TextField tagsField;
 
     private ProfileManagerService profileManager;
     private BrowserProfile profile;
@@ -210,6 +216,11 @@ public class ProfileController {
         if (profile.getNotes() != null) {
             notesArea.setText(profile.getNotes());
         }
+
+        // 标签
+        if (profile.getTags() != null) {
+            tagsField.setText(String.join(", ", profile.getTags()));
+        }
     }
 
     @FXML
@@ -441,8 +452,11 @@ public class ProfileController {
         // 更新备注
         profile.setNotes(notesArea.getText());
 
+        // 更新标签，以中英文逗号分隔，忽略空白与重复
+        profile.setTags(parseTags(tagsField.getText()));
+
         // 保存配置
-        if (profileManager.getProfile(profile.getId()) == null) {
+        if (!profileManager.containsProfile(profile.getId())) {
             profileManager.addProfile(profile);
         } else {
             profileManager.updateProfile(profile);
@@ -457,6 +471,18 @@ public class ProfileController {
         closeWindow();
     }
 
+    private static List<String> parseTags(String text) {
+        Set<String> tags = new LinkedHashSet<>();
+        if (text != null) {
+            for (String tag : text.split("[,，]")) {
+                if (!tag.isBlank()) {
+                    tags.add(tag.trim());
+                }
+            }
+        }
+        return new ArrayList<>(tags);
+    }
+
     private void closeWindow() {
         Stage stage = (Stage) nameField.getScene().getWindow();
         stage.close();
@@ -1,5 +1,9 @@
 package com.basis.fingerbrowser.controller;
 
+import com.basis.fingerbrowser.service.ProfileCodec;
+import com.basis.fingerbrowser.service.ProfileDedupIndex;
+import com.basis.fingerbrowser.util.DirectoryLayout;
+import com.basis.fingerbrowser.service.ProfileStore;
 import com.basis.fingerbrowser.service.ThemeService;
 import com.basis.fingerbrowser.util.DialogUtil;
 import com.basis.fingerbrowser.util.AppPreferences;
@@ -43,6 +47,13 @@ public class SettingsController implements Initializable {
     @FXML private CheckBox disableBackgroundNetworkingCheckBox;
     @FXML private CheckBox disableComponentUpdateCheckBox;
     @FXML private CheckBox v8MemoryTweakCheckBox;
+    // Storage
+    @FXML private CheckBox durableWritesCheckBox;
+    @FXML private ComboBox<ProfileStore.Backend> storageBackendComboBox;
+    @FXML private ComboBox<ProfileCodec> storageCodecComboBox;
+    @FXML private CheckBox shardedLayoutCheckBox;
+    // Import
+    @FXML private ComboBox<ProfileDedupIndex.DuplicatePolicy> duplicatePolicyComboBox;
 
     // 服务和工具
     private ThemeService themeService;
@@ -61,6 +72,9 @@ public class SettingsController implements Initializable {
         themeService = ThemeService.getInstance();
         // 使用与MainController相同的Preferences节点
         preferences = AppPreferences.getNode();
+        storageBackendComboBox.getItems().setAll(ProfileStore.Backend.values());
+        storageCodecComboBox.getItems().setAll(ProfileCodec.values());
+        duplicatePolicyComboBox.getItems().setAll(ProfileDedupIndex.DuplicatePolicy.values());
 
         // 设置控件监听器
         setupControlListeners();
@@ -104,6 +118,11 @@ public class SettingsController implements Initializable {
         disableBackgroundNetworkingCheckBox.setOnAction(e -> markAsChanged());
         disableComponentUpdateCheckBox.setOnAction(e -> markAsChanged());
         v8MemoryTweakCheckBox.setOnAction(e -> markAsChanged());
+        durableWritesCheckBox.setOnAction(e -> markAsChanged());
+        storageBackendComboBox.setOnAction(e -> markAsChanged());
+        storageCodecComboBox.setOnAction(e -> markAsChanged());
+        shardedLayoutCheckBox.setOnAction(e -> markAsChanged());
+        duplicatePolicyComboBox.setOnAction(e -> markAsChanged());
     }
 
     /**
@@ -138,6 +157,16 @@ public class SettingsController implements Initializable {
             disableBackgroundNetworkingCheckBox.setSelected(preferences.getBoolean(AppPreferences.DISABLE_BACKGROUND_NETWORKING_KEY, true));
             disableComponentUpdateCheckBox.setSelected(preferences.getBoolean(AppPreferences.DISABLE_COMPONENT_UPDATE_KEY, true));
             v8MemoryTweakCheckBox.setSelected(preferences.getBoolean(AppPreferences.V8_MEMORY_TWEAK_KEY, true));
+            // 加载存储设置
+            durableWritesCheckBox.setSelected(preferences.getBoolean(AppPreferences.DURABLE_WRITES_KEY, true));
+            storageBackendComboBox.setValue(ProfileStore.Backend.fromName(
+                    preferences.get(AppPreferences.STORAGE_BACKEND_KEY, ProfileStore.Backend.JSON.name())));
+            storageCodecComboBox.setValue(ProfileCodec.fromName(
+                    preferences.get(AppPreferences.STORAGE_CODEC_KEY, ProfileCodec.PRETTY_JSON.name())));
+            shardedLayoutCheckBox.setSelected(DirectoryLayout.current() == DirectoryLayout.SHARDED);
+            // 加载导入设置
+            duplicatePolicyComboBox.setValue(ProfileDedupIndex.DuplicatePolicy.fromName(
+                    preferences.get(AppPreferences.IMPORT_DUPLICATE_POLICY_KEY, ProfileDedupIndex.DuplicatePolicy.SKIP.name())));
 
             // 加载语言设置
             String language = preferences.get(LANGUAGE_KEY, "简体中文");
@@ -225,10 +254,30 @@ public class SettingsController implements Initializable {
             preferences.putBoolean(AppPreferences.DISABLE_BACKGROUND_NETWORKING_KEY, disableBackgroundNetworkingCheckBox.isSelected());
             preferences.putBoolean(AppPreferences.DISABLE_COMPONENT_UPDATE_KEY, disableComponentUpdateCheckBox.isSelected());
             preferences.putBoolean(AppPreferences.V8_MEMORY_TWEAK_KEY, v8MemoryTweakCheckBox.isSelected());
+            // 保存存储设置
+            preferences.putBoolean(AppPreferences.DURABLE_WRITES_KEY, durableWritesCheckBox.isSelected());
+            if (storageBackendComboBox.getValue() != null) {
+                preferences.put(AppPreferences.STORAGE_BACKEND_KEY, storageBackendComboBox.getValue().name());
+            }
+            if (storageCodecComboBox.getValue() != null) {
+                preferences.put(AppPreferences.STORAGE_CODEC_KEY, storageCodecComboBox.getValue().name());
+            }
+            DirectoryLayout layout = shardedLayoutCheckBox.isSelected() ? DirectoryLayout.SHARDED : DirectoryLayout.FLAT;
+            boolean layoutChanged = layout != DirectoryLayout.current();
+            preferences.putBoolean(AppPreferences.SHARDED_LAYOUT_KEY, layout == DirectoryLayout.SHARDED);
+            // 保存导入设置
+            if (duplicatePolicyComboBox.getValue() != null) {
+                preferences.put(AppPreferences.IMPORT_DUPLICATE_POLICY_KEY, duplicatePolicyComboBox.getValue().name());
+            }
 
             // 刷新偏好设置
             preferences.flush();
 
+            // 目录布局立即生效，现有文件在后台迁移
+            if (layoutChanged && mainController != null) {
+                mainController.changeDirectoryLayout(layout);
+            }
+
             // 重置变更标记
             hasChanges = false;
 
@@ -293,6 +342,11 @@ public class SettingsController implements Initializable {
             // 重置其他设置
             autoSaveCheckBox.setSelected(true);
             checkUpdatesCheckBox.setSelected(false);
+            durableWritesCheckBox.setSelected(true);
+            storageBackendComboBox.setValue(ProfileStore.Backend.JSON);
+            storageCodecComboBox.setValue(ProfileCodec.PRETTY_JSON);
+            shardedLayoutCheckBox.setSelected(false);
+            duplicatePolicyComboBox.setValue(ProfileDedupIndex.DuplicatePolicy.SKIP);
             languageComboBox.setValue("简体中文");
 
             // 标记为已变更
@@ -2,8 +2,12 @@ package com.basis.fingerbrowser.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -27,11 +31,23 @@ public class BrowserProfile {
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
     private LocalDateTime lastUsed;
     private String notes;
+    private List<String> tags;
     private String browserExecutablePath;
     private String userDataDir;
     @JsonIgnore
     private boolean active;
     private ProxyConfiguration proxyConfiguration;
+    // 会话数据延迟加载器，为 null 表示会话数据已在内存中
+    @JsonIgnore
+    private volatile StateLoader stateLoader;
+
+    /**
+     * 会话数据加载器
+     */
+    @FunctionalInterface
+    public interface StateLoader {
+        ProfileState load() throws IOException;
+    }
 
     public BrowserProfile() {
         this.id = UUID.randomUUID().toString();
@@ -43,6 +59,7 @@ public class BrowserProfile {
         this.cookies = new HashMap<>();
         this.localStorage = new HashMap<>();
         this.customHeaders = new HashMap<>();
+        this.tags = new ArrayList<>();
         this.active = false;
     }
 
@@ -57,6 +74,7 @@ public class BrowserProfile {
         this.cookies = new HashMap<>();
         this.localStorage = new HashMap<>();
         this.customHeaders = new HashMap<>();
+        this.tags = new ArrayList<>();
         this.active = false;
     }
 
@@ -122,26 +140,32 @@ public class BrowserProfile {
     }
 
     public Map<String, String> getCookies() {
+        loadState();
         return cookies;
     }
 
     public void setCookies(Map<String, String> cookies) {
+        loadState();
         this.cookies = cookies;
     }
 
     public Map<String, String> getLocalStorage() {
+        loadState();
         return localStorage;
     }
 
     public void setLocalStorage(Map<String, String> localStorage) {
+        loadState();
         this.localStorage = localStorage;
     }
 
     public Map<String, String> getCustomHeaders() {
+        loadState();
         return customHeaders;
     }
 
     public void setCustomHeaders(Map<String, String> customHeaders) {
+        loadState();
         this.customHeaders = customHeaders;
     }
 
@@ -193,6 +217,14 @@ public class BrowserProfile {
         this.notes = notes;
     }
 
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public void setTags(List<String> tags) {
+        this.tags = tags;
+    }
+
     public String getBrowserExecutablePath() {
         return browserExecutablePath;
     }
@@ -225,6 +257,76 @@ public class BrowserProfile {
         this.proxyConfiguration = proxyConfiguration;
     }
 
+    /**
+     * 改为按需加载会话数据，首次访问 Cookie、LocalStorage 或自定义请求头时调用加载器
+     * 已持有非空会话数据时（如旧格式记录中内联的数据）忽略
+     */
+    @JsonIgnore
+    public void setStateLoader(StateLoader loader) {
+        if (isNullOrEmpty(cookies) && isNullOrEmpty(localStorage) && isNullOrEmpty(customHeaders)) {
+            this.cookies = null;
+            this.localStorage = null;
+            this.customHeaders = null;
+            this.stateLoader = loader;
+        }
+    }
+
+    /**
+     * 会话数据是否已在内存中
+     */
+    @JsonIgnore
+    public boolean isStateLoaded() {
+        return stateLoader == null;
+    }
+
+    /**
+     * 立即加载会话数据，加载失败时抛出 UncheckedIOException 且保持未加载状态
+     */
+    public void loadState() {
+        if (stateLoader == null) {
+            return;
+        }
+        synchronized (this) {
+            StateLoader loader = stateLoader;
+            if (loader == null) {
+                return;
+            }
+            try {
+                ProfileState state = loader.load();
+                this.cookies = state != null && state.getCookies() != null ? state.getCookies() : new HashMap<>();
+                this.localStorage = state != null && state.getLocalStorage() != null ? state.getLocalStorage() : new HashMap<>();
+                this.customHeaders = state != null && state.getCustomHeaders() != null ? state.getCustomHeaders() : new HashMap<>();
+                this.stateLoader = null;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to load session data for profile " + id, e);
+            }
+        }
+    }
+
+    /**
+     * 接管另一份记录的会话数据（或其加载器），不触发加载
+     */
+    public void adoptState(BrowserProfile other) {
+        synchronized (this) {
+            this.cookies = other.cookies;
+            this.localStorage = other.localStorage;
+            this.customHeaders = other.customHeaders;
+            this.stateLoader = other.stateLoader;
+        }
+    }
+
+    /**
+     * 获取会话数据，用于单独存储
+     */
+    public ProfileState toState() {
+        loadState();
+        return new ProfileState(cookies, localStorage, customHeaders);
+    }
+
+    private static boolean isNullOrEmpty(Map<String, String> map) {
+        return map == null || map.isEmpty();
+    }
+
     @Override
     public String toString() {
         return name;
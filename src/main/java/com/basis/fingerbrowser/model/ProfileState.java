@@ -0,0 +1,50 @@
+package com.basis.fingerbrowser.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 配置的会话数据（Cookie、LocalStorage、自定义请求头）
+ * 与配置主记录分开存储，按需加载
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ProfileState {
+    private Map<String, String> cookies = new HashMap<>();
+    private Map<String, String> localStorage = new HashMap<>();
+    private Map<String, String> customHeaders = new HashMap<>();
+
+    public ProfileState() {
+    }
+
+    public ProfileState(Map<String, String> cookies, Map<String, String> localStorage, Map<String, String> customHeaders) {
+        this.cookies = cookies;
+        this.localStorage = localStorage;
+        this.customHeaders = customHeaders;
+    }
+
+    public Map<String, String> getCookies() {
+        return cookies;
+    }
+
+    public void setCookies(Map<String, String> cookies) {
+        this.cookies = cookies;
+    }
+
+    public Map<String, String> getLocalStorage() {
+        return localStorage;
+    }
+
+    public void setLocalStorage(Map<String, String> localStorage) {
+        this.localStorage = localStorage;
+    }
+
+    public Map<String, String> getCustomHeaders() {
+        return customHeaders;
+    }
+
+    public void setCustomHeaders(Map<String, String> customHeaders) {
+        this.customHeaders = customHeaders;
+    }
+}
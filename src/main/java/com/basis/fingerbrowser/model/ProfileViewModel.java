@@ -27,6 +27,7 @@ public class ProfileViewModel {
     private final StringProperty proxyPort = new SimpleStringProperty();
     private final StringProperty proxyAuth = new SimpleStringProperty();
     private final StringProperty notes = new SimpleStringProperty();
+    private final StringProperty tags = new SimpleStringProperty();
 
     private BrowserProfile profile;
 
@@ -49,6 +50,7 @@ public class ProfileViewModel {
         timezone.set(profile.getTimezone());
         resolution.set(profile.getResolution());
         notes.set(profile.getNotes());
+        tags.set(profile.getTags() == null ? "" : String.join(", ", profile.getTags()));
 
         // WebRTC
         if (profile.getWebRTCSettings() != null) {
@@ -105,6 +107,7 @@ public class ProfileViewModel {
         proxyPort.set("");
         proxyAuth.set("");
         notes.set("");
+        tags.set("");
     }
 
     // --- Getters for JavaFX properties ---
@@ -124,4 +127,5 @@ public class ProfileViewModel {
     public StringProperty proxyPortProperty() { return proxyPort; }
     public StringProperty proxyAuthProperty() { return proxyAuth; }
     public StringProperty notesProperty() { return notes; }
+    public StringProperty tagsProperty() { return tags; }
 }
@@ -1,10 +1,14 @@
 package com.basis.fingerbrowser.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
 import java.io.Serializable;
 /**
  * 代理设置模型类
  * 用于存储和管理浏览器代理配置信息
  */
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class ProxySettings implements Serializable {
     private static final long serialVersionUID = 1L;
 
@@ -162,6 +166,7 @@ public class ProxySettings implements Serializable {
      *
      * @return 如果设置有效则返回true
      */
+    @JsonIgnore
     public boolean isValid() {
         if (type.equals("DIRECT")) {
             return true;
@@ -204,6 +209,7 @@ public class ProxySettings implements Serializable {
      *
      * @return 如果是直接连接则返回true
      */
+    @JsonIgnore
     public boolean isDirect() {
         return "DIRECT".equals(type);
     }
@@ -213,6 +219,7 @@ public class ProxySettings implements Serializable {
      *
      * @return 代理参数字符串
      */
+    @JsonIgnore
     public String getBrowserProxyArgument() {
         if (isDirect()) {
             return null;
@@ -0,0 +1,259 @@
+package com.basis.fingerbrowser.service;
+
+import com.basis.fingerbrowser.model.BrowserProfile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * 对一组配置进行的批量浏览器操作
+ * 由 {@link BrowserService#launchAll} 与 {@link BrowserService#stopAll} 创建并立即开始：
+ * 按 {@link LaunchPolicy} 限制同时进行的数量与每秒开始的数量，依次处理各配置。
+ * 每个配置对应一个结果，操作成功时为 true；未开始就被取消的配置其结果被取消。
+ * 进度在每个配置完成后发布，订阅者按完成顺序收到递增的进度
+ */
+public final class BatchOperation {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchOperation.class);
+
+    /**
+     * 批量操作的进度
+     *
+     * @param total     配置总数
+     * @param succeeded 成功的数量
+     * @param failed    失败的数量（返回 false 或抛出异常）
+     * @param cancelled 未开始就被取消的数量
+     */
+    public record Progress(int total, int succeeded, int failed, int cancelled) {
+
+        /**
+         * 已结束的数量
+         */
+        public int completed() {
+            return succeeded + failed + cancelled;
+        }
+
+        /**
+         * 是否所有配置都已结束
+         */
+        public boolean isDone() {
+            return completed() == total;
+        }
+    }
+
+    private final String action;
+    private final List<BrowserProfile> profiles;
+    private final Map<String, CompletableFuture<Boolean>> results;
+    private final LaunchPolicy policy;
+    private final Predicate<BrowserProfile> operation;
+    private final Executor executor;
+    private final Semaphore inFlight;
+    private final CompletableFuture<Progress> completion = new CompletableFuture<>();
+    private final List<Consumer<Progress>> subscribers = new CopyOnWriteArrayList<>();
+
+    // 以下状态由 this 保护
+    // 已开始的配置数量，按 profiles 的顺序开始
+    private int started;
+    private boolean cancelRequested;
+    private Progress progress;
+
+    /**
+     * @param action    操作名称，用于日志
+     * @param profiles  要处理的配置，ID 重复的只处理第一个
+     * @param operation 对单个配置的操作，返回是否成功
+     * @param executor  执行调度与各配置操作的线程池
+     */
+    BatchOperation(String action, Collection<BrowserProfile> profiles, LaunchPolicy policy,
+                   Predicate<BrowserProfile> operation, Executor executor) {
+        Map<String, BrowserProfile> unique = new LinkedHashMap<>();
+        for (BrowserProfile profile : profiles) {
+            unique.putIfAbsent(profile.getId(), profile);
+        }
+        this.action = action;
+        this.profiles = List.copyOf(unique.values());
+        this.policy = policy;
+        this.operation = operation;
+        this.executor = executor;
+        this.inFlight = new Semaphore(policy.maxInFlight());
+        this.progress = new Progress(this.profiles.size(), 0, 0, 0);
+
+        Map<String, CompletableFuture<Boolean>> futures = new LinkedHashMap<>();
+        for (BrowserProfile profile : this.profiles) {
+            CompletableFuture<Boolean> future = new CompletableFuture<>();
+            future.whenComplete((result, error) -> onFinished(profile, result, error));
+            futures.put(profile.getId(), future);
+        }
+        this.results = Collections.unmodifiableMap(futures);
+    }
+
+    /**
+     * 开始调度；线程池拒绝时取消全部配置
+     */
+    void start() {
+        if (profiles.isEmpty()) {
+            completion.complete(progress);
+            return;
+        }
+        try {
+            executor.execute(this::dispatch);
+        } catch (RejectedExecutionException e) {
+            cancel();
+        }
+    }
+
+    /**
+     * 按配置ID获取各配置的结果，顺序与传入时一致
+     */
+    public Map<String, CompletableFuture<Boolean>> getResults() {
+        return results;
+    }
+
+    /**
+     * 获取单个配置的结果，配置不在本次操作中时返回 null
+     */
+    public CompletableFuture<Boolean> getResult(String profileId) {
+        return results.get(profileId);
+    }
+
+    /**
+     * 所有配置都结束后以最终进度完成
+     */
+    public CompletableFuture<Progress> getCompletion() {
+        return completion;
+    }
+
+    /**
+     * 获取当前进度
+     */
+    public synchronized Progress getProgress() {
+        return progress;
+    }
+
+    /**
+     * 订阅进度：立即收到当前进度，之后每个配置结束时收到一次，直到全部结束。
+     * 在完成操作的线程上回调，实现应尽快返回
+     */
+    public void subscribe(Consumer<Progress> subscriber) {
+        synchronized (this) {
+            subscribers.add(subscriber);
+            publish(subscriber, progress);
+        }
+    }
+
+    /**
+     * 不再开始尚未开始的配置，其结果被取消；已开始的操作照常完成
+     */
+    public void cancel() {
+        List<CompletableFuture<Boolean>> pending;
+        synchronized (this) {
+            if (cancelRequested) {
+                return;
+            }
+            cancelRequested = true;
+            pending = new ArrayList<>(profiles.size() - started);
+            for (int i = started; i < profiles.size(); i++) {
+                pending.add(results.get(profiles.get(i).getId()));
+            }
+        }
+        // 在锁外取消，结果的回调会更新进度
+        pending.forEach(future -> future.cancel(false));
+    }
+
+    private void dispatch() {
+        long interval = policy.launchesPerSecond() > 0
+                ? (long) (TimeUnit.SECONDS.toNanos(1) / policy.launchesPerSecond()) : 0;
+        long nextStart = System.nanoTime();
+        for (BrowserProfile profile : profiles) {
+            try {
+                inFlight.acquire();
+                long delay = nextStart - System.nanoTime();
+                if (delay > 0) {
+                    TimeUnit.NANOSECONDS.sleep(delay);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel();
+                return;
+            }
+            // 空闲之后不补发积压的配额，避免突发
+            nextStart = Math.max(nextStart, System.nanoTime()) + interval;
+
+            synchronized (this) {
+                if (cancelRequested) {
+                    inFlight.release();
+                    return;
+                }
+                started++;
+            }
+            CompletableFuture<Boolean> future = results.get(profile.getId());
+            try {
+                executor.execute(() -> run(profile, future));
+            } catch (RejectedExecutionException e) {
+                inFlight.release();
+                future.cancel(false);
+                cancel();
+                return;
+            }
+        }
+    }
+
+    private void run(BrowserProfile profile, CompletableFuture<Boolean> future) {
+        try {
+            future.complete(operation.test(profile));
+        } catch (RuntimeException e) {
+            log.warn("Batch {} failed for profile '{}'", action, profile.getName(), e);
+            future.completeExceptionally(e);
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    private void onFinished(BrowserProfile profile, Boolean result, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        boolean cancelled = cause instanceof CancellationException;
+        boolean failed = !cancelled && (cause != null || !Boolean.TRUE.equals(result));
+        Progress next;
+        synchronized (this) {
+            next = new Progress(progress.total(),
+                    progress.succeeded() + (cancelled || failed ? 0 : 1),
+                    progress.failed() + (failed ? 1 : 0),
+                    progress.cancelled() + (cancelled ? 1 : 0));
+            progress = next;
+            for (Consumer<Progress> subscriber : subscribers) {
+                publish(subscriber, next);
+            }
+        }
+        if (failed && policy.failFast()) {
+            log.info("Batch {} stopped after profile '{}' failed", action, profile.getName());
+            cancel();
+        }
+        if (next.isDone()) {
+            log.info("Batch {} finished: {}", action, next);
+            completion.complete(next);
+        }
+    }
+
+    private void publish(Consumer<Progress> subscriber, Progress value) {
+        try {
+            subscriber.accept(value);
+        } catch (RuntimeException e) {
+            log.warn("Batch {} progress subscriber failed", action, e);
+        }
+    }
+}
@@ -1,17 +1,27 @@
 package com.basis.fingerbrowser.service;
 
 import com.basis.fingerbrowser.model.BrowserProfile;
+import com.basis.fingerbrowser.util.DirectoryLayout;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 public class BrowserService implements AutoCloseable {
 
@@ -19,18 +29,50 @@ public class BrowserService implements AutoCloseable {
     private static final int DEFAULT_SHUTDOWN_TIMEOUT_SECONDS = 10;
     private static final int PROCESS_TERMINATION_TIMEOUT_SECONDS = 5;
     private static final int FORCE_TERMINATION_TIMEOUT_SECONDS = 2;
+    // 等待浏览器就绪的最长时间及检查间隔
+    private static final long READY_TIMEOUT_MILLIS = 30_000;
+    private static final long READY_POLL_MILLIS = 50;
+    // 远程调试端口就绪后 Chromium 在用户数据目录中写入的文件，首行为端口号
+    private static final String DEVTOOLS_PORT_FILE = "DevToolsActivePort";
+    // 浏览器的标准输出与错误输出写入用户数据目录中的该文件，每次启动时覆盖
+    private static final String OUTPUT_LOG_FILE = "browser-output.log";
+    // 记录日志时最多读取的输出末尾字节数
+    private static final int OUTPUT_TAIL_BYTES = 8 * 1024;
 
     private final Map<String, Process> runningBrowsers = new ConcurrentHashMap<>();
-    private final ExecutorService monitoringExecutor = Executors.newCachedThreadPool(r -> {
-        Thread thread = new Thread(r, "browser-monitor");
+    // 正在启动的配置，同一配置的并发启动请求共享同一次启动的结果
+    private final Map<String, CompletableFuture<Boolean>> pendingLaunches = new ConcurrentHashMap<>();
+    // 启动时定位用户数据目录持有读锁，可并发进行；布局迁移移动目录时持有写锁
+    private final ReadWriteLock directoryLock = new ReentrantReadWriteLock();
+    // 进程退出后的状态更新在该线程上执行；进程退出由 Process.onExit() 通知，不为每个浏览器占用线程
+    private final ExecutorService supervisor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "browser-supervisor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // 批量启动与关闭：调度及各配置的操作
+    private final ExecutorService batchExecutor = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "browser-batch");
         thread.setDaemon(true);
         return thread;
     });
     private final AtomicBoolean isShutdown = new AtomicBoolean(false);
+    private final List<StateListener> stateListeners = new CopyOnWriteArrayList<>();
+
+    // 按ID查找列表中当前的配置对象；配置对象可能在浏览器运行期间被替换，默认只使用启动时的对象
+    private volatile Function<String, BrowserProfile> profileLookup = id -> null;
 
     private volatile String baseBrowserPath;
     private final String baseDataDir;
 
+    /**
+     * 浏览器运行状态变化的监听器
+     * 在启动任务、关闭任务或进程监督所在的线程上回调，实现应尽快返回
+     */
+    public interface StateListener {
+        void onStateChanged(BrowserProfile profile, boolean running);
+    }
+
     public BrowserService(String baseBrowserPath, String baseDataDir) {
         this.baseBrowserPath = baseBrowserPath;
         this.baseDataDir = baseDataDir;
@@ -63,6 +105,38 @@ public class BrowserService implements AutoCloseable {
         log.info("Browser executable path updated to: {}", path);
     }
 
+    /**
+     * 设置按ID查找当前配置对象的方法
+     * 外部同步、导入合并或批量修改可能以新对象替换运行中的配置，进程退出时据此清除新对象的运行状态
+     */
+    public void setProfileLookup(Function<String, BrowserProfile> lookup) {
+        this.profileLookup = lookup == null ? id -> null : lookup;
+    }
+
+    /**
+     * 注册运行状态监听器
+     */
+    public void addStateListener(StateListener listener) {
+        stateListeners.add(listener);
+    }
+
+    /**
+     * 移除运行状态监听器
+     */
+    public void removeStateListener(StateListener listener) {
+        stateListeners.remove(listener);
+    }
+
+    private void notifyStateChanged(BrowserProfile profile, boolean running) {
+        for (StateListener listener : stateListeners) {
+            try {
+                listener.onStateChanged(profile, running);
+            } catch (RuntimeException e) {
+                log.warn("Browser state listener failed for profile '{}'", profile.getName(), e);
+            }
+        }
+    }
+
     /**
      * 获取基础数据目录
      */
@@ -71,7 +145,8 @@ public class BrowserService implements AutoCloseable {
     }
 
     /**
-     * 启动浏览器实例
+     * 启动浏览器实例，在浏览器就绪（或启动失败）后返回
+     * 不同配置可以并发启动；同一配置的并发请求只启动一次，后到的请求等待并返回同一结果
      * @param profile 浏览器配置文件
      * @return 是否启动成功
      * @throws IllegalArgumentException 如果配置文件无效
@@ -84,62 +159,189 @@ public class BrowserService implements AutoCloseable {
             throw new IllegalStateException("Browser service has been shutdown");
         }
 
-        synchronized (this) {
+        CompletableFuture<Boolean> launch = new CompletableFuture<>();
+        CompletableFuture<Boolean> existing = pendingLaunches.putIfAbsent(profile.getId(), launch);
+        if (existing != null) {
+            log.info("Profile '{}' is already being launched, waiting for that launch.", profile.getName());
             try {
-                // 如果浏览器已经在运行，则返回
-                if (runningBrowsers.containsKey(profile.getId())) {
-                    log.warn("Profile {} is already running.", profile.getName());
-                    return true;
+                return existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
                 }
+                throw e;
+            }
+        }
+        try {
+            boolean launched = doLaunchBrowser(profile);
+            launch.complete(launched);
+            return launched;
+        } catch (RuntimeException e) {
+            launch.completeExceptionally(e);
+            throw e;
+        } finally {
+            pendingLaunches.remove(profile.getId(), launch);
+        }
+    }
 
-                // 准备用户数据目录
-                String userDataDir = prepareProfileDirectory(profile);
-                profile.setUserDataDir(userDataDir);
-
-                // 准备启动命令
-                List<String> command = buildBrowserCommand(profile);
-                log.info("Launching browser for profile '{}' with command: {}", profile.getName(), String.join(" ", command));
-
-                // 启动进程
-                ProcessBuilder builder = new ProcessBuilder(command);
-                builder.redirectErrorStream(true);
-                Process process = builder.start();
-
-                // 启动输出消费线程，避免缓冲区阻塞
-                startProcessOutputGobbler(profile, process);
-
-                // 验证进程启动成功
-                try {
-                    Thread.sleep(2000); // 增加等待时间到2秒，确保进程稳定启动
-                    if (!process.isAlive()) {
-                        int exitCode = process.exitValue();
-                        log.error("Browser process for profile '{}' exited immediately with code {}. Command was: {}",
-                                profile.getName(), exitCode, String.join(" ", command));
-                        return false;
-                    }
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    log.warn("Interrupted while validating browser startup");
-                }
+    /**
+     * 按给定节奏批量启动浏览器，立即返回；各配置的启动与 {@link #launchBrowser} 相同，已在运行的配置直接成功
+     * @param profiles 要启动的配置，ID 重复的只启动一次
+     * @param policy 同时启动的数量、每秒开始启动的数量以及失败后是否继续
+     * @return 批量操作，可获取各配置的结果与进度
+     * @throws IllegalArgumentException 如果配置或节奏无效
+     * @throws IllegalStateException 如果服务已关闭
+     */
+    public BatchOperation launchAll(Collection<BrowserProfile> profiles, LaunchPolicy policy) {
+        return startBatch("launch", profiles, policy, this::launchBrowser);
+    }
 
-                // 记录启动的浏览器
-                runningBrowsers.put(profile.getId(), process);
-                profile.setActive(true);
-                profile.updateLastUsed();
+    /**
+     * 按给定节奏批量关闭浏览器，立即返回；未在运行的配置直接成功
+     * @param profiles 要关闭的配置，ID 重复的只关闭一次
+     * @param policy 同时关闭的数量、每秒开始关闭的数量以及失败后是否继续
+     * @return 批量操作，可获取各配置的结果与进度
+     * @throws IllegalArgumentException 如果配置或节奏无效
+     * @throws IllegalStateException 如果服务已关闭
+     */
+    public BatchOperation stopAll(Collection<BrowserProfile> profiles, LaunchPolicy policy) {
+        return startBatch("stop", profiles, policy, this::closeBrowser);
+    }
+
+    private BatchOperation startBatch(String action, Collection<BrowserProfile> profiles, LaunchPolicy policy,
+                                      Predicate<BrowserProfile> operation) {
+        if (profiles == null || policy == null) {
+            throw new IllegalArgumentException("Profiles and launch policy cannot be null");
+        }
+        profiles.forEach(this::validateProfile);
+        if (isShutdown.get()) {
+            throw new IllegalStateException("Browser service has been shutdown");
+        }
 
-                // 启动监控线程以检测浏览器关闭
-                monitorBrowserProcess(profile, process);
+        BatchOperation batch = new BatchOperation(action, profiles, policy, operation, batchExecutor);
+        log.info("Starting batch {} of {} profiles with {}", action, batch.getResults().size(), policy);
+        batch.start();
+        return batch;
+    }
 
-                log.info("Successfully launched browser for profile '{}'", profile.getName());
+    private boolean doLaunchBrowser(BrowserProfile profile) {
+        try {
+            // 如果浏览器已经在运行，则返回
+            if (runningBrowsers.containsKey(profile.getId())) {
+                log.warn("Profile {} is already running.", profile.getName());
                 return true;
+            }
 
-            } catch (IllegalArgumentException e) {
-                log.error("Invalid browser configuration for profile '{}': {}", profile.getName(), e.getMessage());
+            // 准备用户数据目录；此时配置已登记为正在启动，之后的迁移会跳过该目录
+            String userDataDir;
+            directoryLock.readLock().lock();
+            try {
+                userDataDir = prepareProfileDirectory(profile);
+            } finally {
+                directoryLock.readLock().unlock();
+            }
+            profile.setUserDataDir(userDataDir);
+            // 删除上次运行留下的端口文件，避免误判为已就绪
+            Path portFile = Paths.get(userDataDir, DEVTOOLS_PORT_FILE);
+            Files.deleteIfExists(portFile);
+
+            // 准备启动命令
+            List<String> command = buildBrowserCommand(profile, userDataDir);
+            log.info("Launching browser for profile '{}' with command: {}", profile.getName(), String.join(" ", command));
+
+            // 启动进程；输出直接写入文件，无需线程消费管道
+            Path outputLog = Paths.get(userDataDir, OUTPUT_LOG_FILE);
+            ProcessBuilder builder = new ProcessBuilder(command);
+            builder.redirectErrorStream(true);
+            builder.redirectOutput(ProcessBuilder.Redirect.to(outputLog.toFile()));
+            long start = System.currentTimeMillis();
+            Process process = builder.start();
+
+            // 等待浏览器就绪
+            try {
+                int port = awaitReady(process, portFile);
+                if (port < 0) {
+                    int exitCode = process.exitValue();
+                    log.error("Browser process for profile '{}' exited during startup with code {}. Command was: {}\nOutput:\n{}",
+                            profile.getName(), exitCode, String.join(" ", command), readOutputTail(outputLog));
+                    return false;
+                }
+                if (port == 0) {
+                    log.warn("Browser for profile '{}' did not report readiness within {} ms, assuming it is up.",
+                            profile.getName(), READY_TIMEOUT_MILLIS);
+                } else {
+                    log.info("Browser for profile '{}' is ready on DevTools port {} after {} ms",
+                            profile.getName(), port, System.currentTimeMillis() - start);
+                }
+            } catch (InterruptedException e) {
+                // 服务关闭或调用方取消：不再登记该进程，否则它不会被任何一方关闭
+                Thread.currentThread().interrupt();
+                log.warn("Interrupted while waiting for browser startup of profile '{}', terminating it", profile.getName());
+                process.destroyForcibly();
                 return false;
-            } catch (IOException e) {
-                log.error("Failed to launch browser for profile '{}'", profile.getName(), e);
+            }
+
+            // 记录启动的浏览器；与旧进程退出时的状态清除在同一ID上互斥
+            BrowserProfile current = currentProfile(profile);
+            runningBrowsers.compute(profile.getId(), (id, previous) -> {
+                profile.setActive(true);
+                current.setActive(true);
+                return process;
+            });
+            // 登记之后再检查：关闭服务时先置位再复制运行列表，两者之一必然看到该进程
+            if (isShutdown.get()) {
+                log.warn("Browser service shut down while launching profile '{}', terminating it", profile.getName());
+                markExited(profile, process);
+                process.destroyForcibly();
                 return false;
             }
+            profile.updateLastUsed();
+            notifyStateChanged(profile, true);
+
+            // 监督进程以检测浏览器关闭
+            monitorBrowserProcess(profile, process, outputLog);
+
+            log.info("Successfully launched browser for profile '{}'", profile.getName());
+            return true;
+
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid browser configuration for profile '{}': {}", profile.getName(), e.getMessage());
+            return false;
+        } catch (IOException e) {
+            log.error("Failed to launch browser for profile '{}'", profile.getName(), e);
+            return false;
+        }
+    }
+
+    /**
+     * 等待浏览器写出远程调试端口文件
+     *
+     * @return 调试端口；进程在就绪前退出时返回 -1；超时仍在运行时返回 0
+     */
+    private int awaitReady(Process process, Path portFile) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + READY_TIMEOUT_MILLIS;
+        // 每次检查之间等待进程退出，进程提前退出时立即返回
+        while (!process.waitFor(READY_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+            int port = readDevToolsPort(portFile);
+            if (port > 0) {
+                return port;
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                return 0;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 读取端口文件首行的端口号；文件不存在或尚未写完时返回 0
+     */
+    private static int readDevToolsPort(Path portFile) {
+        try {
+            List<String> lines = Files.readAllLines(portFile);
+            return lines.size() >= 2 ? Integer.parseInt(lines.get(0).trim()) : 0;
+        } catch (IOException | NumberFormatException e) {
+            return 0;
         }
     }
 
@@ -187,8 +389,8 @@ public class BrowserService implements AutoCloseable {
             // 强制终止进程
             process.destroyForcibly();
         } finally {
-            // 移除记录
-            runningBrowsers.remove(profileId);
+            // 移除记录；只移除本次关闭的进程，不影响其间重新启动的进程
+            runningBrowsers.remove(profileId, process);
         }
 
         boolean closed = !process.isAlive();
@@ -204,12 +406,137 @@ public class BrowserService implements AutoCloseable {
      * 准备用户配置目录
      */
     private String prepareProfileDirectory(BrowserProfile profile) throws IOException {
-        String profileDir = getBaseDataDir() + File.separator + sanitizeProfileId(profile.getId());
+        String profileDir = resolveProfileDirectory(profile.getId()).toString();
         createDirectoryIfNotExists(profileDir);
         log.debug("User profile directory for profile '{}' is: {}", profile.getName(), profileDir);
         return profileDir;
     }
 
+    /**
+     * 按当前目录布局定位用户数据目录；布局迁移尚未完成时沿用另一种布局下已有的目录
+     */
+    private Path resolveProfileDirectory(String profileId) {
+        String name = sanitizeProfileId(profileId);
+        Path root = Paths.get(baseDataDir);
+        DirectoryLayout layout = DirectoryLayout.current();
+        Path primary = layout.resolve(root, name, name);
+        if (!Files.exists(primary)) {
+            Path other = layout.other().resolve(root, name, name);
+            if (Files.isDirectory(other)) {
+                return other;
+            }
+        }
+        return primary;
+    }
+
+    /**
+     * 将用户数据目录迁移到指定布局，可在运行中进行；正在运行的浏览器的目录本次跳过，下次迁移时再处理
+     * 每个目录通过一次重命名移动，迁移到平铺布局后删除空的分片目录
+     *
+     * @return 移动的目录数量
+     */
+    public int migrateLayout(DirectoryLayout target, ProfileStoreMigrator.ProgressListener listener) throws IOException {
+        long start = System.currentTimeMillis();
+        Path root = Paths.get(baseDataDir);
+        List<Path> directories = new ArrayList<>();
+        try (var stream = Files.list(root)) {
+            for (Path entry : stream.filter(Files::isDirectory).toList()) {
+                if (!DirectoryLayout.isShardName(entry.getFileName().toString())) {
+                    if (target == DirectoryLayout.SHARDED) {
+                        directories.add(entry);
+                    }
+                } else if (target == DirectoryLayout.FLAT) {
+                    try (var first = Files.list(entry)) {
+                        for (Path shard : first.filter(Files::isDirectory).toList()) {
+                            try (var second = Files.list(shard)) {
+                                directories.addAll(second.filter(Files::isDirectory).toList());
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        int moved = 0;
+        int skipped = 0;
+        for (int i = 0; i < directories.size(); i++) {
+            if (Thread.currentThread().isInterrupted()) {
+                log.info("User data directory migration interrupted after {} directory(ies)", moved);
+                return moved;
+            }
+            Path source = directories.get(i);
+            String name = source.getFileName().toString();
+            Path destination = target.resolve(root, name, name);
+            // 与启动时定位目录互斥，避免移动正在被新启动的浏览器使用的目录
+            directoryLock.writeLock().lock();
+            try {
+                if (isDirectoryInUse(name)) {
+                    skipped++;
+                } else if (Files.exists(destination)) {
+                    log.warn("Not moving user data directory {}, destination already exists: {}", source, destination);
+                    skipped++;
+                } else {
+                    Files.createDirectories(destination.getParent());
+                    try {
+                        Files.move(source, destination, StandardCopyOption.ATOMIC_MOVE);
+                    } catch (AtomicMoveNotSupportedException e) {
+                        Files.move(source, destination);
+                    }
+                    moved++;
+                }
+            } finally {
+                directoryLock.writeLock().unlock();
+            }
+            if (listener != null && ((i + 1) % 100 == 0 || i == directories.size() - 1)) {
+                listener.onProgress(i + 1, directories.size());
+            }
+        }
+        if (target == DirectoryLayout.FLAT) {
+            DirectoryLayout.removeEmptyShards(root);
+        }
+        log.info("Moved {} user data directory(ies) to {} layout in {} ms, {} skipped", moved, target,
+                System.currentTimeMillis() - start, skipped);
+        return moved;
+    }
+
+    /**
+     * 是否有用户数据目录不在当前布局下（上次迁移未完成）
+     */
+    public boolean needsLayoutMigration() {
+        DirectoryLayout layout = DirectoryLayout.current();
+        try (var stream = Files.list(Paths.get(baseDataDir))) {
+            return stream.anyMatch(path -> Files.isDirectory(path)
+                    && DirectoryLayout.isShardName(path.getFileName().toString()) == (layout == DirectoryLayout.FLAT));
+        } catch (IOException e) {
+            log.warn("Failed to check user data directory layout: {}", baseDataDir, e);
+            return false;
+        }
+    }
+
+    /**
+     * 目录是否属于正在运行或正在启动的浏览器
+     */
+    private boolean isDirectoryInUse(String directoryName) {
+        if (runningBrowsers.containsKey(directoryName) || pendingLaunches.containsKey(directoryName)) {
+            return true;
+        }
+        // 只有含替换字符的目录名才可能由不同的ID清理而来
+        if (directoryName.indexOf('_') < 0) {
+            return false;
+        }
+        for (String profileId : runningBrowsers.keySet()) {
+            if (sanitizeProfileId(profileId).equals(directoryName)) {
+                return true;
+            }
+        }
+        for (String profileId : pendingLaunches.keySet()) {
+            if (sanitizeProfileId(profileId).equals(directoryName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * 清理配置文件ID，移除可能的危险字符
      */
@@ -225,7 +552,7 @@ public class BrowserService implements AutoCloseable {
     /**
      * 构建浏览器启动命令
      */
-    private List<String> buildBrowserCommand(BrowserProfile profile) {
+    private List<String> buildBrowserCommand(BrowserProfile profile, String profileDataDir) {
         List<String> command = new ArrayList<>();
 
         // 设置浏览器路径
@@ -239,8 +566,9 @@ public class BrowserService implements AutoCloseable {
         command.add(browserPath);
 
         // 用户数据目录 - 使用完整路径避免配置冲突
-        String profileDataDir = getBaseDataDir() + File.separator + sanitizeProfileId(profile.getId());
         command.add("--user-data-dir=" + profileDataDir);
+        // 由浏览器选择空闲端口并只监听本机，就绪后写出 DevToolsActivePort，用于判断启动完成
+        command.add("--remote-debugging-port=0");
 
         // User-Agent
         if (profile.getUserAgent() != null && !profile.getUserAgent().isEmpty()) {
@@ -324,27 +652,6 @@ public class BrowserService implements AutoCloseable {
         return command;
     }
 
-    /**
-     * 持续消费子进程输出，防止缓冲区阻塞
-     */
-    private void startProcessOutputGobbler(BrowserProfile profile, Process process) {
-        Runnable reader = () -> {
-            try (var in = process.getInputStream();
-                 var scanner = new java.util.Scanner(in)) {
-                scanner.useDelimiter("\n");
-                while (scanner.hasNext()) {
-                    String line = scanner.next();
-                    log.debug("[{}] {}", profile.getName(), line);
-                }
-            } catch (Exception e) {
-                if (!isShutdown.get()) {
-                    log.debug("Output gobbler stopped for profile '{}': {}", profile.getName(), e.getMessage());
-                }
-            }
-        };
-        monitoringExecutor.submit(reader);
-    }
-
     /**
      * 构建代理字符串
      */
@@ -377,30 +684,77 @@ public class BrowserService implements AutoCloseable {
     }
 
     /**
-     * 监控浏览器进程
+     * 进程退出时更新运行状态；退出由 {@link Process#onExit()} 通知，回调在监督线程上执行
      */
-    private void monitorBrowserProcess(BrowserProfile profile, Process process) {
-        if (isShutdown.get()) {
-            return;
-        }
+    private void monitorBrowserProcess(BrowserProfile profile, Process process, Path outputLog) {
+        process.onExit().whenCompleteAsync((exited, error) -> {
+            log.info("Browser process for profile '{}' exited with code {}.", profile.getName(), process.exitValue());
+            if (log.isDebugEnabled()) {
+                log.debug("[{}] output:\n{}", profile.getName(), readOutputTail(outputLog));
+            }
+            // 进程结束后更新状态，无论是主动关闭还是浏览器自行退出都通知界面。
+            // 该配置已由新进程重新启动时，旧进程的退出不能把它标记为已关闭
+            BrowserProfile current = markExited(profile, process);
+            if (current == null) {
+                log.info("Browser process for profile '{}' exited, but the profile has been relaunched.", profile.getName());
+                return;
+            }
+            notifyStateChanged(current, false);
+            log.info("Browser '{}' has been marked as closed.", profile.getName());
+        }, this::runOnSupervisor);
+    }
 
-        monitoringExecutor.submit(() -> {
-            try {
-                // 等待进程结束
-                int exitCode = process.waitFor();
-                log.info("Browser process for profile '{}' exited with code {}.", profile.getName(), exitCode);
-            } catch (InterruptedException e) {
-                if (!isShutdown.get()) {
-                    log.warn("Monitoring thread for profile '{}' was interrupted.", profile.getName());
-                }
-                Thread.currentThread().interrupt();
-            } finally {
-                // 进程结束后更新状态
-                runningBrowsers.remove(profile.getId());
-                profile.setActive(false);
-                log.info("Browser '{}' has been marked as closed.", profile.getName());
+    /**
+     * 移除已退出进程的登记并清除运行状态，启动时的对象与列表中当前的对象都被清除；与启动时的登记在同一ID上互斥
+     *
+     * @return 列表中当前的配置对象；该配置已由新进程重新启动时返回 null
+     */
+    private BrowserProfile markExited(BrowserProfile profile, Process process) {
+        BrowserProfile current = currentProfile(profile);
+        boolean[] relaunched = {false};
+        runningBrowsers.compute(profile.getId(), (id, registered) -> {
+            if (registered != null && registered != process) {
+                relaunched[0] = true;
+                return registered;
             }
+            profile.setActive(false);
+            current.setActive(false);
+            return null;
         });
+        return relaunched[0] ? null : current;
+    }
+
+    private BrowserProfile currentProfile(BrowserProfile profile) {
+        BrowserProfile current = profileLookup.apply(profile.getId());
+        return current != null ? current : profile;
+    }
+
+    /**
+     * 在监督线程上执行；服务关闭后监督线程不再接受任务，改为在当前线程执行，保证状态仍被更新
+     */
+    private void runOnSupervisor(Runnable task) {
+        try {
+            supervisor.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.run();
+        }
+    }
+
+    /**
+     * 读取浏览器输出文件的末尾部分，读取失败时返回空串
+     */
+    private static String readOutputTail(Path outputLog) {
+        try (SeekableByteChannel channel = Files.newByteChannel(outputLog)) {
+            long size = channel.size();
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(size, OUTPUT_TAIL_BYTES));
+            channel.position(size - buffer.capacity());
+            while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+                // 读满缓冲区
+            }
+            return new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8).strip();
+        } catch (IOException e) {
+            return "";
+        }
     }
 
     /**
@@ -420,39 +774,41 @@ public class BrowserService implements AutoCloseable {
         // 创建副本避免并发修改
         Map<String, Process> browsersCopy = new HashMap<>(runningBrowsers);
 
-        CompletableFuture[] closeFutures = browsersCopy.entrySet().stream()
-            .map(entry -> CompletableFuture.runAsync(() -> {
-                Process process = entry.getValue();
-                if (process != null && process.isAlive()) {
-                    try {
-                        process.destroy();
-                        if (!process.waitFor(3, TimeUnit.SECONDS)) {
-                            log.warn("Forcibly terminating browser process {}", entry.getKey());
-                            process.destroyForcibly();
-                            process.waitFor(2, TimeUnit.SECONDS);
-                        }
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        process.destroyForcibly();
-                    }
+        // 先请求全部进程退出再统一等待，不为每个进程占用线程
+        browsersCopy.values().forEach(Process::destroy);
+        if (!awaitExit(browsersCopy.values(), 3)) {
+            browsersCopy.forEach((profileId, process) -> {
+                if (process.isAlive()) {
+                    log.warn("Forcibly terminating browser process {}", profileId);
+                    process.destroyForcibly();
                 }
-                runningBrowsers.remove(entry.getKey());
-            }, monitoringExecutor))
-            .toArray(CompletableFuture[]::new);
-
-        try {
-            CompletableFuture.allOf(closeFutures)
-                .get(DEFAULT_SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
-        } catch (InterruptedException | ExecutionException | TimeoutException e) {
-            log.warn("Some browsers may not have closed properly", e);
-            if (e instanceof InterruptedException) {
-                Thread.currentThread().interrupt();
+            });
+            if (!awaitExit(browsersCopy.values(), 2)) {
+                log.warn("Some browsers may not have closed properly");
             }
         }
+        browsersCopy.forEach(runningBrowsers::remove);
 
         log.info("All browsers closed.");
     }
 
+    /**
+     * 等待所有进程退出
+     * @return 是否在超时前全部退出
+     */
+    private static boolean awaitExit(Collection<Process> processes, long timeoutSeconds) {
+        try {
+            CompletableFuture.allOf(processes.stream().map(Process::onExit).toArray(CompletableFuture[]::new))
+                .get(timeoutSeconds, TimeUnit.SECONDS);
+            return true;
+        } catch (TimeoutException | ExecutionException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
     private void createDirectoryIfNotExists(String dirPath) throws IOException {
         if (dirPath == null || dirPath.trim().isEmpty()) {
             throw new IllegalArgumentException("Directory path cannot be null or empty");
@@ -515,18 +871,27 @@ public class BrowserService implements AutoCloseable {
         log.info("Shutting down BrowserService...");
 
         try {
+            // 先停止批量操作的调度并等待进行中的启动结束，之后关闭的运行列表才是完整的
+            batchExecutor.shutdown();
+            if (!batchExecutor.awaitTermination(DEFAULT_SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Batch executor did not terminate gracefully, interrupting pending launches");
+                batchExecutor.shutdownNow();
+            }
+
             // 关闭所有浏览器
             closeAllBrowsers();
 
             // 关闭线程池
-            monitoringExecutor.shutdown();
-            if (!monitoringExecutor.awaitTermination(DEFAULT_SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
-                log.warn("Monitoring executor did not terminate gracefully, forcing shutdown");
-                monitoringExecutor.shutdownNow();
+            supervisor.shutdown();
+            if (!supervisor.awaitTermination(DEFAULT_SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Supervisor executor did not terminate gracefully, forcing shutdown");
+                supervisor.shutdownNow();
             }
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
-            monitoringExecutor.shutdownNow();
+            batchExecutor.shutdownNow();
+            closeAllBrowsers();
+            supervisor.shutdownNow();
         }
 
         log.info("BrowserService shutdown complete");
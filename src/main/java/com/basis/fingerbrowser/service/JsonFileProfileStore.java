@@ -0,0 +1,590 @@
+package com.basis.fingerbrowser.service;
+
+import com.basis.fingerbrowser.model.BrowserProfile;
+import com.basis.fingerbrowser.model.ProfileState;
+import com.basis.fingerbrowser.util.AtomicFileWriter;
+import com.basis.fingerbrowser.util.DirectoryLayout;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 默认存储后端：每个配置保存为目录下的一个文件，会话数据保存在同名的 .state 文件中
+ * 文件内容的编码格式按文件头自动识别，扩展名不随格式变化；
+ * 文件平铺在目录下或按ID哈希分片到子目录中，两种布局可共存，切换布局后可在运行中迁移
+ */
+public class JsonFileProfileStore implements ProfileStore {
+
+    private static final Logger log = LoggerFactory.getLogger(JsonFileProfileStore.class);
+
+    private static final String EXTENSION = ".json";
+    private static final String STATE_EXTENSION = ".state";
+    private static final int CONVERSION_BATCH_SIZE = 256;
+
+    private final Path directory;
+    private final ProfileCodec codec;
+    private final BooleanSupplier durable;
+    // 新写入的文件使用的布局，读取时另一种布局作为后备
+    private volatile DirectoryLayout layout;
+    // 另一种布局下可能还有文件（迁移尚未完成），写入与删除时需一并清理
+    private volatile boolean mixedLayout;
+    // 已确认存在的分片目录，避免每次写入都检查
+    private final Set<Path> knownDirectories = ConcurrentHashMap.newKeySet();
+    // 写入与格式转换互斥，避免转换写回旧内容覆盖新的修改；
+    // 转换在虚拟线程上进行且持锁期间等待并行写入，不能使用 synchronized 以免占住载体线程
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final AtomicBoolean formatMismatch = new AtomicBoolean(false);
+
+    public JsonFileProfileStore(Path directory, ProfileCodec codec, BooleanSupplier durable, DirectoryLayout layout) throws IOException {
+        this.directory = directory;
+        this.codec = codec;
+        this.durable = durable;
+        this.layout = layout;
+        Files.createDirectories(directory);
+        knownDirectories.add(directory);
+
+        // 清理上次异常退出时遗留的临时文件，分片子目录中的一并处理
+        Set<Path> tempDirectories = new HashSet<>();
+        tempDirectories.add(directory);
+        boolean[] foundOther = {false};
+        scan((path, attrs, entryLayout) -> {
+            String name = path.getFileName().toString();
+            if (name.endsWith(AtomicFileWriter.TEMP_SUFFIX)) {
+                tempDirectories.add(path.getParent());
+            } else if (entryLayout != layout && isProfileFile(name)) {
+                foundOther[0] = true;
+            }
+        });
+        for (Path tempDirectory : tempDirectories) {
+            AtomicFileWriter.recover(tempDirectory, this::isReadable);
+        }
+        mixedLayout = foundOther[0];
+    }
+
+    static boolean hasData(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return false;
+        }
+        try (var stream = Files.list(directory)) {
+            return stream.anyMatch(path -> {
+                String name = path.getFileName().toString();
+                return name.endsWith(EXTENSION) || (DirectoryLayout.isShardName(name) && Files.isDirectory(path));
+            });
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public Backend getBackend() {
+        return Backend.JSON;
+    }
+
+    @Override
+    public ProfileCodec getCodec() {
+        return codec;
+    }
+
+    /**
+     * 获取新写入的文件使用的布局
+     */
+    public DirectoryLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * 切换新写入的文件使用的布局，现有文件需调用 {@link #migrateLayout(ProfileStoreMigrator.ProgressListener)} 迁移；
+     * 迁移完成前两种布局下的文件都能正常读取
+     */
+    public void setLayout(DirectoryLayout layout) {
+        writeLock.lock();
+        try {
+            if (this.layout != layout) {
+                this.layout = layout;
+                mixedLayout = true;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 另一种布局下是否还有待迁移的文件
+     */
+    public boolean needsLayoutMigration() {
+        return mixedLayout;
+    }
+
+    @Override
+    public List<String> listIds() throws IOException {
+        return new ArrayList<>(readStamps().keySet());
+    }
+
+    /**
+     * 版本戳由文件修改时间（微秒）与文件大小组合而成，一次目录遍历即可取得全部属性；
+     * 同一配置在两种布局下都有文件时以当前布局为准
+     */
+    @Override
+    public Map<String, Long> readStamps() throws IOException {
+        DirectoryLayout current = layout;
+        Map<String, Long> stamps = new HashMap<>();
+        Map<String, Long> fallback = new HashMap<>();
+        scan((path, attrs, entryLayout) -> {
+            String name = path.getFileName().toString();
+            if (attrs.isRegularFile() && name.endsWith(EXTENSION)) {
+                (entryLayout == current ? stamps : fallback)
+                        .put(name.substring(0, name.length() - EXTENSION.length()), stampOf(attrs));
+            }
+        });
+        fallback.forEach(stamps::putIfAbsent);
+        return stamps;
+    }
+
+    @Override
+    public Map<String, Instant> readModifiedTimes() throws IOException {
+        Map<String, Instant> times = new HashMap<>();
+        Set<String> records = new HashSet<>();
+        scan((path, attrs, entryLayout) -> {
+            String name = path.getFileName().toString();
+            String extension = name.endsWith(EXTENSION) ? EXTENSION : name.endsWith(STATE_EXTENSION) ? STATE_EXTENSION : null;
+            if (attrs.isRegularFile() && extension != null) {
+                String id = name.substring(0, name.length() - extension.length());
+                times.merge(id, attrs.lastModifiedTime().toInstant(), (a, b) -> a.isAfter(b) ? a : b);
+                if (extension.equals(EXTENSION)) {
+                    records.add(id);
+                }
+            }
+        });
+        // 只有会话数据文件而没有主记录的不是有效配置
+        times.keySet().retainAll(records);
+        return times;
+    }
+
+    /**
+     * 读取单个配置的版本戳，文件不存在时返回 null
+     */
+    public Long readStamp(String profileId) throws IOException {
+        DirectoryLayout current = layout;
+        Long stamp = readStamp(pathOf(profileId + EXTENSION, profileId, current));
+        if (stamp == null && mixedLayout) {
+            stamp = readStamp(pathOf(profileId + EXTENSION, profileId, current.other()));
+            if (stamp == null) {
+                // 两次读取之间文件可能刚被迁移过来
+                stamp = readStamp(pathOf(profileId + EXTENSION, profileId, current));
+            }
+        }
+        return stamp;
+    }
+
+    private static Long readStamp(Path path) throws IOException {
+        try {
+            return stampOf(Files.readAttributes(path, BasicFileAttributes.class));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 监听目录中配置文件的外部变化
+     * 只监听根目录：分片布局下外部放入根目录的文件先移入对应的分片目录（覆盖原有文件）再通知；
+     * 直接在分片目录中修改的文件要到下次启动才会被发现
+     */
+    public ProfileDirectoryWatcher watch(ProfileDirectoryWatcher.ChangeListener listener) throws IOException {
+        return new ProfileDirectoryWatcher(directory, EXTENSION, new ProfileDirectoryWatcher.ChangeListener() {
+            @Override
+            public void onChanged(Set<String> profileIds) {
+                adoptExternalFiles(profileIds);
+                listener.onChanged(profileIds);
+            }
+
+            @Override
+            public void onOverflow() {
+                listener.onOverflow();
+            }
+        });
+    }
+
+    /**
+     * 分片布局下将外部放入根目录的配置文件移入分片目录
+     */
+    private void adoptExternalFiles(Collection<String> profileIds) {
+        if (layout != DirectoryLayout.SHARDED) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            for (String id : profileIds) {
+                for (String name : List.of(id + STATE_EXTENSION, id + EXTENSION)) {
+                    Path source = directory.resolve(name);
+                    if (Files.isRegularFile(source)) {
+                        try {
+                            move(source, pathOf(name, id, DirectoryLayout.SHARDED));
+                        } catch (IOException e) {
+                            log.warn("Failed to move external profile file into shard directory: {}: {}", source, e.toString());
+                        }
+                    }
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 将另一种布局下的文件分批移动到当前布局，可在运行中进行且可随时中断后重新执行；
+     * 迁移到平铺布局后删除空的分片目录
+     *
+     * @return 移动的文件数量
+     */
+    public int migrateLayout(ProfileStoreMigrator.ProgressListener listener) throws IOException {
+        long start = System.currentTimeMillis();
+        DirectoryLayout target = layout;
+        List<Path> files = new ArrayList<>();
+        scan((path, attrs, entryLayout) -> {
+            if (entryLayout != target && attrs.isRegularFile() && isProfileFile(path.getFileName().toString())) {
+                files.add(path);
+            }
+        });
+
+        int moved = 0;
+        for (int from = 0; from < files.size(); from += CONVERSION_BATCH_SIZE) {
+            if (Thread.currentThread().isInterrupted()) {
+                log.info("Profile layout migration interrupted after {} file(s)", moved);
+                return moved;
+            }
+            writeLock.lock();
+            try {
+                if (layout != target) {
+                    // 迁移期间布局再次切换，由新的迁移接手
+                    return moved;
+                }
+                for (Path path : files.subList(from, Math.min(from + CONVERSION_BATCH_SIZE, files.size()))) {
+                    String name = path.getFileName().toString();
+                    String id = name.substring(0, name.lastIndexOf('.'));
+                    Path destination = pathOf(name, id, target);
+                    try {
+                        // 目标位置已有文件说明迁移开始后又写入过，以新文件为准
+                        if (Files.exists(destination)) {
+                            Files.deleteIfExists(path);
+                        } else {
+                            move(path, destination);
+                        }
+                        moved++;
+                    } catch (NoSuchFileException e) {
+                        // 迁移期间已被删除
+                    }
+                }
+                if (durable.getAsBoolean()) {
+                    AtomicFileWriter.syncDirectory(directory);
+                }
+            } finally {
+                writeLock.unlock();
+            }
+            if (listener != null) {
+                listener.onProgress(Math.min(from + CONVERSION_BATCH_SIZE, files.size()), files.size());
+            }
+        }
+        if (target == DirectoryLayout.FLAT) {
+            DirectoryLayout.removeEmptyShards(directory);
+            knownDirectories.retainAll(Set.of(directory));
+        }
+        mixedLayout = false;
+        log.info("Moved {} profile file(s) to {} layout in {} ms", moved, target, System.currentTimeMillis() - start);
+        return moved;
+    }
+
+    /**
+     * 遍历根目录与分片子目录中的所有文件，跳过其他子目录（如分段存储的目录）
+     */
+    private void scan(EntryVisitor visitor) throws IOException {
+        Files.walkFileTree(directory, Set.of(), 3, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                return dir.equals(directory) || DirectoryLayout.isShardName(dir.getFileName().toString())
+                        ? FileVisitResult.CONTINUE : FileVisitResult.SKIP_SUBTREE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                int depth = directory.relativize(file).getNameCount();
+                if (depth == 1 && !attrs.isDirectory()) {
+                    visitor.visit(file, attrs, DirectoryLayout.FLAT);
+                } else if (depth == 3) {
+                    visitor.visit(file, attrs, DirectoryLayout.SHARDED);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                // 遍历期间被删除或移动的文件
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface EntryVisitor {
+        void visit(Path file, BasicFileAttributes attrs, DirectoryLayout layout);
+    }
+
+    private static long stampOf(BasicFileAttributes attrs) {
+        return attrs.lastModifiedTime().to(TimeUnit.MICROSECONDS) * 31 + attrs.size();
+    }
+
+    @Override
+    public BrowserProfile read(String profileId) throws IOException {
+        byte[] data = readBytes(profileId, profileId + EXTENSION);
+        if (data == null) {
+            return null;
+        }
+        BrowserProfile profile = decoderFor(data).profileReader().readValue(data);
+        profile.setStateLoader(() -> readState(profileId));
+        return profile;
+    }
+
+    /**
+     * 尚未保存过会话数据文件的旧记录，会话数据内联在主记录中，从主记录读取
+     */
+    @Override
+    public ProfileState readState(String profileId) throws IOException {
+        byte[] data = readBytes(profileId, profileId + STATE_EXTENSION);
+        if (data == null) {
+            data = readBytes(profileId, profileId + EXTENSION);
+        }
+        return data == null ? null : decoderFor(data).stateReader().readValue(data);
+    }
+
+    /**
+     * 每个文件先写临时文件再原子替换，开启安全写入时每一阶段共用一次目录 fsync；
+     * 会话数据文件先整批提交，成功后才替换对应的主记录，主记录更新后其会话数据必然已经落盘。
+     * 尚无会话数据文件的旧记录即使会话数据未加载也会补写会话数据文件，避免内联的会话数据随主记录改写而丢失
+     */
+    @Override
+    public void write(Collection<BrowserProfile> profiles) throws IOException {
+        int saved = 0;
+        writeLock.lock();
+        try {
+            boolean sync = durable.getAsBoolean();
+            Map<Path, AtomicFileWriter.ContentWriter> stateFiles = new LinkedHashMap<>();
+            Map<String, Path> statePaths = new HashMap<>();
+            for (BrowserProfile profile : profiles) {
+                String id = profile.getId();
+                Path statePath = pathOf(id + STATE_EXTENSION, id, layout);
+                ProfileState state = profile.isStateLoaded() ? profile.toState()
+                        : Files.exists(statePath) ? null : readState(id);
+                if (state != null) {
+                    stateFiles.put(ensureParent(statePath), out -> codec.stateWriter().writeValue(out, state));
+                    statePaths.put(id, statePath);
+                }
+            }
+            Set<Path> statesWritten = AtomicFileWriter.writeAll(stateFiles, sync);
+
+            Map<Path, AtomicFileWriter.ContentWriter> records = new LinkedHashMap<>();
+            Map<String, Path> recordPaths = new LinkedHashMap<>();
+            for (BrowserProfile profile : profiles) {
+                String id = profile.getId();
+                Path statePath = statePaths.get(id);
+                if (statePath != null && !statesWritten.contains(statePath)) {
+                    // 会话数据未能提交，保留旧主记录
+                    continue;
+                }
+                Path recordPath = ensureParent(pathOf(id + EXTENSION, id, layout));
+                records.put(recordPath, out -> codec.recordWriter().writeValue(out, profile));
+                recordPaths.put(id, recordPath);
+            }
+            Set<Path> recordsWritten = AtomicFileWriter.writeAll(records, sync);
+
+            for (Map.Entry<String, Path> entry : recordPaths.entrySet()) {
+                if (!recordsWritten.contains(entry.getValue())) {
+                    continue;
+                }
+                saved++;
+                if (mixedLayout) {
+                    // 迁移完成前，另一种布局下的旧文件会在读取时被当前布局的新文件遮蔽，顺带删除
+                    deleteFiles(entry.getKey(), layout.other());
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        if (saved < profiles.size()) {
+            throw new IOException("Failed to save " + (profiles.size() - saved) + " of " + profiles.size() + " profile(s)");
+        }
+    }
+
+    @Override
+    public void delete(Collection<String> profileIds) throws IOException {
+        List<String> failed = new ArrayList<>();
+        writeLock.lock();
+        try {
+            for (String profileId : profileIds) {
+                try {
+                    deleteFiles(profileId, layout);
+                    if (mixedLayout) {
+                        deleteFiles(profileId, layout.other());
+                    }
+                } catch (IOException e) {
+                    log.error("Failed to delete profile file for ID: {}", profileId, e);
+                    failed.add(profileId);
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        if (!failed.isEmpty()) {
+            throw new IOException("Failed to delete profile(s): " + failed);
+        }
+    }
+
+    @Override
+    public void clear() throws IOException {
+        delete(listIds());
+    }
+
+    @Override
+    public boolean needsConversion() {
+        return formatMismatch.get();
+    }
+
+    /**
+     * 将格式与当前设置不同的配置与会话数据文件分批转换，线程被中断时提前结束
+     */
+    @Override
+    public int convertFormat() throws IOException {
+        List<Path> files = new ArrayList<>();
+        scan((path, attrs, entryLayout) -> {
+            if (attrs.isRegularFile() && isProfileFile(path.getFileName().toString())) {
+                files.add(path);
+            }
+        });
+
+        int converted = 0;
+        for (int from = 0; from < files.size(); from += CONVERSION_BATCH_SIZE) {
+            if (Thread.currentThread().isInterrupted()) {
+                log.info("Profile format conversion interrupted after {} file(s)", converted);
+                return converted;
+            }
+            writeLock.lock();
+            try {
+                Map<Path, AtomicFileWriter.ContentWriter> batch = new LinkedHashMap<>();
+                for (Path path : files.subList(from, Math.min(from + CONVERSION_BATCH_SIZE, files.size()))) {
+                    byte[] data = readBytes(path);
+                    if (data == null || data.length == 0 || ProfileCodec.detect(data) == codec) {
+                        continue;
+                    }
+                    JsonNode tree = ProfileCodec.detect(data).mapper().readTree(data);
+                    batch.put(path, out -> codec.mapper().writeValue(out, tree));
+                }
+                converted += AtomicFileWriter.writeAll(batch, durable.getAsBoolean()).size();
+            } finally {
+                writeLock.unlock();
+            }
+        }
+        formatMismatch.set(false);
+        log.info("Converted {} profile file(s) to {}", converted, codec.name());
+        return converted;
+    }
+
+    private ProfileCodec decoderFor(byte[] data) {
+        ProfileCodec detected = ProfileCodec.detect(data);
+        if (detected != codec) {
+            formatMismatch.set(true);
+        }
+        return detected;
+    }
+
+    private static byte[] readBytes(Path path) throws IOException {
+        try {
+            return Files.readAllBytes(path);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 按当前布局读取配置的某个文件，迁移未完成时再查另一种布局
+     */
+    private byte[] readBytes(String profileId, String name) throws IOException {
+        DirectoryLayout current = layout;
+        byte[] data = readBytes(pathOf(name, profileId, current));
+        if (data == null && mixedLayout) {
+            data = readBytes(pathOf(name, profileId, current.other()));
+            if (data == null) {
+                // 两次读取之间文件可能刚被迁移过来
+                data = readBytes(pathOf(name, profileId, current));
+            }
+        }
+        return data;
+    }
+
+    private Path pathOf(String name, String profileId, DirectoryLayout layout) {
+        return layout.resolve(directory, profileId, name);
+    }
+
+    private void deleteFiles(String profileId, DirectoryLayout layout) throws IOException {
+        Files.deleteIfExists(pathOf(profileId + EXTENSION, profileId, layout));
+        Files.deleteIfExists(pathOf(profileId + STATE_EXTENSION, profileId, layout));
+    }
+
+    private Path ensureParent(Path path) throws IOException {
+        Path parent = path.getParent();
+        if (!knownDirectories.contains(parent)) {
+            Files.createDirectories(parent);
+            knownDirectories.add(parent);
+        }
+        return path;
+    }
+
+    private void move(Path source, Path target) throws IOException {
+        ensureParent(target);
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static boolean isProfileFile(String name) {
+        return name.endsWith(EXTENSION) || name.endsWith(STATE_EXTENSION);
+    }
+
+    private boolean isReadable(Path path) {
+        try {
+            byte[] data = Files.readAllBytes(path);
+            ProfileCodec.detect(data).mapper().readTree(data);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        // 每次写入都已直接落盘，无需额外处理
+    }
+}
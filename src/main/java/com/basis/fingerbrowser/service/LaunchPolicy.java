@@ -0,0 +1,25 @@
+package com.basis.fingerbrowser.service;
+
+/**
+ * 批量启动或关闭浏览器的节奏
+ *
+ * @param maxInFlight       同时进行中的操作数量上限
+ * @param launchesPerSecond 每秒开始的操作数量上限，0 表示不限
+ * @param failFast          有配置操作失败后是否不再开始其余配置；为 false 时继续处理其余配置
+ */
+public record LaunchPolicy(int maxInFlight, double launchesPerSecond, boolean failFast) {
+
+    /**
+     * 默认节奏：最多 4 个同时进行，每秒开始 2 个，失败后继续
+     */
+    public static final LaunchPolicy DEFAULT = new LaunchPolicy(4, 2, false);
+
+    public LaunchPolicy {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be at least 1: " + maxInFlight);
+        }
+        if (!(launchesPerSecond >= 0) || Double.isInfinite(launchesPerSecond)) {
+            throw new IllegalArgumentException("launchesPerSecond must be a finite non-negative number (0 means unlimited): " + launchesPerSecond);
+        }
+    }
+}
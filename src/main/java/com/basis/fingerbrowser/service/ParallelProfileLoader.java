@@ -0,0 +1,117 @@
+package com.basis.fingerbrowser.service;
+
+import com.basis.fingerbrowser.model.BrowserProfile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 并行配置文件加载器
+ * 使用虚拟线程并发读取与解析配置文件，并按批次交付结果，避免逐条通知界面
+ *
+ * @param <T> 数据源类型（如文件路径）
+ */
+public class ParallelProfileLoader<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(ParallelProfileLoader.class);
+
+    // 同时打开的文件数上限，防止耗尽文件句柄
+    private static final int MAX_CONCURRENT_READS = 64;
+    // 批次大小约为总量的 1/8，并限制在合理范围内
+    private static final int TARGET_BATCHES = 8;
+    private static final int MIN_BATCH_SIZE = 200;
+    private static final int MAX_BATCH_SIZE = 5000;
+    // 距上次交付超过该时间则提前交付，保证界面尽快出现数据
+    private static final long MAX_BATCH_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+
+    /**
+     * 读取单个数据源
+     */
+    @FunctionalInterface
+    public interface ProfileReader<T> {
+        BrowserProfile read(T source) throws IOException;
+    }
+
+    /**
+     * 批次回调，processed 为截至本批次已处理（含失败）的数据源数量
+     */
+    @FunctionalInterface
+    public interface BatchConsumer {
+        void accept(List<BrowserProfile> batch, int processed, int total);
+    }
+
+    private final ProfileReader<T> reader;
+
+    public ParallelProfileLoader(ProfileReader<T> reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * 加载所有数据源，在调用线程上阻塞直至全部完成
+     *
+     * @return 成功加载的配置文件数量
+     */
+    public int load(List<T> sources, BatchConsumer consumer) throws InterruptedException {
+        int total = sources.size();
+        int batchSize = Math.max(MIN_BATCH_SIZE, Math.min(MAX_BATCH_SIZE, total / TARGET_BATCHES));
+        int loaded = 0;
+
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletionService<BrowserProfile> completion = new ExecutorCompletionService<>(workers);
+            Semaphore openFiles = new Semaphore(MAX_CONCURRENT_READS);
+
+            for (T source : sources) {
+                completion.submit(() -> {
+                    openFiles.acquire();
+                    try {
+                        return reader.read(source);
+                    } catch (IOException e) {
+                        log.error("Failed to load profile from: {}", source, e);
+                        return null;
+                    } finally {
+                        openFiles.release();
+                    }
+                });
+            }
+
+            List<BrowserProfile> batch = new ArrayList<>(batchSize);
+            long lastDelivery = System.nanoTime();
+            for (int i = 0; i < total; i++) {
+                BrowserProfile profile = takeResult(completion);
+                if (profile != null) {
+                    batch.add(profile);
+                    loaded++;
+                }
+                long now = System.nanoTime();
+                if (batch.size() >= batchSize || (!batch.isEmpty() && now - lastDelivery >= MAX_BATCH_DELAY_NANOS)) {
+                    consumer.accept(batch, i + 1, total);
+                    batch = new ArrayList<>(batchSize);
+                    lastDelivery = now;
+                }
+            }
+            consumer.accept(batch, total, total);
+        }
+
+        log.info("Loaded {} of {} profiles", loaded, total);
+        return loaded;
+    }
+
+    private BrowserProfile takeResult(CompletionService<BrowserProfile> completion) throws InterruptedException {
+        try {
+            return completion.take().get();
+        } catch (ExecutionException e) {
+            log.error("Unexpected error while loading profile", e.getCause());
+            return null;
+        }
+    }
+}
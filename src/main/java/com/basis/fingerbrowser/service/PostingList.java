@@ -0,0 +1,57 @@
+package com.basis.fingerbrowser.service;
+
+import java.util.Arrays;
+
+/**
+ * 倒排表：按文档号升序排列的文档号及每个文档的字段位
+ * 以基本类型数组保存，十万级条目也只占用少量内存；插入与删除为二分查找加数组移动。
+ * 非线程安全，由所属索引的锁保护
+ */
+final class PostingList {
+
+    private int[] docs = new int[2];
+    private byte[] fields = new byte[2];
+    private int size;
+
+    /**
+     * 加入文档或更新其字段位
+     */
+    void put(int doc, int field) {
+        int i = Arrays.binarySearch(docs, 0, size, doc);
+        if (i >= 0) {
+            fields[i] = (byte) field;
+            return;
+        }
+        i = -i - 1;
+        if (size == docs.length) {
+            docs = Arrays.copyOf(docs, size * 2);
+            fields = Arrays.copyOf(fields, size * 2);
+        }
+        System.arraycopy(docs, i, docs, i + 1, size - i);
+        System.arraycopy(fields, i, fields, i + 1, size - i);
+        docs[i] = doc;
+        fields[i] = (byte) field;
+        size++;
+    }
+
+    void remove(int doc) {
+        int i = Arrays.binarySearch(docs, 0, size, doc);
+        if (i >= 0) {
+            System.arraycopy(docs, i + 1, docs, i, size - i - 1);
+            System.arraycopy(fields, i + 1, fields, i, size - i - 1);
+            size--;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    int doc(int index) {
+        return docs[index];
+    }
+
+    int field(int index) {
+        return fields[index];
+    }
+}
@@ -0,0 +1,266 @@
+package com.basis.fingerbrowser.service;
+
+import com.basis.fingerbrowser.model.BrowserProfile;
+import com.basis.fingerbrowser.model.ProxySettings;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * 配置属性的二级索引
+ * 按代理类型、代理服务器、时区、浏览器类型与标签维护「属性值 → 配置ID」多值映射，
+ * 查询耗时只与结果数量有关。每个配置记住自己上次被索引的属性值，
+ * 配置对象被就地修改后再次更新时也能找到并移除旧值
+ */
+public class ProfileAttributeIndex {
+
+    /**
+     * 可索引的配置属性
+     */
+    public enum Attribute {
+        PROXY_TYPE("代理类型"),
+        PROXY_HOST("代理服务器"),
+        TIMEZONE("时区"),
+        UA_FAMILY("浏览器类型"),
+        TAG("标签");
+
+        private final String displayName;
+
+        Attribute(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+
+    private static final String OTHER_FAMILY = "其他";
+    // 未启用代理的配置的代理类型
+    private static final String DIRECT = "direct";
+
+    private final Map<Attribute, Map<String, Set<String>>> postings = new EnumMap<>(Attribute.class);
+    // 各配置上次被索引的属性值，用于增量更新
+    private final Map<String, Map<Attribute, Set<String>>> keysById = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ProfileAttributeIndex() {
+        for (Attribute attribute : Attribute.values()) {
+            postings.put(attribute, new HashMap<>());
+        }
+    }
+
+    /**
+     * 按配置当前的属性值更新索引，只改动有变化的属性
+     */
+    public void update(BrowserProfile profile) {
+        Map<Attribute, Set<String>> keys = keysOf(profile);
+        lock.writeLock().lock();
+        try {
+            Map<Attribute, Set<String>> previous = keysById.put(profile.getId(), keys);
+            for (Attribute attribute : Attribute.values()) {
+                Set<String> oldKeys = previous == null ? Set.of() : previous.get(attribute);
+                Set<String> newKeys = keys.get(attribute);
+                if (!oldKeys.equals(newKeys)) {
+                    unlink(attribute, oldKeys, profile.getId());
+                    link(attribute, newKeys, profile.getId());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 从索引中移除配置
+     */
+    public void remove(String profileId) {
+        lock.writeLock().lock();
+        try {
+            Map<Attribute, Set<String>> previous = keysById.remove(profileId);
+            if (previous != null) {
+                previous.forEach((attribute, keys) -> unlink(attribute, keys, profileId));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 查询属性值为指定值的配置ID，返回的集合为副本
+     */
+    public Set<String> find(Attribute attribute, String value) {
+        String key = normalize(attribute, value);
+        if (key == null) {
+            return Set.of();
+        }
+        lock.readLock().lock();
+        try {
+            Set<String> ids = postings.get(attribute).get(key);
+            return ids == null ? Set.of() : new HashSet<>(ids);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 查询属性值满足条件的配置ID（各取值的并集），条件作用于规范化后的索引键；
+     * 耗时与该属性的取值数量及结果数量成正比
+     */
+    public Set<String> findMatching(Attribute attribute, Predicate<String> keyFilter) {
+        lock.readLock().lock();
+        try {
+            Set<String> result = new HashSet<>();
+            postings.get(attribute).forEach((key, ids) -> {
+                if (keyFilter.test(key)) {
+                    result.addAll(ids);
+                }
+            });
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 统计属性值为指定值的配置数量
+     */
+    public int count(Attribute attribute, String value) {
+        String key = normalize(attribute, value);
+        if (key == null) {
+            return 0;
+        }
+        lock.readLock().lock();
+        try {
+            Set<String> ids = postings.get(attribute).get(key);
+            return ids == null ? 0 : ids.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 获取属性的所有取值及各自的配置数量，按值排序
+     */
+    public Map<String, Integer> values(Attribute attribute) {
+        lock.readLock().lock();
+        try {
+            Map<String, Integer> counts = new TreeMap<>();
+            postings.get(attribute).forEach((key, ids) -> counts.put(key, ids.size()));
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void link(Attribute attribute, Set<String> keys, String profileId) {
+        Map<String, Set<String>> index = postings.get(attribute);
+        for (String key : keys) {
+            index.computeIfAbsent(key, k -> new HashSet<>()).add(profileId);
+        }
+    }
+
+    private void unlink(Attribute attribute, Set<String> keys, String profileId) {
+        Map<String, Set<String>> index = postings.get(attribute);
+        for (String key : keys) {
+            Set<String> ids = index.get(key);
+            if (ids != null && ids.remove(profileId) && ids.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private static Map<Attribute, Set<String>> keysOf(BrowserProfile profile) {
+        Map<Attribute, Set<String>> keys = new EnumMap<>(Attribute.class);
+        ProxySettings proxy = profile.getProxySettings();
+        boolean proxied = proxy != null && proxy.isEnabled() && proxy.getType() != null
+                && !DIRECT.equalsIgnoreCase(proxy.getType());
+        keys.put(Attribute.PROXY_TYPE, Set.of(proxied ? normalize(Attribute.PROXY_TYPE, proxy.getType()) : DIRECT));
+        keys.put(Attribute.PROXY_HOST, proxy != null && proxy.isEnabled()
+                ? singleton(normalize(Attribute.PROXY_HOST, proxy.getHost())) : Set.of());
+        keys.put(Attribute.TIMEZONE, singleton(normalize(Attribute.TIMEZONE, profile.getTimezone())));
+        keys.put(Attribute.UA_FAMILY, Set.of(uaFamily(profile.getUserAgent())));
+        Set<String> tags = new HashSet<>();
+        if (profile.getTags() != null) {
+            for (String tag : profile.getTags()) {
+                String key = normalize(Attribute.TAG, tag);
+                if (key != null) {
+                    tags.add(key);
+                }
+            }
+        }
+        keys.put(Attribute.TAG, tags);
+        return keys;
+    }
+
+    private static Set<String> singleton(String key) {
+        return key == null ? Set.of() : Set.of(key);
+    }
+
+    /**
+     * 将属性值规范化为索引键：去除首尾空白，代理类型、代理服务器与标签不区分大小写；空值返回 null
+     */
+    public static String normalize(Attribute attribute, String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return switch (attribute) {
+            case PROXY_TYPE, PROXY_HOST, TAG -> trimmed.toLowerCase(Locale.ROOT);
+            case UA_FAMILY -> Objects.requireNonNullElse(findFamily(trimmed), trimmed);
+            case TIMEZONE -> trimmed;
+        };
+    }
+
+    /**
+     * 根据 User-Agent 判断浏览器类型，无法识别时返回「其他」
+     */
+    public static String uaFamily(String userAgent) {
+        if (userAgent == null || userAgent.isBlank()) {
+            return OTHER_FAMILY;
+        }
+        // 顺序有关：Edge 与 Opera 的 UA 中同时含有 Chrome，Chrome 的 UA 中同时含有 Safari
+        if (userAgent.contains("Edg/") || userAgent.contains("Edge/")) {
+            return "Edge";
+        }
+        if (userAgent.contains("OPR/") || userAgent.contains("Opera")) {
+            return "Opera";
+        }
+        if (userAgent.contains("Firefox/")) {
+            return "Firefox";
+        }
+        if (userAgent.contains("Chrome/") || userAgent.contains("Chromium/")) {
+            return "Chrome";
+        }
+        if (userAgent.contains("Safari/")) {
+            return "Safari";
+        }
+        return OTHER_FAMILY;
+    }
+
+    /**
+     * 将用户输入的浏览器类型名匹配到标准名称（不区分大小写），无法匹配时返回 null
+     */
+    private static String findFamily(String name) {
+        for (String family : new String[]{"Chrome", "Edge", "Firefox", "Safari", "Opera", OTHER_FAMILY}) {
+            if (family.equalsIgnoreCase(name)) {
+                return family;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,141 @@
+package com.basis.fingerbrowser.service;
+
+import com.basis.fingerbrowser.model.BrowserProfile;
+import com.basis.fingerbrowser.model.ProfileState;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * 配置存储的编码格式
+ * 读取时按内容自动识别，写入时使用设置中选择的格式；导入导出始终使用格式化 JSON
+ */
+public enum ProfileCodec {
+    PRETTY_JSON("格式化 JSON（便于手工查看）"),
+    COMPACT_JSON("紧凑 JSON"),
+    SMILE("Smile 二进制（最快、最小）");
+
+    // Smile 数据固定以 ":)\n" 开头
+    private static final byte[] SMILE_HEADER = {':', ')', '\n'};
+
+    private final String displayName;
+    private volatile Bindings bindings;
+
+    /**
+     * 共享的 ObjectMapper 及由其派生的读写器；ObjectReader/ObjectWriter 不可变，可跨线程复用，
+     * 省去每次调用 readValue/writeValue 时按类型查找序列化器的开销
+     */
+    private record Bindings(ObjectMapper mapper,
+                            ObjectReader profileReader, ObjectWriter profileWriter, ObjectWriter recordWriter,
+                            ObjectReader stateReader, ObjectWriter stateWriter) {}
+
+    ProfileCodec(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * 获取该格式共享的 ObjectMapper（线程安全，勿修改其配置）
+     */
+    public ObjectMapper mapper() {
+        return bindings().mapper();
+    }
+
+    /**
+     * 读取完整配置
+     */
+    public ObjectReader profileReader() {
+        return bindings().profileReader();
+    }
+
+    /**
+     * 写入完整配置，包括会话数据
+     */
+    public ObjectWriter profileWriter() {
+        return bindings().profileWriter();
+    }
+
+    /**
+     * 写入配置主记录，不包括单独保存的会话数据
+     */
+    public ObjectWriter recordWriter() {
+        return bindings().recordWriter();
+    }
+
+    public ObjectReader stateReader() {
+        return bindings().stateReader();
+    }
+
+    public ObjectWriter stateWriter() {
+        return bindings().stateWriter();
+    }
+
+    private Bindings bindings() {
+        Bindings result = bindings;
+        if (result == null) {
+            synchronized (this) {
+                result = bindings;
+                if (result == null) {
+                    ObjectMapper mapper = this == SMILE ? new ObjectMapper(new SmileFactory()) : new ObjectMapper();
+                    if (this == PRETTY_JSON) {
+                        mapper.enable(SerializationFeature.INDENT_OUTPUT);
+                    }
+                    mapper.registerModule(new JavaTimeModule());
+                    mapper.registerModule(new ProfileJsonModule());
+                    ObjectWriter profileWriter = mapper.writerFor(BrowserProfile.class);
+                    result = new Bindings(mapper,
+                            mapper.readerFor(BrowserProfile.class),
+                            profileWriter,
+                            profileWriter.withAttribute(ProfileJsonModule.OMIT_STATE, Boolean.TRUE),
+                            mapper.readerFor(ProfileState.class),
+                            mapper.writerFor(ProfileState.class));
+                    bindings = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 按名称解析，无法识别时返回默认的格式化 JSON
+     */
+    public static ProfileCodec fromName(String name) {
+        for (ProfileCodec codec : values()) {
+            if (codec.name().equalsIgnoreCase(name)) {
+                return codec;
+            }
+        }
+        return PRETTY_JSON;
+    }
+
+    /**
+     * 根据数据开头识别编码格式；格式化 JSON 的左花括号后紧跟换行
+     */
+    public static ProfileCodec detect(byte[] data, int offset, int length) {
+        if (length >= SMILE_HEADER.length
+                && data[offset] == SMILE_HEADER[0]
+                && data[offset + 1] == SMILE_HEADER[1]
+                && data[offset + 2] == SMILE_HEADER[2]) {
+            return SMILE;
+        }
+        if (length >= 2 && (data[offset + 1] == '\n' || data[offset + 1] == '\r')) {
+            return PRETTY_JSON;
+        }
+        return COMPACT_JSON;
+    }
+
+    public static ProfileCodec detect(byte[] data) {
+        return detect(data, 0, data.length);
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
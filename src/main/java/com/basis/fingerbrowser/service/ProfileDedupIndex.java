@@ -0,0 +1,238 @@
+package com.basis.fingerbrowser.service;
+
+import com.basis.fingerbrowser.model.BrowserProfile;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 配置内容指纹索引
+ * 指纹为规范化内容（不含ID、时间戳、用户数据目录与会话数据）的 SHA-256 前 128 位，
+ * 导入时按指纹 O(1) 找出与现有配置内容相同的记录。
+ * 索引在首次使用时建立，之后列表变更只标记受影响的ID，下次使用前增量重算
+ */
+public class ProfileDedupIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProfileDedupIndex.class);
+
+    private static final ObjectWriter CANONICAL_WRITER = ProfileCodec.COMPACT_JSON.profileWriter()
+            .withAttribute(ProfileJsonModule.CANONICAL, Boolean.TRUE);
+
+    /**
+     * 导入时遇到内容重复的配置的处理方式
+     */
+    public enum DuplicatePolicy {
+        SKIP("跳过重复配置"),
+        MERGE("合并到现有配置"),
+        RENAME("重命名后作为新配置导入");
+
+        private final String displayName;
+
+        DuplicatePolicy(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        /**
+         * 按名称解析，无法识别时返回默认的跳过
+         */
+        public static DuplicatePolicy fromName(String name) {
+            for (DuplicatePolicy policy : values()) {
+                if (policy.name().equalsIgnoreCase(name)) {
+                    return policy;
+                }
+            }
+            return SKIP;
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+
+    /**
+     * 配置内容指纹
+     */
+    public record Fingerprint(long high, long low) {
+
+        /**
+         * 计算配置的内容指纹；调用方需保证配置已读取完整记录
+         */
+        public static Fingerprint of(BrowserProfile profile) {
+            MessageDigest digest = sha256();
+            try (OutputStream out = new DigestOutputStream(OutputStream.nullOutputStream(), digest)) {
+                CANONICAL_WRITER.writeValue(out, profile);
+            } catch (IOException e) {
+                // 写入空输出流不会失败，仅序列化器本身可能抛出
+                throw new IllegalStateException("Failed to fingerprint profile " + profile.getId(), e);
+            }
+            ByteBuffer hash = ByteBuffer.wrap(digest.digest());
+            return new Fingerprint(hash.getLong(), hash.getLong());
+        }
+
+        private static MessageDigest sha256() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+    }
+
+    /**
+     * 按ID读取配置的完整内容，配置已不存在时返回 null
+     */
+    @FunctionalInterface
+    public interface ProfileSource {
+        BrowserProfile read(String profileId) throws IOException;
+    }
+
+    // 以下两个映射由 this 保护
+    private final Map<Fingerprint, String> idsByFingerprint = new HashMap<>();
+    private final Map<String, Fingerprint> fingerprintsById = new HashMap<>();
+    // 内容可能已变化、需要重算指纹的配置ID，可由任意线程加入
+    private final Set<String> staleIds = ConcurrentHashMap.newKeySet();
+    private volatile boolean built;
+
+    /**
+     * 标记配置内容已变化或已删除；索引尚未建立时忽略
+     */
+    public void invalidate(String profileId) {
+        if (built) {
+            staleIds.add(profileId);
+        }
+    }
+
+    /**
+     * 使索引与当前配置一致：首次调用时为所有配置建立索引，之后只重算被标记的配置
+     * 在调用线程上执行（可能读取磁盘），不应在 JavaFX 线程调用
+     *
+     * @param allIds 当前所有配置的ID，仅在首次建立索引时使用
+     */
+    public synchronized void refresh(Set<String> allIds, ProfileSource source) throws InterruptedException {
+        if (!built) {
+            // 先置位，建立期间发生的变更会被标记并在下面重算
+            built = true;
+            long start = System.currentTimeMillis();
+            List<String> ids = new ArrayList<>(allIds);
+            new ParallelProfileLoader<>(source::read).load(ids, (batch, processed, total) -> {
+                for (BrowserProfile profile : batch) {
+                    put(profile.getId(), Fingerprint.of(profile));
+                }
+            });
+            log.info("Built content index for {} profile(s) in {} ms", fingerprintsById.size(), System.currentTimeMillis() - start);
+        }
+
+        for (String id : staleIds) {
+            staleIds.remove(id);
+            remove(id);
+            try {
+                BrowserProfile profile = source.read(id);
+                if (profile != null) {
+                    put(id, Fingerprint.of(profile));
+                }
+            } catch (IOException e) {
+                log.warn("Failed to read profile for content index, ID: {}: {}", id, e.toString());
+            }
+        }
+    }
+
+    /**
+     * 查找内容相同的配置ID，没有时返回 null；有多个时返回其中任意一个
+     */
+    public synchronized String find(Fingerprint fingerprint) {
+        return idsByFingerprint.get(fingerprint);
+    }
+
+    /**
+     * 记录配置的指纹；同一指纹已对应其他配置时保留原有映射
+     */
+    public synchronized void put(String profileId, Fingerprint fingerprint) {
+        Fingerprint previous = fingerprintsById.put(profileId, fingerprint);
+        if (previous != null && !previous.equals(fingerprint)) {
+            idsByFingerprint.remove(previous, profileId);
+        }
+        idsByFingerprint.putIfAbsent(fingerprint, profileId);
+    }
+
+    private void remove(String profileId) {
+        Fingerprint previous = fingerprintsById.remove(profileId);
+        if (previous != null) {
+            idsByFingerprint.remove(previous, profileId);
+        }
+    }
+
+    /**
+     * 将内容相同的两条记录合并为一条新记录
+     * 保留现有配置的ID、创建时间与用户数据目录；会话数据以最近使用的一方为准，另一方独有的条目一并保留
+     */
+    public static BrowserProfile merge(BrowserProfile existing, BrowserProfile incoming) {
+        BrowserProfile newer = isNewer(incoming, existing) ? incoming : existing;
+        BrowserProfile older = newer == incoming ? existing : incoming;
+
+        BrowserProfile merged = new BrowserProfile(existing.getId(), incoming.getName(), existing.getCreatedAt());
+        merged.setUserAgent(incoming.getUserAgent());
+        merged.setPlatform(incoming.getPlatform());
+        merged.setWebRTCSettings(incoming.getWebRTCSettings());
+        merged.setCanvasFingerprint(incoming.getCanvasFingerprint());
+        merged.setFontFingerprint(incoming.getFontFingerprint());
+        merged.setProxySettings(incoming.getProxySettings());
+        merged.setLanguage(incoming.getLanguage());
+        merged.setTimezone(incoming.getTimezone());
+        merged.setResolution(incoming.getResolution());
+        merged.setNotes(incoming.getNotes());
+        merged.setTags(unionTags(existing.getTags(), incoming.getTags()));
+        merged.setBrowserExecutablePath(incoming.getBrowserExecutablePath());
+        merged.setProxyConfiguration(incoming.getProxyConfiguration());
+        merged.setUserDataDir(existing.getUserDataDir());
+        merged.setLastUsed(newer.getLastUsed());
+        merged.setCookies(union(newer.getCookies(), older.getCookies()));
+        merged.setLocalStorage(union(newer.getLocalStorage(), older.getLocalStorage()));
+        merged.setCustomHeaders(union(newer.getCustomHeaders(), older.getCustomHeaders()));
+        return merged;
+    }
+
+    private static boolean isNewer(BrowserProfile a, BrowserProfile b) {
+        return a.getLastUsed() != null && (b.getLastUsed() == null || a.getLastUsed().isAfter(b.getLastUsed()));
+    }
+
+    private static List<String> unionTags(List<String> existing, List<String> incoming) {
+        Set<String> result = new LinkedHashSet<>();
+        if (existing != null) {
+            result.addAll(existing);
+        }
+        if (incoming != null) {
+            result.addAll(incoming);
+        }
+        return new ArrayList<>(result);
+    }
+
+    private static Map<String, String> union(Map<String, String> preferred, Map<String, String> other) {
+        Map<String, String> result = new HashMap<>();
+        if (other != null) {
+            result.putAll(other);
+        }
+        if (preferred != null) {
+            result.putAll(preferred);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,148 @@
+package com.basis.fingerbrowser.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 监听配置目录中 &lt;id&gt;.json 文件的创建、修改与删除
+ * 连续到达的事件在安静期后合并为一批，按配置ID去重后回调；事件本身不区分类型，
+ * 由回调方根据文件是否存在及其版本戳判断实际变化
+ */
+public class ProfileDirectoryWatcher implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ProfileDirectoryWatcher.class);
+
+    // 最后一个事件之后等待的安静期，吸收脚本批量复制或原子替换产生的连续事件
+    private static final long QUIET_MILLIS = 300;
+    // 事件持续不断时最长的合并时间
+    private static final long MAX_DELAY_MILLIS = 2000;
+
+    /**
+     * 目录变化监听器（在监听线程回调）
+     */
+    public interface ChangeListener {
+        /**
+         * 一批配置文件发生了变化
+         */
+        void onChanged(Set<String> profileIds);
+
+        /**
+         * 事件过多被系统丢弃，需要全量比对
+         */
+        void onOverflow();
+    }
+
+    private final Path directory;
+    private final String extension;
+    private final ChangeListener listener;
+    private final WatchService watchService;
+    private Thread thread;
+
+    /**
+     * 立即注册目录，此后发生的变化都会被记录；调用 {@link #start()} 后才开始回调
+     */
+    public ProfileDirectoryWatcher(Path directory, String extension, ChangeListener listener) throws IOException {
+        this.directory = directory;
+        this.extension = extension;
+        this.listener = listener;
+        this.watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+    }
+
+    public synchronized void start() {
+        if (thread == null) {
+            thread = new Thread(this::run, "profile-watcher");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                Set<String> changed = new HashSet<>();
+                boolean overflow = false;
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(MAX_DELAY_MILLIS);
+                while (key != null) {
+                    overflow |= collect(key, changed);
+                    if (!key.reset()) {
+                        log.warn("Profile directory is no longer accessible, stopped watching: {}", directory);
+                        return;
+                    }
+                    long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                    key = remaining > 0
+                            ? watchService.poll(Math.min(QUIET_MILLIS, remaining), TimeUnit.MILLISECONDS)
+                            : null;
+                }
+                dispatch(changed, overflow);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // 正常关闭
+        }
+    }
+
+    private boolean collect(WatchKey key, Set<String> changed) {
+        boolean overflow = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                overflow = true;
+                continue;
+            }
+            String name = event.context().toString();
+            if (name.endsWith(extension)) {
+                changed.add(name.substring(0, name.length() - extension.length()));
+            }
+        }
+        return overflow;
+    }
+
+    private void dispatch(Set<String> changed, boolean overflow) {
+        try {
+            if (overflow) {
+                log.info("Profile directory watch overflowed, rescanning: {}", directory);
+                listener.onOverflow();
+            } else if (!changed.isEmpty()) {
+                listener.onChanged(changed);
+            }
+        } catch (RuntimeException e) {
+            log.error("Error applying profile directory changes", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            log.warn("Failed to close profile directory watcher", e);
+        }
+        Thread current;
+        synchronized (this) {
+            current = thread;
+        }
+        if (current != null) {
+            try {
+                current.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
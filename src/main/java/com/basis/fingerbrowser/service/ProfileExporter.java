@@ -0,0 +1,232 @@
+package com.basis.fingerbrowser.service;
+
+import com.basis.fingerbrowser.model.BrowserProfile;
+import com.basis.fingerbrowser.util.AtomicFileWriter;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 流式配置导出器
+ * 所有配置写入单个 ZIP 压缩包或 NDJSON 文件；序列化在虚拟线程上并行进行，
+ * 调用线程按原顺序依次写出，在途记录数有上限，内存占用与配置总数无关。
+ * 先写临时文件，完成后才替换目标文件，取消或出错时目标文件保持不变
+ */
+public class ProfileExporter {
+
+    private static final Logger log = LoggerFactory.getLogger(ProfileExporter.class);
+
+    // 已提交但尚未写出的记录上限
+    private static final int MAX_IN_FLIGHT = 256;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /**
+     * 导出文件格式
+     */
+    public enum Format {
+        ZIP("ZIP 压缩包（每个配置一个 JSON 文件）", ".zip"),
+        NDJSON("NDJSON（每行一个配置）", ".ndjson");
+
+        private final String displayName;
+        private final String extension;
+
+        Format(String displayName, String extension) {
+            this.displayName = displayName;
+            this.extension = extension;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * 按文件扩展名判断格式，无法识别时返回 ZIP
+         */
+        public static Format fromFileName(String fileName) {
+            String lower = fileName.toLowerCase(Locale.ROOT);
+            return lower.endsWith(".ndjson") || lower.endsWith(".jsonl") ? NDJSON : ZIP;
+        }
+
+        /**
+         * ZIP 中每个文件与单独导出的配置一样使用格式化 JSON；NDJSON 每条记录必须在一行内
+         */
+        ObjectWriter writer() {
+            return this == ZIP ? ProfileCodec.PRETTY_JSON.profileWriter() : ProfileCodec.COMPACT_JSON.profileWriter();
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+
+    /**
+     * 序列化前取得配置的完整记录（在序列化线程上调用）
+     */
+    @FunctionalInterface
+    public interface ProfileResolver {
+        BrowserProfile resolve(BrowserProfile profile) throws IOException;
+    }
+
+    /**
+     * 进度回调（在调用线程上执行）
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(int exported, int failed, int total);
+    }
+
+    /**
+     * 导出结果；取消时目标文件未被创建或替换
+     */
+    public record Result(int exported, int failed, boolean cancelled) {}
+
+    /**
+     * 序列化完成的记录
+     */
+    private record Encoded(BrowserProfile profile, byte[] data) {}
+
+    private final Format format;
+    private final ObjectWriter writer;
+
+    public ProfileExporter(Format format) {
+        this.format = format;
+        this.writer = format.writer();
+    }
+
+    /**
+     * 导出指定配置，阻塞直至完成或调用线程被中断
+     */
+    public Result exportTo(Collection<BrowserProfile> profiles, Path destination, ProfileResolver resolver,
+                           ProgressListener listener) throws IOException {
+        int[] counts = new int[2];
+        try {
+            AtomicFileWriter.write(destination, out -> writeAll(profiles, out, resolver, listener, counts), false);
+        } catch (InterruptedIOException | ClosedByInterruptException e) {
+            Thread.currentThread().interrupt();
+            log.info("Export to {} cancelled after {} profile(s)", destination, counts[0]);
+            return new Result(counts[0], counts[1], true);
+        }
+        log.info("Exported {} profile(s) to {}, {} failed", counts[0], destination, counts[1]);
+        return new Result(counts[0], counts[1], false);
+    }
+
+    private void writeAll(Collection<BrowserProfile> profiles, OutputStream rawOut, ProfileResolver resolver,
+                          ProgressListener listener, int[] counts) throws IOException {
+        BufferedOutputStream buffered = new BufferedOutputStream(rawOut, BUFFER_SIZE);
+        ZipOutputStream zip = format == Format.ZIP ? new ZipOutputStream(buffered, StandardCharsets.UTF_8) : null;
+        OutputStream out = zip != null ? zip : buffered;
+        Set<String> entryNames = new HashSet<>();
+        Deque<Future<Encoded>> window = new ArrayDeque<>(MAX_IN_FLIGHT);
+        long lastProgress = System.nanoTime();
+
+        ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            for (BrowserProfile profile : profiles) {
+                if (window.size() == MAX_IN_FLIGHT) {
+                    writeEntry(window.poll(), out, zip, entryNames, counts);
+                }
+                window.add(workers.submit(() -> encode(profile, resolver)));
+                if (listener != null && System.nanoTime() - lastProgress >= PROGRESS_INTERVAL_NANOS) {
+                    listener.onProgress(counts[0], counts[1], profiles.size());
+                    lastProgress = System.nanoTime();
+                }
+            }
+            while (!window.isEmpty()) {
+                writeEntry(window.poll(), out, zip, entryNames, counts);
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+
+        if (zip != null) {
+            zip.finish();
+        }
+        buffered.flush();
+        if (listener != null) {
+            listener.onProgress(counts[0], counts[1], profiles.size());
+        }
+    }
+
+    /**
+     * 序列化单个配置，失败时返回 null 并由写出方计入失败数
+     */
+    private Encoded encode(BrowserProfile profile, ProfileResolver resolver) {
+        try {
+            BrowserProfile full = resolver != null ? resolver.resolve(profile) : profile;
+            return new Encoded(profile, writer.writeValueAsBytes(full));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to export profile '{}': {}", profile.getName(), e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeEntry(Future<Encoded> future, OutputStream out, ZipOutputStream zip, Set<String> entryNames,
+                            int[] counts) throws IOException {
+        Encoded encoded;
+        try {
+            encoded = future.get();
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException("Export cancelled");
+        } catch (ExecutionException e) {
+            encoded = null;
+        }
+        if (encoded == null) {
+            counts[1]++;
+            return;
+        }
+
+        if (zip != null) {
+            ZipEntry entry = new ZipEntry(entryName(encoded.profile(), entryNames));
+            if (encoded.profile().getLastUsed() != null) {
+                entry.setTimeLocal(encoded.profile().getLastUsed());
+            }
+            zip.putNextEntry(entry);
+            zip.write(encoded.data());
+            zip.closeEntry();
+        } else {
+            out.write(encoded.data());
+            out.write('\n');
+        }
+        counts[0]++;
+    }
+
+    /**
+     * 与按目录导出时的文件名规则一致，同一压缩包内重复的 ID 加序号区分
+     */
+    private static String entryName(BrowserProfile profile, Set<String> entryNames) {
+        String name = profile.getName() == null ? "" : profile.getName();
+        String base = name.replaceAll("[\\\\/:*?\"<>|]", "_") + "_" + profile.getId();
+        String candidate = base + ".json";
+        for (int i = 2; !entryNames.add(candidate); i++) {
+            candidate = base + "_" + i + ".json";
+        }
+        return candidate;
+    }
+}
@@ -0,0 +1,288 @@
+package com.basis.fingerbrowser.service;
+
+import com.basis.fingerbrowser.model.BrowserProfile;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * 流式配置导入器
+ * 调用线程顺序读取数据源（JSON 文件、目录、ZIP 压缩包或每行一条记录的 NDJSON 文件），
+ * 解析在虚拟线程上并行进行且在途记录数有上限，结果按批次交付；线程被中断时停止读取
+ */
+public class ProfileImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(ProfileImporter.class);
+
+    // 已读取但尚未解析完的记录上限，限制大文件导入时的内存占用
+    private static final int MAX_IN_FLIGHT = 256;
+    private static final int BATCH_SIZE = 500;
+    // 距上次交付超过该时间则提前交付，保证界面持续有进展
+    private static final long MAX_BATCH_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+
+    /**
+     * 批次回调（在调用线程上执行）
+     */
+    @FunctionalInterface
+    public interface BatchConsumer {
+        /**
+         * @return 实际导入的记录数，其余视为被跳过
+         */
+        int accept(List<BrowserProfile> batch);
+    }
+
+    /**
+     * 进度回调（在调用线程上执行），进度以已读取的源文件字节数计
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(int imported, int failed, long bytesRead, long totalBytes);
+    }
+
+    /**
+     * 导入结果
+     */
+    public record Result(int imported, int skipped, int failed, boolean cancelled) {}
+
+    private final ObjectReader reader;
+
+    public ProfileImporter(ObjectReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * 导入指定数据源，阻塞直至完成或调用线程被中断；中断前已交付的批次保持有效
+     */
+    public Result importFrom(Path source, BatchConsumer consumer, ProgressListener listener) throws IOException {
+        Pipeline pipeline = new Pipeline(consumer, listener);
+        boolean cancelled = false;
+        IOException failure = null;
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            pipeline.workers = workers;
+            try {
+                if (Files.isDirectory(source)) {
+                    readDirectory(source, pipeline);
+                } else {
+                    pipeline.totalBytes = Files.size(source);
+                    readFile(source, pipeline);
+                }
+                pipeline.awaitAll();
+            } catch (InterruptedException | ClosedByInterruptException e) {
+                cancelled = true;
+                workers.shutdownNow();
+            } catch (IOException e) {
+                // 读取源文件出错时，已解析的记录照常交付
+                failure = e;
+            }
+        }
+        if (cancelled) {
+            Thread.currentThread().interrupt();
+        } else {
+            pipeline.deliver(true);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+
+        log.info("Imported {} profile(s) from {}, {} skipped, {} failed{}", pipeline.imported, source, pipeline.skipped,
+                pipeline.failed.get(), cancelled ? " (cancelled)" : "");
+        return new Result(pipeline.imported, pipeline.skipped, pipeline.failed.get(), cancelled);
+    }
+
+    private void readDirectory(Path directory, Pipeline pipeline) throws IOException, InterruptedException {
+        List<Path> files;
+        try (var stream = Files.list(directory)) {
+            files = stream.filter(path -> Files.isRegularFile(path) && isSupported(path.getFileName().toString())).toList();
+        }
+        for (Path file : files) {
+            pipeline.totalBytes += Files.size(file);
+        }
+        for (Path file : files) {
+            readFile(file, pipeline);
+        }
+    }
+
+    private void readFile(Path file, Pipeline pipeline) throws IOException, InterruptedException {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        try (InputStream in = new CountingInputStream(Files.newInputStream(file), pipeline)) {
+            if (name.endsWith(".zip")) {
+                readZip(in, file, pipeline);
+            } else if (isLineDelimited(name)) {
+                readLines(in, file.toString(), pipeline);
+            } else {
+                pipeline.submit(in.readAllBytes(), file.toString());
+            }
+        }
+    }
+
+    private void readZip(InputStream in, Path file, Pipeline pipeline) throws IOException, InterruptedException {
+        ZipInputStream zip = new ZipInputStream(in, StandardCharsets.UTF_8);
+        for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+            String name = entry.getName().toLowerCase(Locale.ROOT);
+            if (entry.isDirectory() || name.endsWith(".zip") || !isSupported(name)) {
+                continue;
+            }
+            String location = file + "!" + entry.getName();
+            if (isLineDelimited(name)) {
+                // 不能关闭，否则会关闭整个压缩包流
+                readLines(zip, location, pipeline);
+            } else {
+                pipeline.submit(zip.readAllBytes(), location);
+            }
+        }
+    }
+
+    private void readLines(InputStream in, String location, Pipeline pipeline) throws IOException, InterruptedException {
+        BufferedReader lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        int lineNumber = 0;
+        for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+            lineNumber++;
+            if (!line.isBlank()) {
+                pipeline.submit(line.getBytes(StandardCharsets.UTF_8), location + ":" + lineNumber);
+            }
+        }
+    }
+
+    private static boolean isSupported(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        return lower.endsWith(".json") || lower.endsWith(".zip") || isLineDelimited(lower);
+    }
+
+    private static boolean isLineDelimited(String lowerName) {
+        return lowerName.endsWith(".ndjson") || lowerName.endsWith(".jsonl");
+    }
+
+    /**
+     * 一次导入的状态：在途许可、解析结果队列与当前批次
+     */
+    private final class Pipeline {
+        private final BatchConsumer consumer;
+        private final ProgressListener listener;
+        private final Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+        private final Queue<BrowserProfile> parsed = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger failed = new AtomicInteger();
+        private ExecutorService workers;
+        private List<BrowserProfile> batch = new ArrayList<>(BATCH_SIZE);
+        private long lastDelivery = System.nanoTime();
+        private long bytesRead;
+        private long totalBytes;
+        private int imported;
+        private int skipped;
+
+        Pipeline(BatchConsumer consumer, ProgressListener listener) {
+            this.consumer = consumer;
+            this.listener = listener;
+        }
+
+        /**
+         * 提交一条记录解析；在途记录达到上限时阻塞，直到有记录解析完成
+         */
+        void submit(byte[] data, String location) throws InterruptedException {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException();
+            }
+            inFlight.acquire();
+            workers.submit(() -> {
+                try {
+                    parsed.add(reader.readValue(data));
+                } catch (IOException | RuntimeException e) {
+                    failed.incrementAndGet();
+                    log.warn("Failed to import profile from {}: {}", location, e.getMessage());
+                } finally {
+                    inFlight.release();
+                }
+            });
+            deliver(false);
+        }
+
+        /**
+         * 等待所有在途记录解析完成
+         */
+        void awaitAll() throws InterruptedException {
+            inFlight.acquire(MAX_IN_FLIGHT);
+            inFlight.release(MAX_IN_FLIGHT);
+        }
+
+        /**
+         * 收集已解析的记录，批次已满、距上次交付过久或 force 时交付
+         */
+        void deliver(boolean force) {
+            for (BrowserProfile profile = parsed.poll(); profile != null; profile = parsed.poll()) {
+                batch.add(profile);
+            }
+            long now = System.nanoTime();
+            if (!force && batch.size() < BATCH_SIZE && now - lastDelivery < MAX_BATCH_DELAY_NANOS) {
+                return;
+            }
+            if (!batch.isEmpty()) {
+                int accepted = consumer.accept(batch);
+                imported += accepted;
+                skipped += batch.size() - accepted;
+                batch = new ArrayList<>(BATCH_SIZE);
+            }
+            lastDelivery = now;
+            if (listener != null) {
+                listener.onProgress(imported, failed.get(), bytesRead, totalBytes);
+            }
+        }
+    }
+
+    /**
+     * 统计从源文件读取的字节数，用于报告进度
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        private final Pipeline pipeline;
+
+        CountingInputStream(InputStream in, Pipeline pipeline) {
+            super(in);
+            this.pipeline = pipeline;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                pipeline.bytesRead++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                pipeline.bytesRead += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            pipeline.bytesRead += skipped;
+            return skipped;
+        }
+    }
+}
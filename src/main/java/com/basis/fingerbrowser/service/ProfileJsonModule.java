@@ -0,0 +1,664 @@
+package com.basis.fingerbrowser.service;
+
+import com.basis.fingerbrowser.model.BrowserProfile;
+import com.basis.fingerbrowser.model.CanvasSettings;
+import com.basis.fingerbrowser.model.FontSettings;
+import com.basis.fingerbrowser.model.ProfileState;
+import com.basis.fingerbrowser.model.ProxyConfiguration;
+import com.basis.fingerbrowser.model.ProxySettings;
+import com.basis.fingerbrowser.model.ProxyType;
+import com.basis.fingerbrowser.model.WebRTCSettings;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 配置模型的流式序列化模块
+ * 直接通过 JsonGenerator/JsonParser 读写各字段，避免反射式数据绑定的开销；
+ * 输出的字段顺序与内容与数据绑定完全一致，新旧文件可以互相读取
+ */
+public final class ProfileJsonModule extends SimpleModule {
+
+    /**
+     * 写入属性：值为 true 时配置主记录不包含会话数据，会话数据由存储单独保存
+     */
+    public static final String OMIT_STATE = "fingerbrowser.omitState";
+
+    /**
+     * 写入属性：值为 true 时只写入配置内容本身，省略ID、时间戳、用户数据目录与会话数据，用于计算内容指纹
+     */
+    public static final String CANONICAL = "fingerbrowser.canonical";
+
+    // 与 BrowserProfile 中 @JsonFormat 的格式一致
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    public ProfileJsonModule() {
+        super("ProfileJsonModule");
+        addSerializer(BrowserProfile.class, new BrowserProfileSerializer());
+        addDeserializer(BrowserProfile.class, new BrowserProfileDeserializer());
+        addSerializer(ProfileState.class, new ProfileStateSerializer());
+        addDeserializer(ProfileState.class, new ProfileStateDeserializer());
+        addSerializer(ProxySettings.class, new ProxySettingsSerializer());
+        addDeserializer(ProxySettings.class, new ProxySettingsDeserializer());
+        addSerializer(ProxyConfiguration.class, new ProxyConfigurationSerializer());
+        addDeserializer(ProxyConfiguration.class, new ProxyConfigurationDeserializer());
+        addSerializer(WebRTCSettings.class, new WebRTCSettingsSerializer());
+        addDeserializer(WebRTCSettings.class, new WebRTCSettingsDeserializer());
+        addSerializer(CanvasSettings.class, new CanvasSettingsSerializer());
+        addDeserializer(CanvasSettings.class, new CanvasSettingsDeserializer());
+        addSerializer(FontSettings.class, new FontSettingsSerializer());
+        addDeserializer(FontSettings.class, new FontSettingsDeserializer());
+    }
+
+    // ---------------------------------------------------------------- BrowserProfile
+
+    static final class BrowserProfileSerializer extends StdSerializer<BrowserProfile> {
+        BrowserProfileSerializer() {
+            super(BrowserProfile.class);
+        }
+
+        @Override
+        public void serialize(BrowserProfile profile, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            boolean canonical = Boolean.TRUE.equals(provider.getAttribute(CANONICAL));
+            boolean omitState = canonical || Boolean.TRUE.equals(provider.getAttribute(OMIT_STATE));
+            gen.writeStartObject(profile);
+            if (!canonical) {
+                gen.writeStringField("id", profile.getId());
+            }
+            gen.writeStringField("name", profile.getName());
+            gen.writeStringField("userAgent", profile.getUserAgent());
+            gen.writeStringField("platform", profile.getPlatform());
+            gen.writeFieldName("webRTCSettings");
+            writeWebRTCSettings(gen, profile.getWebRTCSettings());
+            gen.writeFieldName("canvasFingerprint");
+            writeCanvasSettings(gen, profile.getCanvasFingerprint());
+            gen.writeFieldName("fontFingerprint");
+            writeFontSettings(gen, profile.getFontFingerprint());
+            gen.writeFieldName("proxySettings");
+            writeProxySettings(gen, profile.getProxySettings());
+            if (!omitState) {
+                writeStringMap(gen, "cookies", profile.getCookies());
+                writeStringMap(gen, "localStorage", profile.getLocalStorage());
+                writeStringMap(gen, "customHeaders", profile.getCustomHeaders());
+            }
+            gen.writeStringField("language", profile.getLanguage());
+            gen.writeStringField("timezone", profile.getTimezone());
+            gen.writeStringField("resolution", profile.getResolution());
+            if (!canonical) {
+                writeDateTime(gen, "createdAt", profile.getCreatedAt());
+                writeDateTime(gen, "lastUsed", profile.getLastUsed());
+            }
+            gen.writeStringField("notes", profile.getNotes());
+            writeStringList(gen, "tags", profile.getTags());
+            gen.writeStringField("browserExecutablePath", profile.getBrowserExecutablePath());
+            if (!canonical) {
+                gen.writeStringField("userDataDir", profile.getUserDataDir());
+            }
+            gen.writeFieldName("proxyConfiguration");
+            writeProxyConfiguration(gen, profile.getProxyConfiguration());
+            gen.writeEndObject();
+        }
+    }
+
+    static final class BrowserProfileDeserializer extends StdDeserializer<BrowserProfile> {
+        BrowserProfileDeserializer() {
+            super(BrowserProfile.class);
+        }
+
+        @Override
+        public BrowserProfile deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            // 缺省值与 BrowserProfile 无参构造函数一致
+            String id = null;
+            String name = null;
+            String userAgent = null;
+            String platform = null;
+            WebRTCSettings webRTCSettings = new WebRTCSettings();
+            CanvasSettings canvasFingerprint = new CanvasSettings();
+            FontSettings fontFingerprint = new FontSettings();
+            ProxySettings proxySettings = null;
+            Map<String, String> cookies = new HashMap<>();
+            Map<String, String> localStorage = new HashMap<>();
+            Map<String, String> customHeaders = new HashMap<>();
+            String language = null;
+            String timezone = null;
+            String resolution = null;
+            LocalDateTime createdAt = LocalDateTime.now();
+            LocalDateTime lastUsed = LocalDateTime.now();
+            String notes = null;
+            List<String> tags = new ArrayList<>();
+            String browserExecutablePath = null;
+            String userDataDir = null;
+            ProxyConfiguration proxyConfiguration = null;
+
+            for (String field = firstField(p, ctxt, BrowserProfile.class); field != null; field = p.nextFieldName()) {
+                p.nextToken();
+                switch (field) {
+                    case "id" -> id = readString(p, ctxt);
+                    case "name" -> name = readString(p, ctxt);
+                    case "userAgent" -> userAgent = readString(p, ctxt);
+                    case "platform" -> platform = readString(p, ctxt);
+                    case "webRTCSettings" -> webRTCSettings = readWebRTCSettings(p, ctxt);
+                    case "canvasFingerprint" -> canvasFingerprint = readCanvasSettings(p, ctxt);
+                    case "fontFingerprint" -> fontFingerprint = readFontSettings(p, ctxt);
+                    case "proxySettings" -> proxySettings = readProxySettings(p, ctxt);
+                    case "cookies" -> cookies = readStringMap(p, ctxt);
+                    case "localStorage" -> localStorage = readStringMap(p, ctxt);
+                    case "customHeaders" -> customHeaders = readStringMap(p, ctxt);
+                    case "language" -> language = readString(p, ctxt);
+                    case "timezone" -> timezone = readString(p, ctxt);
+                    case "resolution" -> resolution = readString(p, ctxt);
+                    case "createdAt" -> createdAt = readDateTime(p, ctxt);
+                    case "lastUsed" -> lastUsed = readDateTime(p, ctxt);
+                    case "notes" -> notes = readString(p, ctxt);
+                    case "tags" -> tags = readStringList(p, ctxt);
+                    case "browserExecutablePath" -> browserExecutablePath = readString(p, ctxt);
+                    case "userDataDir" -> userDataDir = readString(p, ctxt);
+                    case "proxyConfiguration" -> proxyConfiguration = readProxyConfiguration(p, ctxt);
+                    // 标注了 @JsonIgnore 的属性
+                    case "active", "stateLoaded" -> p.skipChildren();
+                    default -> ctxt.handleUnknownProperty(p, this, BrowserProfile.class, field);
+                }
+            }
+
+            BrowserProfile profile = new BrowserProfile(id != null ? id : UUID.randomUUID().toString(), name, createdAt);
+            profile.setUserAgent(userAgent);
+            profile.setPlatform(platform);
+            profile.setWebRTCSettings(webRTCSettings);
+            profile.setCanvasFingerprint(canvasFingerprint);
+            profile.setFontFingerprint(fontFingerprint);
+            profile.setProxySettings(proxySettings);
+            profile.setCookies(cookies);
+            profile.setLocalStorage(localStorage);
+            profile.setCustomHeaders(customHeaders);
+            profile.setLanguage(language);
+            profile.setTimezone(timezone);
+            profile.setResolution(resolution);
+            profile.setLastUsed(lastUsed);
+            profile.setNotes(notes);
+            profile.setTags(tags);
+            profile.setBrowserExecutablePath(browserExecutablePath);
+            profile.setUserDataDir(userDataDir);
+            profile.setProxyConfiguration(proxyConfiguration);
+            return profile;
+        }
+    }
+
+    // ---------------------------------------------------------------- ProfileState
+
+    static final class ProfileStateSerializer extends StdSerializer<ProfileState> {
+        ProfileStateSerializer() {
+            super(ProfileState.class);
+        }
+
+        @Override
+        public void serialize(ProfileState state, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(state);
+            writeStringMap(gen, "cookies", state.getCookies());
+            writeStringMap(gen, "localStorage", state.getLocalStorage());
+            writeStringMap(gen, "customHeaders", state.getCustomHeaders());
+            gen.writeEndObject();
+        }
+    }
+
+    static final class ProfileStateDeserializer extends StdDeserializer<ProfileState> {
+        ProfileStateDeserializer() {
+            super(ProfileState.class);
+        }
+
+        @Override
+        public ProfileState deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            ProfileState state = new ProfileState();
+            for (String field = firstField(p, ctxt, ProfileState.class); field != null; field = p.nextFieldName()) {
+                p.nextToken();
+                switch (field) {
+                    case "cookies" -> state.setCookies(readStringMap(p, ctxt));
+                    case "localStorage" -> state.setLocalStorage(readStringMap(p, ctxt));
+                    case "customHeaders" -> state.setCustomHeaders(readStringMap(p, ctxt));
+                    // 主记录按会话数据读取时会遇到其余字段
+                    default -> p.skipChildren();
+                }
+            }
+            return state;
+        }
+    }
+
+    // ---------------------------------------------------------------- ProxySettings
+
+    static final class ProxySettingsSerializer extends StdSerializer<ProxySettings> {
+        ProxySettingsSerializer() {
+            super(ProxySettings.class);
+        }
+
+        @Override
+        public void serialize(ProxySettings value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            writeProxySettings(gen, value);
+        }
+    }
+
+    static final class ProxySettingsDeserializer extends StdDeserializer<ProxySettings> {
+        ProxySettingsDeserializer() {
+            super(ProxySettings.class);
+        }
+
+        @Override
+        public ProxySettings deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            return readProxySettings(p, ctxt);
+        }
+    }
+
+    private static void writeProxySettings(JsonGenerator gen, ProxySettings proxy) throws IOException {
+        if (proxy == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject(proxy);
+        gen.writeStringField("type", proxy.getType());
+        gen.writeStringField("host", proxy.getHost());
+        gen.writeNumberField("port", proxy.getPort());
+        gen.writeStringField("username", proxy.getUsername());
+        gen.writeStringField("password", proxy.getPassword());
+        gen.writeBooleanField("requiresAuthentication", proxy.isRequiresAuthentication());
+        gen.writeBooleanField("enabled", proxy.isEnabled());
+        gen.writeEndObject();
+    }
+
+    private static ProxySettings readProxySettings(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.hasToken(JsonToken.VALUE_NULL)) {
+            return null;
+        }
+        ProxySettings proxy = new ProxySettings();
+        for (String field = firstField(p, ctxt, ProxySettings.class); field != null; field = p.nextFieldName()) {
+            p.nextToken();
+            switch (field) {
+                case "type" -> proxy.setType(readString(p, ctxt));
+                case "host" -> proxy.setHost(readString(p, ctxt));
+                case "port" -> proxy.setPort(readInt(p, ctxt));
+                case "username" -> proxy.setUsername(readString(p, ctxt));
+                case "password" -> proxy.setPassword(readString(p, ctxt));
+                case "requiresAuthentication" -> proxy.setRequiresAuthentication(readBoolean(p, ctxt));
+                case "enabled" -> proxy.setEnabled(readBoolean(p, ctxt));
+                default -> p.skipChildren();
+            }
+        }
+        return proxy;
+    }
+
+    // ---------------------------------------------------------------- ProxyConfiguration
+
+    static final class ProxyConfigurationSerializer extends StdSerializer<ProxyConfiguration> {
+        ProxyConfigurationSerializer() {
+            super(ProxyConfiguration.class);
+        }
+
+        @Override
+        public void serialize(ProxyConfiguration value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            writeProxyConfiguration(gen, value);
+        }
+    }
+
+    static final class ProxyConfigurationDeserializer extends StdDeserializer<ProxyConfiguration> {
+        ProxyConfigurationDeserializer() {
+            super(ProxyConfiguration.class);
+        }
+
+        @Override
+        public ProxyConfiguration deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            return readProxyConfiguration(p, ctxt);
+        }
+    }
+
+    private static void writeProxyConfiguration(JsonGenerator gen, ProxyConfiguration config) throws IOException {
+        if (config == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject(config);
+        gen.writeStringField("proxyType", config.getProxyType() == null ? null : config.getProxyType().name());
+        gen.writeStringField("host", config.getHost());
+        gen.writeNumberField("port", config.getPort());
+        gen.writeStringField("username", config.getUsername());
+        gen.writeStringField("password", config.getPassword());
+        gen.writeBooleanField("authenticationRequired", config.isAuthenticationRequired());
+        gen.writeEndObject();
+    }
+
+    private static ProxyConfiguration readProxyConfiguration(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.hasToken(JsonToken.VALUE_NULL)) {
+            return null;
+        }
+        ProxyConfiguration config = new ProxyConfiguration();
+        for (String field = firstField(p, ctxt, ProxyConfiguration.class); field != null; field = p.nextFieldName()) {
+            p.nextToken();
+            switch (field) {
+                case "proxyType" -> config.setProxyType(readProxyType(p, ctxt));
+                case "host" -> config.setHost(readString(p, ctxt));
+                case "port" -> config.setPort(readInt(p, ctxt));
+                case "username" -> config.setUsername(readString(p, ctxt));
+                case "password" -> config.setPassword(readString(p, ctxt));
+                case "authenticationRequired" -> config.setAuthenticationRequired(readBoolean(p, ctxt));
+                default -> ctxt.handleUnknownProperty(p, null, ProxyConfiguration.class, field);
+            }
+        }
+        return config;
+    }
+
+    private static ProxyType readProxyType(JsonParser p, DeserializationContext ctxt) throws IOException {
+        String name = readString(p, ctxt);
+        if (name == null) {
+            return null;
+        }
+        try {
+            return ProxyType.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            throw ctxt.weirdStringException(name, ProxyType.class, "not one of the values accepted for Enum class ProxyType");
+        }
+    }
+
+    // ---------------------------------------------------------------- 指纹设置
+
+    static final class WebRTCSettingsSerializer extends StdSerializer<WebRTCSettings> {
+        WebRTCSettingsSerializer() {
+            super(WebRTCSettings.class);
+        }
+
+        @Override
+        public void serialize(WebRTCSettings value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            writeWebRTCSettings(gen, value);
+        }
+    }
+
+    static final class WebRTCSettingsDeserializer extends StdDeserializer<WebRTCSettings> {
+        WebRTCSettingsDeserializer() {
+            super(WebRTCSettings.class);
+        }
+
+        @Override
+        public WebRTCSettings deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            return readWebRTCSettings(p, ctxt);
+        }
+    }
+
+    private static void writeWebRTCSettings(JsonGenerator gen, WebRTCSettings settings) throws IOException {
+        if (settings == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject(settings);
+        gen.writeBooleanField("enabled", settings.isEnabled());
+        gen.writeStringField("ipHandlingPolicy", settings.getIpHandlingPolicy());
+        gen.writeEndObject();
+    }
+
+    private static WebRTCSettings readWebRTCSettings(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.hasToken(JsonToken.VALUE_NULL)) {
+            return null;
+        }
+        WebRTCSettings settings = new WebRTCSettings();
+        for (String field = firstField(p, ctxt, WebRTCSettings.class); field != null; field = p.nextFieldName()) {
+            p.nextToken();
+            switch (field) {
+                case "enabled" -> settings.setEnabled(readBoolean(p, ctxt));
+                case "ipHandlingPolicy" -> settings.setIpHandlingPolicy(readString(p, ctxt));
+                default -> p.skipChildren();
+            }
+        }
+        return settings;
+    }
+
+    static final class CanvasSettingsSerializer extends StdSerializer<CanvasSettings> {
+        CanvasSettingsSerializer() {
+            super(CanvasSettings.class);
+        }
+
+        @Override
+        public void serialize(CanvasSettings value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            writeCanvasSettings(gen, value);
+        }
+    }
+
+    static final class CanvasSettingsDeserializer extends StdDeserializer<CanvasSettings> {
+        CanvasSettingsDeserializer() {
+            super(CanvasSettings.class);
+        }
+
+        @Override
+        public CanvasSettings deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            return readCanvasSettings(p, ctxt);
+        }
+    }
+
+    private static void writeCanvasSettings(JsonGenerator gen, CanvasSettings settings) throws IOException {
+        if (settings == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject(settings);
+        gen.writeBooleanField("spoof", settings.isSpoof());
+        gen.writeNumberField("noise", settings.getNoise());
+        gen.writeEndObject();
+    }
+
+    private static CanvasSettings readCanvasSettings(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.hasToken(JsonToken.VALUE_NULL)) {
+            return null;
+        }
+        CanvasSettings settings = new CanvasSettings();
+        for (String field = firstField(p, ctxt, CanvasSettings.class); field != null; field = p.nextFieldName()) {
+            p.nextToken();
+            switch (field) {
+                case "spoof" -> settings.setSpoof(readBoolean(p, ctxt));
+                case "noise" -> settings.setNoise(readDouble(p, ctxt));
+                default -> p.skipChildren();
+            }
+        }
+        return settings;
+    }
+
+    static final class FontSettingsSerializer extends StdSerializer<FontSettings> {
+        FontSettingsSerializer() {
+            super(FontSettings.class);
+        }
+
+        @Override
+        public void serialize(FontSettings value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            writeFontSettings(gen, value);
+        }
+    }
+
+    static final class FontSettingsDeserializer extends StdDeserializer<FontSettings> {
+        FontSettingsDeserializer() {
+            super(FontSettings.class);
+        }
+
+        @Override
+        public FontSettings deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            return readFontSettings(p, ctxt);
+        }
+    }
+
+    private static void writeFontSettings(JsonGenerator gen, FontSettings settings) throws IOException {
+        if (settings == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject(settings);
+        gen.writeBooleanField("spoof", settings.isSpoof());
+        gen.writeEndObject();
+    }
+
+    private static FontSettings readFontSettings(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.hasToken(JsonToken.VALUE_NULL)) {
+            return null;
+        }
+        FontSettings settings = new FontSettings();
+        for (String field = firstField(p, ctxt, FontSettings.class); field != null; field = p.nextFieldName()) {
+            p.nextToken();
+            if ("spoof".equals(field)) {
+                settings.setSpoof(readBoolean(p, ctxt));
+            } else {
+                p.skipChildren();
+            }
+        }
+        return settings;
+    }
+
+    // ---------------------------------------------------------------- 基础类型
+
+    private static void writeStringMap(JsonGenerator gen, String name, Map<String, String> map) throws IOException {
+        gen.writeFieldName(name);
+        if (map == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject(map);
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            gen.writeStringField(entry.getKey(), entry.getValue());
+        }
+        gen.writeEndObject();
+    }
+
+    private static Map<String, String> readStringMap(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.hasToken(JsonToken.VALUE_NULL)) {
+            return null;
+        }
+        Map<String, String> map = new LinkedHashMap<>();
+        for (String key = firstField(p, ctxt, Map.class); key != null; key = p.nextFieldName()) {
+            p.nextToken();
+            map.put(key, readString(p, ctxt));
+        }
+        return map;
+    }
+
+    private static void writeStringList(JsonGenerator gen, String name, List<String> list) throws IOException {
+        gen.writeFieldName(name);
+        if (list == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartArray(list, list.size());
+        for (String value : list) {
+            gen.writeString(value);
+        }
+        gen.writeEndArray();
+    }
+
+    private static List<String> readStringList(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.hasToken(JsonToken.VALUE_NULL)) {
+            return null;
+        }
+        if (!p.isExpectedStartArrayToken()) {
+            ctxt.handleUnexpectedToken(List.class, p);
+        }
+        List<String> list = new ArrayList<>();
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            list.add(readString(p, ctxt));
+        }
+        return list;
+    }
+
+    private static void writeDateTime(JsonGenerator gen, String name, LocalDateTime value) throws IOException {
+        gen.writeStringField(name, value == null ? null : DATE_TIME.format(value));
+    }
+
+    /**
+     * 按 @JsonFormat 的格式解析，兼容带毫秒的 ISO 格式；数组或时间戳交由 JavaTimeModule 处理
+     */
+    private static LocalDateTime readDateTime(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token != JsonToken.VALUE_STRING) {
+            return ctxt.readValue(p, LocalDateTime.class);
+        }
+        String text = p.getText().trim();
+        if (text.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(text, DATE_TIME);
+        } catch (DateTimeParseException e) {
+            try {
+                return LocalDateTime.parse(text);
+            } catch (DateTimeParseException ignored) {
+                throw ctxt.weirdStringException(text, LocalDateTime.class, e.getMessage());
+            }
+        }
+    }
+
+    private static String readString(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.VALUE_STRING) {
+            return p.getText();
+        }
+        if (token != null && token.isScalarValue()) {
+            return p.getValueAsString();
+        }
+        return (String) ctxt.handleUnexpectedToken(String.class, p);
+    }
+
+    private static int readInt(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.hasToken(JsonToken.VALUE_NUMBER_INT)) {
+            return p.getIntValue();
+        }
+        requireScalar(p, ctxt, int.class);
+        return p.getValueAsInt();
+    }
+
+    private static boolean readBoolean(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.VALUE_TRUE || token == JsonToken.VALUE_FALSE) {
+            return token == JsonToken.VALUE_TRUE;
+        }
+        requireScalar(p, ctxt, boolean.class);
+        return p.getValueAsBoolean();
+    }
+
+    private static double readDouble(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.currentToken() != null && p.currentToken().isNumeric()) {
+            return p.getDoubleValue();
+        }
+        requireScalar(p, ctxt, double.class);
+        return p.getValueAsDouble();
+    }
+
+    private static void requireScalar(JsonParser p, DeserializationContext ctxt, Class<?> type) throws IOException {
+        if (p.currentToken() == null || !p.currentToken().isScalarValue()) {
+            ctxt.handleUnexpectedToken(type, p);
+        }
+    }
+
+    /**
+     * 进入对象并返回第一个字段名，对象为空时返回 null；
+     * 调用方可能已越过左花括号（如多态或缓冲的输入），此时从当前字段开始
+     */
+    private static String firstField(JsonParser p, DeserializationContext ctxt, Class<?> type) throws IOException {
+        if (p.isExpectedStartObjectToken()) {
+            return p.nextFieldName();
+        }
+        if (p.hasToken(JsonToken.FIELD_NAME)) {
+            return p.currentName();
+        }
+        if (p.hasToken(JsonToken.END_OBJECT)) {
+            return null;
+        }
+        ctxt.handleUnexpectedToken(type, p);
+        return null;
+    }
+}
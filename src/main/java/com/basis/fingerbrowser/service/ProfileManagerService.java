@@ -2,10 +2,13 @@ package com.basis.fingerbrowser.service;
 
 import com.basis.fingerbrowser.model.BrowserProfile;
 import com.basis.fingerbrowser.model.ProxySettings;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.basis.fingerbrowser.util.AppPreferences;
+import com.basis.fingerbrowser.util.DirectoryLayout;
+import com.basis.fingerbrowser.util.FxUtil;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,35 +18,192 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
-public class ProfileManagerService {
+public class ProfileManagerService implements AutoCloseable {
 
     private static final Logger log = LoggerFactory.getLogger(ProfileManagerService.class);
     
     private final String profilesDirectory;
     private final ObservableList<BrowserProfile> profiles;
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
-    private final ObjectMapper objectMapper;
+    // 模糊搜索的相似度阈值与最多返回的结果数
+    private static final double FUZZY_SIMILARITY_THRESHOLD = 0.3;
+    private static final int FUZZY_RESULT_LIMIT = 200;
+    private final ObjectReader importReader;
+    private final ObjectWriter exportWriter;
+    private final ProfilePersister persister;
+    // 存储后端在加载线程中打开（可能需要重放日志或迁移），写线程在其就绪前等待
+    private final CompletableFuture<ProfileStore> storeFuture = new CompletableFuture<>();
+    private Thread loaderThread;
+    // 监听配置目录的外部变化（仅文件存储后端）
+    private volatile ProfileDirectoryWatcher watcher;
+    // 各配置文件最近一次由本程序读取或写入时的版本戳，用于识别外部修改并跳过自身写入引起的事件
+    // 启动快照只收录版本戳与此一致的配置，即内存中的字段值正是存储中该版本的内容
+    private final Map<String, Long> knownStamps = new ConcurrentHashMap<>();
+    // 内存中有未经保存的修改（如启动浏览器时更新的最近使用时间）的配置ID，下次成功写入后清除
+    private final Set<String> unsavedIds = ConcurrentHashMap.newKeySet();
+    private final Object stampLock = new Object();
+
+    // ID 索引：与 profiles 列表保持同步，支持任意线程 O(1) 查询
+    private final Map<String, BrowserProfile> profilesById = new ConcurrentHashMap<>();
+    private final Map<String, Integer> positionsById = new ConcurrentHashMap<>();
+    // 由启动快照恢复、尚未读取完整记录的占位配置ID
+    private final Set<String> stubIds = ConcurrentHashMap.newKeySet();
+    // 内容指纹索引，用于导入时识别重复配置
+    private final ProfileDedupIndex dedupIndex = new ProfileDedupIndex();
+    // 属性二级索引（代理服务器、时区、浏览器类型、标签），与 profiles 列表同步维护
+    private final ProfileAttributeIndex attributeIndex = new ProfileAttributeIndex();
+    // 全文倒排索引（名称、备注、User-Agent、标签、代理服务器），与 profiles 列表同步维护
+    private final ProfileSearchIndex searchIndex = new ProfileSearchIndex();
+    // 名称与备注的三元组索引，用于模糊搜索
+    private final ProfileTrigramIndex trigramIndex = new ProfileTrigramIndex();
+    // 各列的排序索引
+    private final ProfileSortIndex sortIndex = new ProfileSortIndex();
+
+    /**
+     * 搜索方式
+     */
+    public enum SearchMode {
+        EXACT("精确"),
+        FUZZY("模糊");
+
+        private final String displayName;
+
+        SearchMode(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        /**
+         * 按名称解析，无法识别时返回精确搜索
+         */
+        public static SearchMode fromName(String name) {
+            for (SearchMode mode : values()) {
+                if (mode.name().equalsIgnoreCase(name)) {
+                    return mode;
+                }
+            }
+            return EXACT;
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+
+    private final List<LoadProgressListener> loadProgressListeners = new CopyOnWriteArrayList<>();
+    private final CompletableFuture<Integer> loadFuture = new CompletableFuture<>();
+
+    /**
+     * 配置加载进度监听器接口（在 JavaFX 线程回调）
+     */
+    public interface LoadProgressListener {
+        void onProgress(int processed, int total);
+    }
 
     public ProfileManagerService(String profilesDirectory) {
         this.profilesDirectory = profilesDirectory;
         this.profiles = FXCollections.observableArrayList();
+        this.profiles.addListener(this::syncIndex);
 
-        // 初始化Jackson ObjectMapper
-        this.objectMapper = new ObjectMapper();
-        objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
-        objectMapper.registerModule(new JavaTimeModule());
+        // 导入导出始终使用格式化 JSON，与存储的编码格式设置无关
+        this.importReader = ProfileCodec.PRETTY_JSON.profileReader();
+        this.exportWriter = ProfileCodec.PRETTY_JSON.profileWriter();
+
+        // 修改经合并后由后台写线程批量落盘
+        this.persister = new ProfilePersister(new ProfilePersister.ProfileWriter() {
+            @Override
+            public Collection<String> write(Collection<BrowserProfile> batch) throws IOException {
+                ProfileStore store = awaitStore();
+                if (store == null) {
+                    throw new IOException("Profile store is unavailable");
+                }
+                // 占位配置缺少完整字段，写入前先补全，补全失败的不写入以免覆盖完整记录，留待重试
+                List<BrowserProfile> complete = new ArrayList<>(batch.size());
+                List<String> incomplete = new ArrayList<>();
+                for (BrowserProfile profile : batch) {
+                    if (hydrate(store, profile)) {
+                        complete.add(profile);
+                    } else {
+                        incomplete.add(profile.getId());
+                    }
+                }
+                // 写入前清除：序列化期间再次修改的配置会被重新记录
+                complete.forEach(profile -> unsavedIds.remove(profile.getId()));
+                synchronized (stampLock) {
+                    try {
+                        store.write(complete);
+                    } catch (IOException | RuntimeException e) {
+                        // 部分记录可能已被改写，版本戳不再对应内存中的值
+                        complete.forEach(profile -> knownStamps.remove(profile.getId()));
+                        throw e;
+                    }
+                    recordStamps(store, complete);
+                }
+                return incomplete;
+            }
+
+            @Override
+            public void delete(Collection<String> profileIds) throws IOException {
+                ProfileStore store = awaitStore();
+                if (store == null) {
+                    throw new IOException("Profile store is unavailable");
+                }
+                synchronized (stampLock) {
+                    store.delete(profileIds);
+                    knownStamps.keySet().removeAll(profileIds);
+                    unsavedIds.removeAll(profileIds);
+                }
+            }
+        });
 
         // 确保配置目录存在
         createDirectoryIfNotExists(profilesDirectory);
 
-        // 加载现有配置文件
+        // 在后台加载现有配置文件，主窗口无需等待
         loadProfiles();
     }
 
+    /**
+     * 添加配置加载进度监听器
+     */
+    public void addLoadProgressListener(LoadProgressListener listener) {
+        if (listener != null) {
+            loadProgressListeners.add(listener);
+        }
+    }
+
+    /**
+     * 移除配置加载进度监听器
+     */
+    public void removeLoadProgressListener(LoadProgressListener listener) {
+        loadProgressListeners.remove(listener);
+    }
+
+    /**
+     * 获取初始加载的完成状态，结果为成功加载的配置数量
+     */
+    public CompletableFuture<Integer> getLoadFuture() {
+        return loadFuture;
+    }
+
     /**
      * 获取所有配置文件
      */
@@ -55,21 +215,29 @@ public class ProfileManagerService {
      * 添加新配置文件
      */
     public void addProfile(BrowserProfile profile) {
+        stubIds.remove(profile.getId());
         profiles.add(profile);
-        saveProfile(profile);
+        persister.markDirty(profile);
     }
 
     /**
      * 更新配置文件
      */
     public void updateProfile(BrowserProfile profile) {
-        for (int i = 0; i < profiles.size(); i++) {
-            if (profiles.get(i).getId().equals(profile.getId())) {
-                profiles.set(i, profile);
-                break;
+        if (profilesById.get(profile.getId()) != profile) {
+            // 以新对象替换占位配置时，新对象即为完整记录
+            stubIds.remove(profile.getId());
+        }
+        int index = indexOf(profile.getId());
+        if (index >= 0) {
+            BrowserProfile current = profiles.get(index);
+            if (current != profile) {
+                // 与 applyChanges 相同，新对象沿用原对象的运行状态
+                profile.setActive(current.isActive());
             }
+            profiles.set(index, profile);
         }
-        saveProfile(profile);
+        persister.markDirty(profile);
     }
 
     /**
@@ -77,111 +245,872 @@ public class ProfileManagerService {
      */
     public void deleteProfile(String profileId) {
         // 从内存中移除
-        profiles.removeIf(p -> p.getId().equals(profileId));
+        int index = indexOf(profileId);
+        if (index >= 0) {
+            profiles.remove(index);
+        }
 
-        // 从磁盘中删除
-        try {
-            Path profilePath = Paths.get(profilesDirectory, profileId + ".json");
-            Files.deleteIfExists(profilePath);
-        } catch (IOException e) {
-            log.error("Failed to delete profile file for ID: {}", profileId, e);
+        // 由写线程从磁盘中删除
+        stubIds.remove(profileId);
+        persister.markDeleted(profileId);
+    }
+
+    /**
+     * 批量添加配置，ID 已存在的就地替换
+     * 整批只产生一次列表变更与一次持久化批次；可在任意线程调用，列表在 JavaFX 线程上更新
+     */
+    public void bulkAdd(Collection<BrowserProfile> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<BrowserProfile> copy = List.copyOf(batch);
+        for (BrowserProfile profile : copy) {
+            stubIds.remove(profile.getId());
+        }
+        persister.markDirty(copy);
+        FxUtil.runOnFxThread(() -> addOrReplace(copy));
+    }
+
+    /**
+     * 批量更新配置，不在列表中的配置被忽略
+     * 整批只产生一次列表变更与一次持久化批次；可在任意线程调用，列表在 JavaFX 线程上更新
+     */
+    public void bulkUpdate(Collection<BrowserProfile> batch) {
+        Map<String, BrowserProfile> replacements = new LinkedHashMap<>();
+        for (BrowserProfile profile : batch) {
+            if (containsProfile(profile.getId())) {
+                if (profilesById.get(profile.getId()) != profile) {
+                    stubIds.remove(profile.getId());
+                }
+                replacements.put(profile.getId(), profile);
+            }
+        }
+        if (replacements.isEmpty()) {
+            return;
+        }
+        persister.markDirty(replacements.values());
+        FxUtil.runOnFxThread(() -> applyChanges(replacements, Set.of()));
+    }
+
+    /**
+     * 批量删除配置
+     * 整批只产生一次列表变更与一次持久化批次；可在任意线程调用，列表在 JavaFX 线程上更新
+     *
+     * @return 实际存在并被删除的配置数量
+     */
+    public int bulkDelete(Collection<String> profileIds) {
+        Set<String> removals = new HashSet<>();
+        for (String id : profileIds) {
+            if (containsProfile(id)) {
+                removals.add(id);
+            }
+        }
+        if (removals.isEmpty()) {
+            return 0;
+        }
+        stubIds.removeAll(removals);
+        persister.markDeleted(removals);
+        FxUtil.runOnFxThread(() -> applyChanges(Map.of(), removals));
+        return removals.size();
+    }
+
+    /**
+     * 对所有满足条件的配置执行修改，整批只产生一次列表变更与一次持久化批次
+     * 条件以列表字段判断，在 JavaFX 线程上求值；其余同 {@link #applyTo}
+     *
+     * @return 被修改的配置数量
+     */
+    public int applyToAll(Predicate<BrowserProfile> predicate, Consumer<BrowserProfile> mutator) {
+        List<String> matched = FxUtil.callOnFxThread(() -> {
+            List<String> ids = new ArrayList<>();
+            for (BrowserProfile profile : profiles) {
+                if (predicate.test(profile)) {
+                    ids.add(profile.getId());
+                }
+            }
+            return ids;
+        });
+        return applyTo(matched, mutator);
+    }
+
+    /**
+     * 对指定ID的配置执行修改，整批只产生一次列表变更与一次持久化批次，不存在的ID被忽略
+     * 通常与 {@link #findProfileIds} 配合，按索引直接定位目标而无需遍历全部配置。
+     * 可在任意线程调用：完整记录在调用线程读取（可能涉及磁盘读取，建议在后台线程调用），
+     * 修改则在 JavaFX 线程上进行——列表、索引与界面都在该线程读取这些配置——调用线程等待修改完成
+     *
+     * @return 被修改的配置数量
+     */
+    public int applyTo(Collection<String> profileIds, Consumer<BrowserProfile> mutator) {
+        List<BrowserProfile> targets = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (String id : profileIds) {
+            BrowserProfile profile = profilesById.get(id);
+            if (profile != null && seen.add(id)) {
+                targets.add(ensureLoaded(profile));
+            }
+        }
+        if (targets.isEmpty()) {
+            return 0;
+        }
+        return FxUtil.callOnFxThread(() -> {
+            Map<String, BrowserProfile> replacements = new LinkedHashMap<>();
+            for (BrowserProfile profile : targets) {
+                // 读取期间被删除或被替换的配置不再修改
+                if (profilesById.get(profile.getId()) == profile) {
+                    mutator.accept(profile);
+                    replacements.put(profile.getId(), profile);
+                }
+            }
+            if (!replacements.isEmpty()) {
+                persister.markDirty(replacements.values());
+                applyChanges(replacements, Set.of());
+            }
+            return replacements.size();
+        });
+    }
+
+    /**
+     * 按属性值查询配置ID，耗时与结果数量成正比；可在任意线程调用
+     */
+    public Set<String> findProfileIds(ProfileAttributeIndex.Attribute attribute, String value) {
+        return attributeIndex.find(attribute, value);
+    }
+
+    /**
+     * 按属性值查询配置，按列表顺序返回；可在任意线程调用
+     */
+    public List<BrowserProfile> findProfiles(ProfileAttributeIndex.Attribute attribute, String value) {
+        List<BrowserProfile> result = new ArrayList<>();
+        for (String id : attributeIndex.find(attribute, value)) {
+            BrowserProfile profile = profilesById.get(id);
+            if (profile != null) {
+                result.add(profile);
+            }
+        }
+        result.sort(Comparator.comparingInt(profile -> indexOf(profile.getId())));
+        return result;
+    }
+
+    /**
+     * 全文搜索配置，返回按相关度与最近使用时间排序的配置ID；耗时与命中数量有关，可在任意线程调用
+     */
+    public List<String> search(String query) {
+        return searchIndex.search(query);
+    }
+
+    /**
+     * 按指定方式搜索配置，cancelled 返回 true 后尽快结束并返回空列表，结果应被丢弃
+     */
+    public List<String> search(String query, SearchMode mode, BooleanSupplier cancelled) {
+        return switch (mode) {
+            case EXACT -> searchIndex.search(query, cancelled);
+            case FUZZY -> trigramIndex.search(query, FUZZY_SIMILARITY_THRESHOLD, FUZZY_RESULT_LIMIT, cancelled);
+        };
+    }
+
+    /**
+     * 执行结构化查询的计划，返回命中的配置ID：有全文搜索词时按相关度排序，否则按列表顺序
+     * 全文搜索与属性条件先通过索引求出候选集合并按从小到大求交集，其余条件只在候选上求值；
+     * 没有任何可用索引的条件时才对全部配置求值。cancelled 返回 true 后尽快结束并返回空列表
+     */
+    public List<String> query(ProfileQuery.Plan plan, SearchMode mode, BooleanSupplier cancelled) {
+        List<String> ranked = null;
+        List<Set<String>> included = new ArrayList<>();
+        if (!plan.text().isEmpty()) {
+            ranked = search(plan.text(), mode, cancelled);
+            included.add(new HashSet<>(ranked));
+        }
+        Set<String> excluded = new HashSet<>();
+        for (ProfileQuery.IndexCondition condition : plan.indexConditions()) {
+            Set<String> ids = condition.isExact()
+                    ? attributeIndex.find(condition.attribute(), condition.value())
+                    : attributeIndex.findMatching(condition.attribute(), condition.keyFilter());
+            if (condition.negated()) {
+                excluded.addAll(ids);
+            } else {
+                included.add(ids);
+            }
+        }
+        for (String text : plan.excludedText()) {
+            excluded.addAll(searchIndex.search(text, cancelled));
+        }
+        if (cancelled.getAsBoolean()) {
+            return List.of();
+        }
+
+        Set<String> candidates = null;
+        included.sort(Comparator.comparingInt(Set::size));
+        for (Set<String> ids : included) {
+            if (candidates == null) {
+                candidates = new HashSet<>(ids);
+            } else {
+                candidates.retainAll(ids);
+            }
+        }
+
+        Predicate<BrowserProfile> residual = plan.residual();
+        Collection<String> order = ranked != null ? ranked : candidates != null ? candidates : profilesById.keySet();
+        List<String> result = new ArrayList<>();
+        int checked = 0;
+        for (String id : order) {
+            if (++checked % 4096 == 0 && cancelled.getAsBoolean()) {
+                return List.of();
+            }
+            if ((candidates != null && !candidates.contains(id)) || excluded.contains(id)) {
+                continue;
+            }
+            if (residual != null) {
+                BrowserProfile profile = profilesById.get(id);
+                if (profile == null || !residual.test(profile)) {
+                    continue;
+                }
+            }
+            result.add(id);
+        }
+        if (ranked == null) {
+            result.sort(Comparator.comparingInt(this::indexOf));
+        }
+        return result;
+    }
+
+    /**
+     * 按指定列的顺序返回配置，顺序直接取自排序索引而无需逐一比较；filter 作用于配置ID，为 null 时返回全部配置
+     */
+    public List<BrowserProfile> getSortedProfiles(ProfileSortIndex.SortKey key, boolean ascending, Predicate<String> filter) {
+        List<BrowserProfile> result = new ArrayList<>();
+        for (String id : sortIndex.ordered(key, ascending)) {
+            if (filter == null || filter.test(id)) {
+                BrowserProfile profile = profilesById.get(id);
+                if (profile != null) {
+                    result.add(profile);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 配置的运行状态或最近使用时间被就地修改后调用，使排序索引与搜索结果的最近使用排序反映新的取值；不触发保存。
+     * 文本未变时全文与三元组索引只替换文档，不改动倒排表
+     */
+    public void touch(BrowserProfile profile) {
+        if (profile != null && profilesById.get(profile.getId()) == profile) {
+            sortIndex.update(profile);
+            searchIndex.update(profile);
+            trigramIndex.update(profile);
         }
     }
 
+    /**
+     * 浏览器启动或退出后调用（须在 JavaFX 线程调用）：按ID取列表中当前的配置对象，设置其运行状态并刷新索引。
+     * 运行中的配置可能已被外部同步、导入合并或批量修改替换为新对象，启动时的对象不再在列表中，状态以ID为准。
+     * 启动时更新的最近使用时间交由写线程保存，重启后增量导出等依赖该时间的功能仍能看到这次使用
+     *
+     * @param launched 启动或退出的配置对象
+     * @return 列表中当前的配置对象，配置已删除时返回 null
+     */
+    public BrowserProfile updateRunningState(BrowserProfile launched, boolean running) {
+        BrowserProfile current = getProfile(launched.getId());
+        if (current == null) {
+            return null;
+        }
+        current.setActive(running);
+        if (current != launched && launched.getLastUsed() != null
+                && (current.getLastUsed() == null || launched.getLastUsed().isAfter(current.getLastUsed()))) {
+            current.setLastUsed(launched.getLastUsed());
+        }
+        touch(current);
+        if (running) {
+            // 先登记再标记：写线程写入前清除登记，顺序相反时登记可能残留
+            unsavedIds.add(current.getId());
+            persister.markDirty(current);
+        }
+        return current;
+    }
+
+    /**
+     * 获取属性的所有取值及各自的配置数量，按值排序
+     */
+    public Map<String, Integer> getAttributeValues(ProfileAttributeIndex.Attribute attribute) {
+        return attributeIndex.values(attribute);
+    }
+
     /**
      * 获取指定配置文件
      */
     public BrowserProfile getProfile(String profileId) {
-        Optional<BrowserProfile> profile = profiles.stream()
-                .filter(p -> p.getId().equals(profileId))
-                .findFirst();
-        return profile.orElse(null);
+        return profileId == null ? null : profilesById.get(profileId);
+    }
+
+    /**
+     * 确保配置已读取完整记录
+     * 启动快照恢复的占位配置只含列表字段，打开、编辑、启动或导出前需调用；已完整时直接返回
+     */
+    public BrowserProfile ensureLoaded(BrowserProfile profile) {
+        if (profile != null && stubIds.contains(profile.getId())) {
+            ProfileStore store = awaitStore();
+            if (store != null) {
+                hydrate(store, profile);
+            }
+        }
+        return profile;
+    }
+
+    /**
+     * 判断配置是否已读取完整记录
+     */
+    public boolean isFullyLoaded(String profileId) {
+        return !stubIds.contains(profileId);
     }
 
     /**
-     * 保存单个配置文件
+     * 从存储读取完整记录，将快照中没有的字段补入占位对象；对象本身保持不变，列表与选中状态不受影响
+     *
+     * @return 配置已完整时返回 true
      */
-    private void saveProfile(BrowserProfile profile) {
+    private boolean hydrate(ProfileStore store, BrowserProfile profile) {
+        synchronized (profile) {
+            if (!stubIds.contains(profile.getId())) {
+                return true;
+            }
+            try {
+                BrowserProfile full = store.read(profile.getId());
+                if (full != null) {
+                    profile.setWebRTCSettings(full.getWebRTCSettings());
+                    profile.setCanvasFingerprint(full.getCanvasFingerprint());
+                    profile.setFontFingerprint(full.getFontFingerprint());
+                    profile.adoptState(full);
+                    profile.setProxyConfiguration(full.getProxyConfiguration());
+                }
+                stubIds.remove(profile.getId());
+                return true;
+            } catch (IOException e) {
+                log.error("Failed to load full profile record for ID: {}", profile.getId(), e);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 判断指定ID的配置文件是否存在
+     */
+    public boolean containsProfile(String profileId) {
+        return profileId != null && profilesById.containsKey(profileId);
+    }
+
+    /**
+     * 获取指定配置文件在列表中的位置，不存在时返回 -1
+     */
+    public int indexOf(String profileId) {
+        if (profileId == null) {
+            return -1;
+        }
+        Integer index = positionsById.get(profileId);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * 根据列表变更增量维护ID索引、属性索引、全文索引、三元组索引与排序索引。
+     * 位置下标在整批变更之后只重建一次：原位替换与重排只重建变更范围，增删会使其后的配置移位，重建到列表末尾
+     */
+    private void syncIndex(ListChangeListener.Change<? extends BrowserProfile> change) {
+        int reindexFrom = Integer.MAX_VALUE;
+        int reindexTo = 0;
+        while (change.next()) {
+            if (change.wasRemoved()) {
+                // 被替换的配置直接由下面的新对象覆盖，避免其他线程在整体替换期间短暂查不到
+                Set<String> readded = new HashSet<>();
+                if (change.wasAdded()) {
+                    for (BrowserProfile added : change.getAddedSubList()) {
+                        readded.add(added.getId());
+                    }
+                }
+                for (BrowserProfile removed : change.getRemoved()) {
+                    if (!readded.contains(removed.getId()) && profilesById.remove(removed.getId(), removed)) {
+                        positionsById.remove(removed.getId());
+                        attributeIndex.remove(removed.getId());
+                        searchIndex.remove(removed.getId());
+                        trigramIndex.remove(removed.getId());
+                        sortIndex.remove(removed.getId());
+                    }
+                    dedupIndex.invalidate(removed.getId());
+                }
+            }
+            if (change.wasAdded()) {
+                for (BrowserProfile added : change.getAddedSubList()) {
+                    profilesById.put(added.getId(), added);
+                    attributeIndex.update(added);
+                    searchIndex.update(added);
+                    trigramIndex.update(added);
+                    sortIndex.update(added);
+                    dedupIndex.invalidate(added.getId());
+                }
+            }
+            reindexFrom = Math.min(reindexFrom, change.getFrom());
+            boolean inPlace = change.wasPermutated() || change.getAddedSize() == change.getRemovedSize();
+            reindexTo = Math.max(reindexTo, inPlace ? change.getTo() : Integer.MAX_VALUE);
+        }
+        for (int i = reindexFrom, end = Math.min(reindexTo, profiles.size()); i < end; i++) {
+            positionsById.put(profiles.get(i).getId(), i);
+        }
+    }
+
+    private ProfileStore awaitStore() {
         try {
-            String filePath = profilesDirectory + File.separator + profile.getId() + ".json";
-            objectMapper.writeValue(new File(filePath), profile);
-        } catch (IOException e) {
-            log.error("Failed to save profile '{}' (ID: {})", profile.getName(), profile.getId(), e);
+            return storeFuture.join();
+        } catch (CompletionException e) {
+            return null;
         }
     }
 
     /**
      * 保存所有配置文件
+     * 仅写入有未保存修改的配置，并阻塞直至落盘完成
+     *
+     * @return 是否全部写入成功；失败的修改会在后台重试
      */
-    public void saveAllProfiles() {
-        for (BrowserProfile profile : profiles) {
-            saveProfile(profile);
-        }
+    public boolean saveAllProfiles() {
+        return persister.flush();
+    }
+
+    /**
+     * 等待所有待写入的修改落盘
+     *
+     * @return 是否全部写入成功；失败的修改会在后台重试
+     */
+    public boolean flush() {
+        return persister.flush();
     }
 
     /**
      * 加载所有配置文件
+     * 在后台虚拟线程上打开存储并并行读取与解析，结果分批加入列表
      */
     private void loadProfiles() {
-        profiles.clear();
-
-        try (var stream = Files.list(Paths.get(profilesDirectory))) {
-            stream.filter(path -> path.toString().endsWith(".json"))
-                  .forEach(path -> {
-                      try {
-                          BrowserProfile profile = objectMapper.readValue(path.toFile(), BrowserProfile.class);
-                          profiles.add(profile);
-                      } catch (IOException e) {
-                          log.error("Failed to load profile from file: {}", path, e);
-                      }
-                  });
+        loaderThread = Thread.ofVirtual().name("profile-loader").start(() -> {
+            ProfileStore store;
+            try {
+                store = openStore();
+                storeFuture.complete(store);
+            } catch (IOException | RuntimeException e) {
+                log.error("Failed to open profile store in: {}", profilesDirectory, e);
+                storeFuture.completeExceptionally(e);
+                loadFuture.completeExceptionally(e);
+                return;
+            }
+            if (store instanceof JsonFileProfileStore jsonStore) {
+                // 在读取版本戳之前注册，加载期间发生的变化在开始监听后一并处理
+                watcher = createWatcher(jsonStore);
+            }
+
+            Map<String, Long> stamps = Map.of();
+            try {
+                stamps = store.readStamps();
+            } catch (IOException e) {
+                log.error("Failed to load profiles from directory: {}", profilesDirectory, e);
+            }
+            knownStamps.putAll(stamps);
+
+            // 版本戳与存储一致的快照条目直接作为占位配置显示，其余配置完整读取
+            List<BrowserProfile> stubs = new ArrayList<>();
+            for (ProfileSnapshot.Entry entry : ProfileSnapshot.read(snapshotPath(), store.getBackend(), store.getCodec()).values()) {
+                Long stamp = stamps.get(entry.profile().getId());
+                if (stamp != null && stamp == entry.stamp()) {
+                    String id = entry.profile().getId();
+                    entry.profile().setStateLoader(() -> store.readState(id));
+                    stubs.add(entry.profile());
+                    stubIds.add(id);
+                }
+            }
+            List<String> ids = stamps.keySet().stream().filter(id -> !stubIds.contains(id)).toList();
+            int restored = stubs.size();
+            int total = restored + ids.size();
+            if (restored > 0) {
+                log.info("Restored {} of {} profile(s) from snapshot", restored, total);
+                FxUtil.runOnFxThread(() -> {
+                    profiles.addAll(stubs);
+                    notifyLoadProgress(restored, total);
+                });
+            }
+
+            ParallelProfileLoader<String> loader = new ParallelProfileLoader<>(store::read);
+            try {
+                int count = loader.load(ids, (batch, processed, batchTotal) -> FxUtil.runOnFxThread(() -> {
+                    profiles.addAll(batch);
+                    notifyLoadProgress(restored + processed, total);
+                }));
+                FxUtil.runOnFxThread(() -> loadFuture.complete(restored + count));
+                // 预先建立各列的排序索引，之后点击列头排序无需等待
+                sortIndex.prepare();
+
+                // 加载中发现旧格式记录时（刚切换过编码格式），在后台转换为当前格式
+                if (store.needsConversion()) {
+                    store.convertFormat();
+                    synchronized (stampLock) {
+                        knownStamps.putAll(store.readStamps());
+                    }
+                }
+                // 上次的布局迁移未完成时继续迁移
+                if (store instanceof JsonFileProfileStore jsonStore && jsonStore.needsLayoutMigration()
+                        && !Thread.currentThread().isInterrupted()) {
+                    jsonStore.migrateLayout(null);
+                }
+                ProfileDirectoryWatcher directoryWatcher = watcher;
+                if (directoryWatcher != null && !Thread.currentThread().isInterrupted()) {
+                    directoryWatcher.start();
+                }
+            } catch (IOException e) {
+                log.error("Failed to convert profiles to {} format", store.getCodec(), e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                loadFuture.completeExceptionally(e);
+            } catch (RuntimeException e) {
+                log.error("Failed to load profiles from directory: {}", profilesDirectory, e);
+                loadFuture.completeExceptionally(e);
+            }
+        });
+    }
+
+    private ProfileDirectoryWatcher createWatcher(JsonFileProfileStore store) {
+        try {
+            return store.watch(new ProfileDirectoryWatcher.ChangeListener() {
+                @Override
+                public void onChanged(Set<String> profileIds) {
+                    applyExternalChanges(store, profileIds);
+                }
+
+                @Override
+                public void onOverflow() {
+                    try {
+                        Set<String> profileIds = new HashSet<>(store.readStamps().keySet());
+                        profileIds.addAll(knownStamps.keySet());
+                        applyExternalChanges(store, profileIds);
+                    } catch (IOException e) {
+                        log.error("Failed to rescan profiles directory: {}", profilesDirectory, e);
+                    }
+                }
+            });
         } catch (IOException e) {
-            log.error("Failed to load profiles from directory: {}", profilesDirectory, e);
+            log.warn("Failed to watch profiles directory, external changes will be picked up on restart: {}", profilesDirectory, e);
+            return null;
         }
     }
 
     /**
-     * 导入配置文件
+     * 配置在内存中是否有尚未写入存储的修改：等待写入的修改，或写入前在内存中就地更新的字段（如启动时的最近使用时间）
      */
-    public List<BrowserProfile> importProfiles(File file) {
-        List<BrowserProfile> importedProfiles = new ArrayList<>();
+    private boolean hasLocalChange(String profileId) {
+        return persister.hasPendingChange(profileId) || unsavedIds.contains(profileId);
+    }
 
+    /**
+     * 将配置目录的外部变化应用到列表与索引
+     * 只读取版本戳与已知不同的文件；有未保存本地修改的配置以本地为准，其修改稍后会覆盖磁盘上的文件
+     */
+    private void applyExternalChanges(JsonFileProfileStore store, Collection<String> profileIds) {
+        List<BrowserProfile> changed = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        synchronized (stampLock) {
+            for (String id : profileIds) {
+                if (hasLocalChange(id)) {
+                    continue;
+                }
+                try {
+                    Long stamp = store.readStamp(id);
+                    if (Objects.equals(stamp, knownStamps.get(id))) {
+                        continue;
+                    }
+                    BrowserProfile profile = stamp == null ? null : store.read(id);
+                    if (profile == null) {
+                        knownStamps.remove(id);
+                        removed.add(id);
+                    } else {
+                        knownStamps.put(id, stamp);
+                        changed.add(profile);
+                    }
+                } catch (IOException e) {
+                    // 文件可能仍在写入中，写完后的下一个事件会再次触发读取
+                    log.warn("Failed to read changed profile file for ID: {}: {}", id, e.toString());
+                }
+            }
+        }
+        if (changed.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+
+        log.info("Applying external profile changes: {} updated, {} removed", changed.size(), removed.size());
+        FxUtil.runOnFxThread(() -> {
+            // 合并为一次列表变更，位置索引只重建一次
+            Set<String> removals = new HashSet<>();
+            for (String id : removed) {
+                if (!hasLocalChange(id) && removals.add(id)) {
+                    stubIds.remove(id);
+                }
+            }
+            Map<String, BrowserProfile> replacements = new LinkedHashMap<>();
+            for (BrowserProfile profile : changed) {
+                String id = profile.getId();
+                if (!hasLocalChange(id)) {
+                    stubIds.remove(id);
+                    replacements.put(id, profile);
+                }
+            }
+            applyChanges(replacements, removals);
+        });
+    }
+
+    /**
+     * 记录本程序刚写入的文件的版本戳，使其引起的目录事件被识别为未变化
+     */
+    private void recordStamps(ProfileStore store, Collection<BrowserProfile> written) {
+        if (store instanceof JsonFileProfileStore jsonStore) {
+            for (BrowserProfile profile : written) {
+                try {
+                    Long stamp = jsonStore.readStamp(profile.getId());
+                    if (stamp != null) {
+                        knownStamps.put(profile.getId(), stamp);
+                    } else {
+                        knownStamps.remove(profile.getId());
+                    }
+                } catch (IOException e) {
+                    knownStamps.remove(profile.getId());
+                }
+            }
+            return;
+        }
+        // 其他后端的版本戳来自内存中的索引，整体读取一次
         try {
-            if (file.isDirectory()) {
-                // 导入目录中的所有.json文件
-                try (var stream = Files.list(file.toPath())) {
-                    stream.filter(path -> path.toString().endsWith(".json"))
-                          .forEach(path -> {
-                              try {
-                                  BrowserProfile profile = objectMapper.readValue(path.toFile(), BrowserProfile.class);
-                                  profiles.add(profile);
-                                  importedProfiles.add(profile);
-                                  saveProfile(profile);
-                              } catch (IOException e) {
-                                  log.error("Failed to import profile from file: {}", path, e);
-                              }
-                          });
+            Map<String, Long> stamps = store.readStamps();
+            for (BrowserProfile profile : written) {
+                Long stamp = stamps.get(profile.getId());
+                if (stamp != null) {
+                    knownStamps.put(profile.getId(), stamp);
+                } else {
+                    knownStamps.remove(profile.getId());
                 }
-            } else {
-                // 导入单个文件
-                BrowserProfile profile = objectMapper.readValue(file, BrowserProfile.class);
-                profiles.add(profile);
-                importedProfiles.add(profile);
-                saveProfile(profile);
             }
         } catch (IOException e) {
-            log.error("Failed to import profile(s) from: {}", file.getPath(), e);
+            written.forEach(profile -> knownStamps.remove(profile.getId()));
         }
+    }
 
-        return importedProfiles;
+    private Path snapshotPath() {
+        return Paths.get(profilesDirectory, ProfileSnapshot.FILE_NAME);
+    }
+
+    /**
+     * 打开偏好设置中选择的存储后端；其他后端仍有数据时（刚切换过后端）先一次性迁移过来
+     */
+    private ProfileStore openStore() throws IOException {
+        Path directory = Paths.get(profilesDirectory);
+        BooleanSupplier durable = () -> AppPreferences.getNode().getBoolean(AppPreferences.DURABLE_WRITES_KEY, true);
+        ProfileStore.Backend backend = ProfileStore.Backend.fromName(
+                AppPreferences.getNode().get(AppPreferences.STORAGE_BACKEND_KEY, ProfileStore.Backend.JSON.name()));
+        ProfileCodec codec = ProfileCodec.fromName(
+                AppPreferences.getNode().get(AppPreferences.STORAGE_CODEC_KEY, ProfileCodec.PRETTY_JSON.name()));
+        DirectoryLayout layout = DirectoryLayout.current();
+        ProfileStore store = ProfileStore.open(backend, directory, codec, durable, layout);
+
+        for (ProfileStore.Backend other : ProfileStore.Backend.values()) {
+            if (other == backend || !ProfileStore.hasData(other, directory)) {
+                continue;
+            }
+            ProfileStore source = ProfileStore.open(other, directory, codec, durable, layout);
+            try {
+                new ProfileStoreMigrator(source, store).migrate(null);
+                source.close();
+            } catch (IOException e) {
+                // 迁移失败时源数据保持不变，本次继续使用原后端
+                log.error("Failed to migrate profiles from {} to {} store, keeping {} store", other, backend, other, e);
+                store.close();
+                return source;
+            }
+        }
+        return store;
+    }
+
+    /**
+     * 切换配置文件的目录布局并在调用线程上迁移现有文件，迁移期间配置可正常读写
+     * 仅对 JSON 文件后端有效，其他后端直接返回 0
+     *
+     * @return 移动的文件数量
+     */
+    public int changeLayout(DirectoryLayout layout, ProfileStoreMigrator.ProgressListener listener) throws IOException {
+        ProfileStore store = awaitStore();
+        if (!(store instanceof JsonFileProfileStore jsonStore)) {
+            return 0;
+        }
+        jsonStore.setLayout(layout);
+        return jsonStore.migrateLayout(listener);
+    }
+
+    private void notifyLoadProgress(int processed, int total) {
+        for (LoadProgressListener listener : loadProgressListeners) {
+            try {
+                listener.onProgress(processed, total);
+            } catch (Exception e) {
+                log.error("Error notifying load progress listener", e);
+            }
+        }
+    }
+
+    /**
+     * 导入配置：支持单个 JSON 文件、目录、ZIP 压缩包及每行一条记录的 NDJSON 文件
+     * 在调用线程上执行，解析并行进行，结果分批加入列表并合并保存；ID 已存在的配置被替换，
+     * 内容与现有配置（或本次已导入的配置）相同的记录按 policy 跳过、合并或重命名。
+     * 调用线程被中断时停止导入，已加入的配置保留
+     *
+     * @param listener 进度回调（在调用线程上执行），可为 null
+     */
+    public ProfileImporter.Result importProfiles(File source, ProfileDedupIndex.DuplicatePolicy policy,
+                                                 ProfileImporter.ProgressListener listener) throws IOException {
+        try {
+            dedupIndex.refresh(profilesById.keySet(), this::readForIndex);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ProfileImporter.Result(0, 0, 0, true);
+        }
+        // 本次导入已接受但可能尚未加入列表的配置
+        Map<String, BrowserProfile> imported = new HashMap<>();
+        return new ProfileImporter(importReader).importFrom(source.toPath(), batch -> {
+            try {
+                dedupIndex.refresh(profilesById.keySet(), this::readForIndex);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            List<BrowserProfile> accepted = new ArrayList<>(batch.size());
+            for (BrowserProfile profile : batch) {
+                BrowserProfile result = deduplicate(profile, policy, imported);
+                if (result != null) {
+                    accepted.add(result);
+                    imported.put(result.getId(), result);
+                }
+            }
+            persister.markDirty(accepted);
+            FxUtil.runOnFxThread(() -> addOrReplace(accepted));
+            return accepted.size();
+        }, listener);
+    }
+
+    /**
+     * 按内容指纹处理一条导入记录
+     *
+     * @return 应加入或替换到列表中的配置，跳过时返回 null
+     */
+    private BrowserProfile deduplicate(BrowserProfile profile, ProfileDedupIndex.DuplicatePolicy policy,
+                                       Map<String, BrowserProfile> imported) {
+        ProfileDedupIndex.Fingerprint fingerprint = ProfileDedupIndex.Fingerprint.of(profile);
+        if (containsProfile(profile.getId()) || imported.containsKey(profile.getId())) {
+            // ID 相同视为同一配置的新版本，照常替换
+            dedupIndex.put(profile.getId(), fingerprint);
+            return profile;
+        }
+        String duplicateId = dedupIndex.find(fingerprint);
+        BrowserProfile duplicate = duplicateId == null ? null : imported.getOrDefault(duplicateId, getProfile(duplicateId));
+        if (duplicate == null) {
+            dedupIndex.put(profile.getId(), fingerprint);
+            return profile;
+        }
+
+        switch (policy) {
+            case MERGE -> {
+                BrowserProfile merged = ProfileDedupIndex.merge(ensureLoaded(duplicate), profile);
+                log.debug("Merged imported profile '{}' into existing profile {}", profile.getName(), duplicateId);
+                return merged;
+            }
+            case RENAME -> {
+                String baseName = profile.getName();
+                for (int n = 2; dedupIndex.find(fingerprint) != null; n++) {
+                    profile.setName(baseName + " (" + n + ")");
+                    fingerprint = ProfileDedupIndex.Fingerprint.of(profile);
+                }
+                dedupIndex.put(profile.getId(), fingerprint);
+                return profile;
+            }
+            default -> {
+                log.debug("Skipped imported profile '{}', same content as profile {}", profile.getName(), duplicateId);
+                return null;
+            }
+        }
+    }
+
+    /**
+     * 读取用于计算内容指纹的完整记录；占位配置直接从存储读取，不补全内存中的对象
+     */
+    private BrowserProfile readForIndex(String profileId) throws IOException {
+        BrowserProfile profile = profilesById.get(profileId);
+        if (profile == null || !stubIds.contains(profileId)) {
+            return profile;
+        }
+        ProfileStore store = awaitStore();
+        return store == null ? null : store.read(profileId);
+    }
+
+    /**
+     * 一次列表变更加入一批配置，ID 已存在的就地替换
+     */
+    private void addOrReplace(List<BrowserProfile> batch) {
+        Map<String, BrowserProfile> replacements = new LinkedHashMap<>();
+        for (BrowserProfile profile : batch) {
+            stubIds.remove(profile.getId());
+            replacements.put(profile.getId(), profile);
+        }
+        applyChanges(replacements, Set.of());
+    }
+
+    /**
+     * 以一次列表变更应用一批替换、新增与删除（须在 JavaFX 线程调用）
+     * 只有新增时追加到末尾，否则重建列表后整体 setAll；被替换的配置沿用原对象的运行状态
+     *
+     * @param replacements 按ID替换的配置，ID 不在列表中的追加到末尾
+     * @param removals     要移除的配置ID
+     */
+    private void applyChanges(Map<String, BrowserProfile> replacements, Set<String> removals) {
+        List<BrowserProfile> appended = new ArrayList<>();
+        boolean rebuild = false;
+        for (BrowserProfile profile : replacements.values()) {
+            if (containsProfile(profile.getId())) {
+                rebuild = true;
+            } else {
+                appended.add(profile);
+            }
+        }
+        for (String id : removals) {
+            rebuild |= containsProfile(id);
+        }
+        if (!rebuild) {
+            profiles.addAll(appended);
+            return;
+        }
+
+        List<BrowserProfile> next = new ArrayList<>(profiles.size() + appended.size());
+        for (BrowserProfile current : profiles) {
+            String id = current.getId();
+            if (removals.contains(id)) {
+                continue;
+            }
+            BrowserProfile replacement = replacements.get(id);
+            if (replacement == null) {
+                next.add(current);
+            } else {
+                if (replacement != current) {
+                    replacement.setActive(current.isActive());
+                }
+                next.add(replacement);
+            }
+        }
+        next.addAll(appended);
+        profiles.setAll(next);
     }
 
     /**
      * 导出配置文件
      */
     public boolean exportProfile(BrowserProfile profile, File destination) {
+        ensureLoaded(profile);
         try {
-            objectMapper.writeValue(destination, profile);
+            exportWriter.writeValue(destination, profile);
             return true;
         } catch (IOException e) {
             log.error("Failed to export profile '{}' to: {}", profile.getName(), destination.getPath(), e);
@@ -190,21 +1119,37 @@ public class ProfileManagerService {
     }
 
     /**
-     * 导出所有配置文件
+     * 将配置导出为单个 ZIP 压缩包或 NDJSON 文件
+     * 导出前先写入尚未保存的修改；未读取完整记录的配置直接从存储读取，不会常驻内存
+     *
+     * @param changedSince 不为 null 时只导出此后使用过或在存储中被修改过的配置
      */
-    public boolean exportAllProfiles(File directory) {
-        if (!directory.isDirectory()) {
-            return false;
+    public ProfileExporter.Result exportAll(File destination, ProfileExporter.Format format, LocalDateTime changedSince,
+                                            ProfileExporter.ProgressListener listener) throws IOException {
+        ProfileStore store = awaitStore();
+        if (store == null) {
+            throw new IOException("Profile store is unavailable");
         }
+        persister.flush();
 
-        boolean success = true;
-        for (BrowserProfile profile : profiles) {
-            String safeName = profile.getName().replaceAll("[\\\\/:*?\"<>|]", "_");
-            File destination = new File(directory, safeName + "_" + profile.getId() + ".json");
-            success &= exportProfile(profile, destination);
+        List<BrowserProfile> selected = new ArrayList<>(profiles);
+        if (changedSince != null) {
+            Instant since = changedSince.atZone(ZoneId.systemDefault()).toInstant();
+            Map<String, Instant> modifiedTimes = store.readModifiedTimes();
+            selected.removeIf(profile -> {
+                Instant modified = modifiedTimes.get(profile.getId());
+                boolean used = profile.getLastUsed() != null && profile.getLastUsed().isAfter(changedSince);
+                return !used && (modified == null || !modified.isAfter(since));
+            });
         }
 
-        return success;
+        return new ProfileExporter(format).exportTo(selected, destination.toPath(), profile -> {
+            if (stubIds.contains(profile.getId())) {
+                BrowserProfile full = store.read(profile.getId());
+                return full != null ? full : profile;
+            }
+            return profile;
+        }, listener);
     }
 
     private void createDirectoryIfNotExists(String dirPath) {
@@ -225,4 +1170,70 @@ public class ProfileManagerService {
     public List<BrowserProfile> getAllProfiles() {
         return new ArrayList<>(profiles);
     }
+
+    /**
+     * 在正常退出时写入启动快照；加载尚未完成时跳过，避免快照只含部分配置。
+     * 只收录内存中的值与存储一致的配置：没有未写入或写入失败的修改、没有未保存的改动，
+     * 且存储中的版本戳仍是本程序最近一次读取或成功写入时的版本戳。其余配置下次启动时完整读取
+     */
+    private void writeSnapshot(ProfileStore store) {
+        if (!loadFuture.isDone() || loadFuture.isCompletedExceptionally()) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            List<BrowserProfile> snapshot = new ArrayList<>(profiles);
+            Map<String, Long> stamps = store.readStamps();
+            Map<String, Long> validated = new HashMap<>(stamps.size() * 2);
+            for (BrowserProfile profile : snapshot) {
+                String id = profile.getId();
+                Long stamp = stamps.get(id);
+                if (stamp != null && stamp.equals(knownStamps.get(id)) && !hasLocalChange(id)) {
+                    validated.put(id, stamp);
+                }
+            }
+            ProfileCodec codec = store.needsConversion() ? null : store.getCodec();
+            ProfileSnapshot.write(snapshotPath(), store.getBackend(), codec, snapshot, validated);
+            log.info("Wrote profile snapshot with {} of {} entries in {} ms", validated.size(), snapshot.size(),
+                    System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            log.warn("Failed to write profile snapshot", e);
+        }
+    }
+
+    /**
+     * 停止仍在进行的加载或格式转换，转换可在下次启动时继续
+     */
+    private void stopLoader() {
+        Thread thread = loaderThread;
+        if (thread == null || !thread.isAlive() || !storeFuture.isDone()) {
+            return;
+        }
+        thread.interrupt();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        log.info("Flushing pending profile changes...");
+        stopLoader();
+        ProfileDirectoryWatcher directoryWatcher = watcher;
+        if (directoryWatcher != null) {
+            directoryWatcher.close();
+        }
+        // 关闭时最后一次写入；仍未写入的修改不会进入快照
+        persister.close();
+        if (persister.getPendingCount() > 0) {
+            log.warn("{} profile change(s) are still unsaved, they are excluded from the snapshot", persister.getPendingCount());
+        }
+        ProfileStore store = awaitStore();
+        if (store != null) {
+            writeSnapshot(store);
+            store.close();
+        }
+    }
 }
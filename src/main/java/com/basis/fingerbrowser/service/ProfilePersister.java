@@ -0,0 +1,287 @@
+package com.basis.fingerbrowser.service;
+
+import com.basis.fingerbrowser.model.BrowserProfile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 配置文件异步持久化器（write-behind）
+ * 记录待写入/待删除的配置，同一配置的多次修改合并为一次写入，
+ * 由专用写线程批量落盘，调用方（通常是 JavaFX 线程）不再阻塞于磁盘 IO。
+ * 写入或删除失败的配置重新放回待处理队列（期间已有更新的变更时以新变更为准），按指数退避重试
+ */
+public class ProfilePersister implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ProfilePersister.class);
+
+    // 合并窗口：首次标记后等待该时间再批量写入，吸收突发的连续修改
+    private static final long FLUSH_DELAY_MILLIS = 200;
+    private static final int SHUTDOWN_TIMEOUT_SECONDS = 30;
+    // 失败后的重试间隔从合并窗口开始逐次加倍，不超过该上限
+    private static final long MAX_RETRY_DELAY_MILLIS = 30_000;
+
+    /**
+     * 实际执行批量写入与删除的存储端
+     */
+    public interface ProfileWriter {
+        /**
+         * 写入一批配置
+         *
+         * @return 未能写入的配置ID，全部写入时为空集合
+         * @throws IOException 整批写入失败
+         */
+        Collection<String> write(Collection<BrowserProfile> profiles) throws IOException;
+
+        /**
+         * 删除一批配置
+         *
+         * @throws IOException 删除失败，整批重试
+         */
+        void delete(Collection<String> profileIds) throws IOException;
+    }
+
+    private final ProfileWriter writer;
+    private final Map<String, BrowserProfile> dirtyProfiles = new ConcurrentHashMap<>();
+    private final Set<String> deletedProfileIds = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final AtomicBoolean isShutdown = new AtomicBoolean(false);
+    // 下一次失败后的重试间隔，成功写入后复位；只在写线程（drain）内访问
+    private long retryDelayMillis = FLUSH_DELAY_MILLIS;
+    private final ScheduledThreadPoolExecutor writerExecutor = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread thread = new Thread(r, "profile-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ProfilePersister(ProfileWriter writer) {
+        this.writer = writer;
+        // 关闭时不等待尚未到期的重试，剩余变更由 close() 在当前线程写入
+        writerExecutor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    /**
+     * 标记配置文件需要保存
+     */
+    public void markDirty(BrowserProfile profile) {
+        deletedProfileIds.remove(profile.getId());
+        dirtyProfiles.put(profile.getId(), profile);
+        scheduleFlush();
+    }
+
+    /**
+     * 批量标记配置文件需要保存
+     */
+    public void markDirty(Collection<BrowserProfile> profiles) {
+        for (BrowserProfile profile : profiles) {
+            deletedProfileIds.remove(profile.getId());
+            dirtyProfiles.put(profile.getId(), profile);
+        }
+        scheduleFlush();
+    }
+
+    /**
+     * 标记配置文件需要删除，同时丢弃其尚未写入的修改
+     */
+    public void markDeleted(String profileId) {
+        dirtyProfiles.remove(profileId);
+        deletedProfileIds.add(profileId);
+        scheduleFlush();
+    }
+
+    /**
+     * 批量标记配置文件需要删除
+     */
+    public void markDeleted(Collection<String> profileIds) {
+        for (String profileId : profileIds) {
+            dirtyProfiles.remove(profileId);
+            deletedProfileIds.add(profileId);
+        }
+        scheduleFlush();
+    }
+
+    /**
+     * 判断指定配置是否有尚未交给存储端的修改或删除
+     */
+    public boolean hasPendingChange(String profileId) {
+        return dirtyProfiles.containsKey(profileId) || deletedProfileIds.contains(profileId);
+    }
+
+    /**
+     * 获取尚未落盘的变更数量
+     */
+    public int getPendingCount() {
+        return dirtyProfiles.size() + deletedProfileIds.size();
+    }
+
+    /**
+     * 立即写入所有待处理的变更，并阻塞直至完成
+     *
+     * @return 本次写入是否全部成功；失败的变更仍留在队列中等待重试
+     */
+    public boolean flush() {
+        if (isShutdown.get()) {
+            return getPendingCount() == 0;
+        }
+        try {
+            return writerExecutor.submit(this::drain).get();
+        } catch (RejectedExecutionException e) {
+            log.warn("Profile writer is shut down, flushing on caller thread");
+            return drain();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while flushing pending profile changes");
+            return false;
+        } catch (ExecutionException e) {
+            log.error("Failed to flush pending profile changes", e.getCause());
+            return false;
+        }
+    }
+
+    private void scheduleFlush() {
+        if (isShutdown.get()) {
+            drain();
+            return;
+        }
+        if (flushScheduled.compareAndSet(false, true)) {
+            try {
+                writerExecutor.schedule(this::drain, FLUSH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                flushScheduled.set(false);
+                drain();
+            }
+        }
+    }
+
+    /**
+     * 失败后按当前退避间隔安排重试；已有待执行的写入时无需另行安排
+     */
+    private void scheduleRetry() {
+        long delay = retryDelayMillis;
+        retryDelayMillis = Math.min(retryDelayMillis * 2, MAX_RETRY_DELAY_MILLIS);
+        if (isShutdown.get() || !flushScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            writerExecutor.schedule(this::drain, delay, TimeUnit.MILLISECONDS);
+            log.info("Retrying {} pending profile change(s) in {} ms", getPendingCount(), delay);
+        } catch (RejectedExecutionException e) {
+            flushScheduled.set(false);
+        }
+    }
+
+    /**
+     * 取出当前所有待处理变更并交给存储端，一次遍历完成整批写入；失败的变更放回队列并安排重试
+     *
+     * @return 是否全部成功
+     */
+    private synchronized boolean drain() {
+        flushScheduled.set(false);
+
+        List<BrowserProfile> toWrite = new ArrayList<>(dirtyProfiles.size());
+        for (String id : dirtyProfiles.keySet()) {
+            BrowserProfile profile = dirtyProfiles.remove(id);
+            if (profile != null) {
+                toWrite.add(profile);
+            }
+        }
+        List<String> toDelete = new ArrayList<>(deletedProfileIds.size());
+        for (String id : deletedProfileIds) {
+            if (deletedProfileIds.remove(id)) {
+                toDelete.add(id);
+            }
+        }
+
+        boolean succeeded = true;
+        if (!toWrite.isEmpty()) {
+            Collection<String> failedIds;
+            try {
+                failedIds = writer.write(toWrite);
+            } catch (IOException | RuntimeException e) {
+                log.error("Failed to save {} profile(s), will retry", toWrite.size(), e);
+                failedIds = toWrite.stream().map(BrowserProfile::getId).toList();
+            }
+            if (!failedIds.isEmpty()) {
+                succeeded = false;
+                requeueWrites(toWrite, failedIds);
+            }
+        }
+        if (!toDelete.isEmpty()) {
+            try {
+                writer.delete(toDelete);
+            } catch (IOException | RuntimeException e) {
+                log.error("Failed to delete {} profile(s), will retry", toDelete.size(), e);
+                succeeded = false;
+                requeueDeletes(toDelete);
+            }
+        }
+        if (!toWrite.isEmpty() || !toDelete.isEmpty()) {
+            log.debug("Flushed {} profile write(s) and {} delete(s)", toWrite.size(), toDelete.size());
+        }
+
+        if (succeeded) {
+            retryDelayMillis = FLUSH_DELAY_MILLIS;
+        } else {
+            scheduleRetry();
+        }
+        return succeeded;
+    }
+
+    /**
+     * 放回写入失败的配置；期间已被重新标记或标记删除的以新变更为准
+     */
+    private void requeueWrites(List<BrowserProfile> attempted, Collection<String> failedIds) {
+        Set<String> failed = Set.copyOf(failedIds);
+        for (BrowserProfile profile : attempted) {
+            if (failed.contains(profile.getId()) && !deletedProfileIds.contains(profile.getId())) {
+                dirtyProfiles.putIfAbsent(profile.getId(), profile);
+            }
+        }
+    }
+
+    /**
+     * 放回删除失败的配置；期间已被重新保存的以新变更为准
+     */
+    private void requeueDeletes(List<String> profileIds) {
+        for (String profileId : profileIds) {
+            if (!dirtyProfiles.containsKey(profileId)) {
+                deletedProfileIds.add(profileId);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+        if (!isShutdown.compareAndSet(false, true)) {
+            return;
+        }
+
+        writerExecutor.shutdown();
+        try {
+            if (!writerExecutor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Profile writer did not terminate in time, forcing shutdown");
+                writerExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writerExecutor.shutdownNow();
+        }
+        // 关闭期间仍可能有新的标记，在当前线程写完
+        if (!drain()) {
+            log.error("{} profile change(s) could not be saved before shutdown", getPendingCount());
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.basis.fingerbrowser.service;
+
+import com.basis.fingerbrowser.model.BrowserProfile;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * 配置的结构化查询
+ * 查询由空白分隔的条件组成，各条件之间为「且」的关系，条件前加 - 表示取反，含空格的值用双引号括起：
+ * <ul>
+ *     <li>{@code tag:us}、{@code tz:Asia/*}、{@code host:10.0.*}、{@code proxy:socks5}、{@code browser:chrome}
+ *     —— 按属性索引查询，值不区分大小写（时区除外），支持 * 与 ? 通配符；{@code proxy:direct} 表示未使用代理</li>
+ *     <li>{@code name:shop*}、{@code notes:客户} —— 名称或备注包含该值，带通配符时整体匹配</li>
+ *     <li>{@code active:true} —— 浏览器是否正在运行</li>
+ *     <li>{@code lastUsed>30d}、{@code created<2w} —— 距今超过 / 不足指定时长（h、d、w、m、y）；
+ *     值为日期时（{@code lastUsed>2024-01-31}）表示晚于 / 早于该日，{@code lastUsed:2024-01-31} 表示当天</li>
+ *     <li>其余的词 —— 全文搜索</li>
+ * </ul>
+ * 查询编译为执行计划：全文搜索与属性条件先通过索引求出候选集合，其余条件编译为一个谓词只在候选上求值
+ */
+public final class ProfileQuery {
+
+    /**
+     * 查询字段
+     */
+    private enum Field {
+        TAG(ProfileAttributeIndex.Attribute.TAG, "tag", "tags"),
+        TIMEZONE(ProfileAttributeIndex.Attribute.TIMEZONE, "tz", "timezone"),
+        PROXY(ProfileAttributeIndex.Attribute.PROXY_TYPE, "proxy"),
+        HOST(ProfileAttributeIndex.Attribute.PROXY_HOST, "host"),
+        BROWSER(ProfileAttributeIndex.Attribute.UA_FAMILY, "browser", "ua"),
+        NAME(null, "name"),
+        NOTES(null, "notes"),
+        ACTIVE(null, "active", "running"),
+        LAST_USED(null, "lastused", "used"),
+        CREATED(null, "created");
+
+        private final ProfileAttributeIndex.Attribute attribute;
+        private final String[] names;
+
+        Field(ProfileAttributeIndex.Attribute attribute, String... names) {
+            this.attribute = attribute;
+            this.names = names;
+        }
+
+        boolean isTime() {
+            return this == LAST_USED || this == CREATED;
+        }
+
+        static Field fromName(String name) {
+            String lower = name.toLowerCase(Locale.ROOT);
+            for (Field field : values()) {
+                for (String candidate : field.names) {
+                    if (candidate.equals(lower)) {
+                        return field;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 通过属性索引求值的条件
+     *
+     * @param keyFilter 作用于规范化后的索引键
+     */
+    public record IndexCondition(ProfileAttributeIndex.Attribute attribute, String value, Predicate<String> keyFilter,
+                                 boolean negated) {
+
+        /**
+         * 值中没有通配符时可直接按键查询
+         */
+        public boolean isExact() {
+            return !hasWildcard(value);
+        }
+    }
+
+    /**
+     * 执行计划
+     *
+     * @param text            全文搜索的词，没有时为空串
+     * @param excludedText    取反的全文搜索词，命中者被排除
+     * @param indexConditions 通过属性索引求值的条件
+     * @param residual        其余条件编译成的谓词，没有时为 null
+     * @param stateDependent  是否含有运行状态或最近使用时间的条件，浏览器启动或关闭后结果可能变化
+     */
+    public record Plan(String text, List<String> excludedText, List<IndexCondition> indexConditions,
+                       Predicate<BrowserProfile> residual, boolean stateDependent) {}
+
+    private static final Pattern DURATION = Pattern.compile("(\\d+)([hdwmy])");
+
+    private ProfileQuery() {}
+
+    /**
+     * 解析查询并编译为执行计划
+     *
+     * @throws IllegalArgumentException 查询语法错误，消息可直接展示给用户
+     */
+    public static Plan compile(String query) {
+        List<String> text = new ArrayList<>();
+        List<String> excludedText = new ArrayList<>();
+        List<IndexCondition> indexConditions = new ArrayList<>();
+        Predicate<BrowserProfile> residual = null;
+        boolean stateDependent = false;
+
+        for (String token : split(query)) {
+            boolean negated = token.length() > 1 && token.charAt(0) == '-';
+            String term = negated ? token.substring(1) : token;
+
+            int at = indexOfOperator(term);
+            Field field = at > 0 ? Field.fromName(term.substring(0, at)) : null;
+            if (field == null) {
+                // 不是已知字段的条件，按全文搜索词处理
+                (negated ? excludedText : text).add(unquote(term));
+                continue;
+            }
+            char operator = term.charAt(at);
+            String value = unquote(term.substring(at + 1));
+            if (value.isEmpty()) {
+                throw new IllegalArgumentException("条件 " + token + " 缺少取值");
+            }
+            if (operator != ':' && !field.isTime()) {
+                throw new IllegalArgumentException("字段 " + term.substring(0, at) + " 只支持 : 比较");
+            }
+
+            if (field.attribute != null) {
+                String pattern = field == Field.PROXY && value.equalsIgnoreCase("none") ? "direct" : value;
+                indexConditions.add(new IndexCondition(field.attribute, pattern, keyFilter(field.attribute, pattern), negated));
+                continue;
+            }
+            Predicate<BrowserProfile> condition = switch (field) {
+                case NAME -> textCondition(BrowserProfile::getName, value);
+                case NOTES -> textCondition(BrowserProfile::getNotes, value);
+                case ACTIVE -> activeCondition(value);
+                case LAST_USED -> timeCondition(BrowserProfile::getLastUsed, operator, value);
+                case CREATED -> timeCondition(BrowserProfile::getCreatedAt, operator, value);
+                default -> throw new IllegalStateException("Unhandled field " + field);
+            };
+            if (negated) {
+                condition = condition.negate();
+            }
+            stateDependent |= field == Field.ACTIVE || field == Field.LAST_USED;
+            residual = residual == null ? condition : residual.and(condition);
+        }
+        return new Plan(String.join(" ", text), excludedText, indexConditions, residual, stateDependent);
+    }
+
+    /**
+     * 按空白切分，双引号内的空白保留
+     */
+    private static List<String> split(String query) {
+        List<String> tokens = new ArrayList<>();
+        if (query == null) {
+            return tokens;
+        }
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+                current.append(c);
+            } else if (Character.isWhitespace(c) && !quoted) {
+                if (!current.isEmpty()) {
+                    tokens.add(current.toString());
+                    current.setLength(0);
+                }
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("引号未闭合");
+        }
+        if (!current.isEmpty()) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+
+    private static int indexOfOperator(String term) {
+        for (int i = 0; i < term.length(); i++) {
+            char c = term.charAt(i);
+            if (c == '"') {
+                return -1;
+            }
+            if (c == ':' || c == '>' || c == '<') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String unquote(String value) {
+        return value.replace("\"", "").trim();
+    }
+
+    private static Predicate<String> keyFilter(ProfileAttributeIndex.Attribute attribute, String value) {
+        String key = ProfileAttributeIndex.normalize(attribute, value);
+        if (!hasWildcard(value)) {
+            return key::equals;
+        }
+        // 时区的索引键保留大小写，通配时仍不区分大小写
+        Pattern pattern = globPattern(value);
+        return candidate -> pattern.matcher(candidate).matches();
+    }
+
+    private static Predicate<BrowserProfile> textCondition(Function<BrowserProfile, String> getter, String value) {
+        if (hasWildcard(value)) {
+            Pattern pattern = globPattern(value);
+            return profile -> {
+                String text = getter.apply(profile);
+                return text != null && pattern.matcher(text).matches();
+            };
+        }
+        String lower = value.toLowerCase(Locale.ROOT);
+        return profile -> {
+            String text = getter.apply(profile);
+            return text != null && text.toLowerCase(Locale.ROOT).contains(lower);
+        };
+    }
+
+    private static Predicate<BrowserProfile> activeCondition(String value) {
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "true", "yes", "1" -> BrowserProfile::isActive;
+            case "false", "no", "0" -> profile -> !profile.isActive();
+            default -> throw new IllegalArgumentException("active 的取值应为 true 或 false: " + value);
+        };
+    }
+
+    private static Predicate<BrowserProfile> timeCondition(Function<BrowserProfile, LocalDateTime> getter, char operator,
+                                                           String value) {
+        var duration = DURATION.matcher(value.toLowerCase(Locale.ROOT));
+        if (duration.matches()) {
+            if (operator == ':') {
+                throw new IllegalArgumentException("时长条件需使用 > 或 <，例如 lastUsed>30d");
+            }
+            long amount = Long.parseLong(duration.group(1));
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime threshold = switch (duration.group(2)) {
+                case "h" -> now.minusHours(amount);
+                case "d" -> now.minusDays(amount);
+                case "w" -> now.minusWeeks(amount);
+                case "m" -> now.minusMonths(amount);
+                default -> now.minusYears(amount);
+            };
+            // 距今超过指定时长即时间早于阈值；没有记录时间的视为很久以前
+            return operator == '>'
+                    ? profile -> getter.apply(profile) == null || getter.apply(profile).isBefore(threshold)
+                    : profile -> getter.apply(profile) != null && getter.apply(profile).isAfter(threshold);
+        }
+
+        LocalDate date;
+        try {
+            date = LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("无法识别的时间: " + value + "，应为时长（如 30d）或日期（如 2024-01-31）");
+        }
+        LocalDateTime start = date.atStartOfDay();
+        LocalDateTime end = date.plusDays(1).atStartOfDay();
+        return switch (operator) {
+            case '>' -> profile -> getter.apply(profile) != null && !getter.apply(profile).isBefore(end);
+            case '<' -> profile -> getter.apply(profile) != null && getter.apply(profile).isBefore(start);
+            default -> profile -> {
+                LocalDateTime time = getter.apply(profile);
+                return time != null && !time.isBefore(start) && time.isBefore(end);
+            };
+        };
+    }
+
+    private static boolean hasWildcard(String value) {
+        return value.indexOf('*') >= 0 || value.indexOf('?') >= 0;
+    }
+
+    /**
+     * 将通配符转换为不区分大小写的正则表达式
+     */
+    private static Pattern globPattern(String glob) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (char c : glob.toCharArray()) {
+            if (c == '*' || c == '?') {
+                if (!literal.isEmpty()) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '*' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (!literal.isEmpty()) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE | Pattern.DOTALL);
+    }
+}
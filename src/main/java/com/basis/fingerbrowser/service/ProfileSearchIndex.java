@@ -0,0 +1,308 @@
+package com.basis.fingerbrowser.service;
+
+import com.basis.fingerbrowser.model.BrowserProfile;
+import com.basis.fingerbrowser.model.ProxySettings;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 配置列表的全文倒排索引
+ * 对名称、备注、User-Agent、标签与代理服务器分词，维护「词 → 配置」的有序倒排表。
+ * 查询时每个查询词按前缀匹配词典中的词，各查询词的结果求交集，
+ * 按命中字段的权重（名称最高）排序，相关度相同时最近使用的在前。
+ *
+ * <p>拉丁字母与数字按连续片段分词；中日韩文字没有分隔符，对每个位置起的后缀（最长
+ * {@value #MAX_CJK_TOKEN} 个字）建词，前缀匹配即等价于子串匹配。
+ * 每个配置记住上次被索引时的文本，配置对象被就地修改后再次更新时按差异增减倒排项
+ */
+public class ProfileSearchIndex {
+
+    private static final int MAX_CJK_TOKEN = 8;
+    // 倒排表长于此值时，遍历前检查一次搜索是否已取消
+    private static final int CANCEL_CHECK_INTERVAL = 4096;
+
+    // 字段位，同时作为相关度权重
+    private static final int NAME = 16;
+    private static final int TAGS = 8;
+    private static final int PROXY_HOST = 4;
+    private static final int NOTES = 2;
+    private static final int USER_AGENT = 1;
+
+    /**
+     * 被索引的文本字段，与配置对象中的字符串共享引用
+     */
+    private record Document(String profileId, String name, String notes, String userAgent, List<String> tags,
+                            String proxyHost, long lastUsed) {
+
+        static Document of(BrowserProfile profile) {
+            ProxySettings proxy = profile.getProxySettings();
+            LocalDateTime lastUsed = profile.getLastUsed();
+            return new Document(profile.getId(), profile.getName(), profile.getNotes(), profile.getUserAgent(),
+                    profile.getTags() == null ? List.of() : List.copyOf(profile.getTags()),
+                    proxy != null && proxy.isEnabled() ? proxy.getHost() : null,
+                    lastUsed == null ? Long.MIN_VALUE : lastUsed.toEpochSecond(ZoneOffset.UTC));
+        }
+
+        boolean sameText(Document other) {
+            return Objects.equals(name, other.name) && Objects.equals(notes, other.notes)
+                    && Objects.equals(userAgent, other.userAgent) && tags.equals(other.tags)
+                    && Objects.equals(proxyHost, other.proxyHost);
+        }
+
+        /**
+         * 文档包含的所有词及各自出现的字段位
+         */
+        Map<String, Integer> terms() {
+            Map<String, Integer> terms = new HashMap<>();
+            addTerms(terms, name, NAME);
+            addTerms(terms, notes, NOTES);
+            addTerms(terms, userAgent, USER_AGENT);
+            for (String tag : tags) {
+                addTerms(terms, tag, TAGS);
+            }
+            addTerms(terms, proxyHost, PROXY_HOST);
+            return terms;
+        }
+
+        private static void addTerms(Map<String, Integer> terms, String text, int field) {
+            for (String term : tokenize(text)) {
+                terms.merge(term, field, (a, b) -> a | b);
+            }
+        }
+    }
+
+    // 词典按词排序，前缀匹配为一段连续区间
+    private final NavigableMap<String, PostingList> dictionary = new TreeMap<>();
+    // 文档号 → 文档，删除后的文档号回收复用
+    private final List<Document> documents = new ArrayList<>();
+    private final Map<String, Integer> docsById = new HashMap<>();
+    private final Deque<Integer> freeDocs = new ArrayDeque<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 按配置当前的文本更新索引，只增减有变化的词
+     */
+    public void update(BrowserProfile profile) {
+        Document next = Document.of(profile);
+        lock.writeLock().lock();
+        try {
+            Integer existing = docsById.get(profile.getId());
+            if (existing == null) {
+                int doc = allocate(next);
+                docsById.put(profile.getId(), doc);
+                next.terms().forEach((term, field) -> dictionary.computeIfAbsent(term, t -> new PostingList()).put(doc, field));
+                return;
+            }
+
+            int doc = existing;
+            Document previous = documents.set(doc, next);
+            if (previous.sameText(next)) {
+                return;
+            }
+            Map<String, Integer> oldTerms = previous.terms();
+            Map<String, Integer> newTerms = next.terms();
+            oldTerms.forEach((term, field) -> {
+                if (!newTerms.containsKey(term)) {
+                    unlink(term, doc);
+                }
+            });
+            newTerms.forEach((term, field) -> {
+                if (!field.equals(oldTerms.get(term))) {
+                    dictionary.computeIfAbsent(term, t -> new PostingList()).put(doc, field);
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 从索引中移除配置
+     */
+    public void remove(String profileId) {
+        lock.writeLock().lock();
+        try {
+            Integer doc = docsById.remove(profileId);
+            if (doc == null) {
+                return;
+            }
+            Document previous = documents.set(doc, null);
+            previous.terms().keySet().forEach(term -> unlink(term, doc));
+            freeDocs.push(doc);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 搜索配置，返回按相关度与最近使用时间排序的配置ID；查询中没有可用的词时返回空列表
+     * 查询按与文档相同的规则分词，每个词按前缀匹配，所有词都命中的配置才会返回
+     */
+    public List<String> search(String query) {
+        return search(query, () -> false);
+    }
+
+    /**
+     * 可取消的搜索：在各查询词之间及遍历较长倒排表时检查取消标志，已取消时尽快返回空列表
+     */
+    public List<String> search(String query, BooleanSupplier cancelled) {
+        List<String> queryTerms = new ArrayList<>(tokenize(query));
+        if (queryTerms.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            // 先处理命中文档最少的词，之后的词只需在已有候选中累加
+            Map<String, Integer> estimates = new HashMap<>();
+            for (String term : queryTerms) {
+                int estimate = 0;
+                for (PostingList posting : prefixRange(term).values()) {
+                    estimate += posting.size();
+                }
+                if (estimate == 0) {
+                    return List.of();
+                }
+                estimates.put(term, estimate);
+            }
+            queryTerms.sort(Comparator.comparingInt(estimates::get));
+
+            // 按文档号累加得分，0 表示未命中
+            int[] scores = null;
+            for (String term : queryTerms) {
+                if (cancelled.getAsBoolean()) {
+                    return List.of();
+                }
+                int[] matched = new int[documents.size()];
+                for (Map.Entry<String, PostingList> entry : prefixRange(term).entrySet()) {
+                    // 整词命中的权重高于前缀命中
+                    int boost = entry.getKey().equals(term) ? 2 : 1;
+                    PostingList posting = entry.getValue();
+                    if (posting.size() > CANCEL_CHECK_INTERVAL && cancelled.getAsBoolean()) {
+                        return List.of();
+                    }
+                    for (int i = 0; i < posting.size(); i++) {
+                        int doc = posting.doc(i);
+                        if (scores == null || scores[doc] > 0) {
+                            matched[doc] = Math.max(matched[doc], posting.field(i) * boost);
+                        }
+                    }
+                }
+                if (scores != null) {
+                    for (int doc = 0; doc < matched.length; doc++) {
+                        if (matched[doc] > 0) {
+                            matched[doc] += scores[doc];
+                        }
+                    }
+                }
+                scores = matched;
+            }
+
+            List<Integer> ranked = new ArrayList<>();
+            for (int doc = 0; doc < scores.length; doc++) {
+                if (scores[doc] > 0) {
+                    ranked.add(doc);
+                }
+            }
+            if (cancelled.getAsBoolean()) {
+                return List.of();
+            }
+            int[] finalScores = scores;
+            ranked.sort(Comparator.<Integer>comparingInt(doc -> -finalScores[doc])
+                    .thenComparing(doc -> documents.get(doc).lastUsed(), Comparator.reverseOrder()));
+            List<String> result = new ArrayList<>(ranked.size());
+            for (int doc : ranked) {
+                result.add(documents.get(doc).profileId());
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private NavigableMap<String, PostingList> prefixRange(String prefix) {
+        return dictionary.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private int allocate(Document document) {
+        Integer doc = freeDocs.poll();
+        if (doc != null) {
+            documents.set(doc, document);
+            return doc;
+        }
+        documents.add(document);
+        return documents.size() - 1;
+    }
+
+    private void unlink(String term, int doc) {
+        PostingList posting = dictionary.get(term);
+        if (posting != null) {
+            posting.remove(doc);
+            if (posting.size() == 0) {
+                dictionary.remove(term);
+            }
+        }
+    }
+
+    /**
+     * 将文本切分为小写的词，去除重复
+     */
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            int codePoint = text.codePointAt(i);
+            if (isCjk(codePoint)) {
+                int end = i;
+                while (end < length && isCjk(text.codePointAt(end))) {
+                    end += Character.charCount(text.codePointAt(end));
+                }
+                for (int start = i; start < end; start += Character.charCount(text.codePointAt(start))) {
+                    int stop = start;
+                    for (int n = 0; n < MAX_CJK_TOKEN && stop < end; n++) {
+                        stop += Character.charCount(text.codePointAt(stop));
+                    }
+                    tokens.add(text.substring(start, stop));
+                }
+                i = end;
+            } else if (Character.isLetterOrDigit(codePoint)) {
+                int end = i;
+                while (end < length && Character.isLetterOrDigit(text.codePointAt(end)) && !isCjk(text.codePointAt(end))) {
+                    end += Character.charCount(text.codePointAt(end));
+                }
+                tokens.add(text.substring(i, end).toLowerCase(Locale.ROOT));
+                i = end;
+            } else {
+                i += Character.charCount(codePoint);
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA || script == Character.UnicodeScript.HANGUL;
+    }
+}
@@ -0,0 +1,258 @@
+package com.basis.fingerbrowser.service;
+
+import com.basis.fingerbrowser.model.BrowserProfile;
+import com.basis.fingerbrowser.model.ProxySettings;
+import com.basis.fingerbrowser.util.AtomicFileWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * 配置列表的二进制快照
+ * 正常退出时写入列表展示所需的字段及每条记录的版本戳，启动时通过内存映射读取，
+ * 版本戳与存储中一致的条目直接作为占位配置显示，完整记录在打开或启动时再读取
+ *
+ * <p>格式：int 魔数 | int 版本 | int 后端 | int 编码格式 | int 条目数 | 条目... | int CRC32C
+ */
+public final class ProfileSnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger(ProfileSnapshot.class);
+
+    public static final String FILE_NAME = "profiles.snapshot";
+
+    private static final int MAGIC = 0x46425350; // "FBSP"
+    private static final int VERSION = 3;
+    // 写入时存储中仍有未转换格式的记录
+    private static final int MIXED_CODEC = -1;
+    private static final long NULL_TIME = Long.MIN_VALUE;
+
+    /**
+     * 快照条目：仅含轻量字段的占位配置及其版本戳
+     */
+    public record Entry(BrowserProfile profile, long stamp) {}
+
+    private ProfileSnapshot() {}
+
+    /**
+     * 读取快照，按写入时的列表顺序返回；文件缺失、损坏或存储后端、编码格式与当前不同时返回空映射
+     * 编码格式不同时必须完整读取各记录，才能发现并转换旧格式
+     */
+    public static Map<String, Entry> read(Path file, ProfileStore.Backend backend, ProfileCodec codec) {
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        if (!Files.isRegularFile(file)) {
+            return entries;
+        }
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.limit() < 24) {
+                throw new IOException("Snapshot is truncated");
+            }
+
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.slice(0, buffer.limit() - 4));
+            if ((int) crc.getValue() != buffer.getInt(buffer.limit() - 4)) {
+                throw new IOException("Snapshot checksum mismatch");
+            }
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Unsupported snapshot format");
+            }
+            if (buffer.getInt() != backend.ordinal() || buffer.getInt() != codec.ordinal()) {
+                log.info("Ignoring profile snapshot written with another storage backend or format");
+                return entries;
+            }
+
+            int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                Entry entry = readEntry(buffer);
+                entries.put(entry.profile().getId(), entry);
+            }
+            log.info("Read profile snapshot with {} entries in {} ms", count, (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+            log.warn("Ignoring unreadable profile snapshot {}: {}", file, e.toString());
+            entries.clear();
+        }
+        return entries;
+    }
+
+    /**
+     * 写入快照，只包含在存储中有版本戳的配置
+     *
+     * @param codec 存储中所有记录的编码格式，仍有未转换的记录时传入 null
+     */
+    public static void write(Path file, ProfileStore.Backend backend, ProfileCodec codec, Collection<BrowserProfile> profiles,
+                             Map<String, Long> stamps) throws IOException {
+        AtomicFileWriter.write(file, rawOut -> {
+            CrcOutputStream crcOut = new CrcOutputStream(new BufferedOutputStream(rawOut, 1 << 16));
+            DataOutputStream out = new DataOutputStream(crcOut);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(backend.ordinal());
+            out.writeInt(codec == null ? MIXED_CODEC : codec.ordinal());
+            int count = (int) profiles.stream().filter(p -> stamps.containsKey(p.getId())).count();
+            out.writeInt(count);
+            for (BrowserProfile profile : profiles) {
+                Long stamp = stamps.get(profile.getId());
+                if (stamp != null) {
+                    writeEntry(out, profile, stamp);
+                }
+            }
+            out.flush();
+            out.writeInt((int) crcOut.crc.getValue());
+            out.flush();
+        }, true);
+    }
+
+    private static void writeEntry(DataOutputStream out, BrowserProfile profile, long stamp) throws IOException {
+        writeString(out, profile.getId());
+        writeString(out, profile.getName());
+        writeString(out, profile.getNotes());
+        writeString(out, profile.getUserAgent());
+        writeString(out, profile.getPlatform());
+        writeString(out, profile.getLanguage());
+        writeString(out, profile.getTimezone());
+        writeString(out, profile.getResolution());
+        writeString(out, profile.getBrowserExecutablePath());
+        writeString(out, profile.getUserDataDir());
+        out.writeLong(toEpochSecond(profile.getCreatedAt()));
+        out.writeLong(toEpochSecond(profile.getLastUsed()));
+
+        List<String> tags = profile.getTags() == null ? List.of() : profile.getTags();
+        out.writeInt(tags.size());
+        for (String tag : tags) {
+            writeString(out, tag);
+        }
+
+        ProxySettings proxy = profile.getProxySettings();
+        out.writeBoolean(proxy != null);
+        if (proxy != null) {
+            writeString(out, proxy.getType());
+            writeString(out, proxy.getHost());
+            out.writeInt(proxy.getPort());
+            writeString(out, proxy.getUsername());
+            writeString(out, proxy.getPassword());
+            out.writeBoolean(proxy.isRequiresAuthentication());
+            out.writeBoolean(proxy.isEnabled());
+        }
+        out.writeLong(stamp);
+    }
+
+    private static Entry readEntry(MappedByteBuffer buffer) {
+        String id = readString(buffer);
+        String name = readString(buffer);
+        String notes = readString(buffer);
+        String userAgent = readString(buffer);
+        String platform = readString(buffer);
+        String language = readString(buffer);
+        String timezone = readString(buffer);
+        String resolution = readString(buffer);
+        String executablePath = readString(buffer);
+        String userDataDir = readString(buffer);
+        LocalDateTime createdAt = fromEpochSecond(buffer.getLong());
+        LocalDateTime lastUsed = fromEpochSecond(buffer.getLong());
+        int tagCount = buffer.getInt();
+        if (tagCount < 0) {
+            throw new IllegalArgumentException("Invalid tag count: " + tagCount);
+        }
+        List<String> tags = new ArrayList<>(Math.min(tagCount, buffer.remaining() / 4));
+        for (int i = 0; i < tagCount; i++) {
+            tags.add(readString(buffer));
+        }
+
+        BrowserProfile profile = new BrowserProfile(id, name, createdAt);
+        profile.setNotes(notes);
+        profile.setUserAgent(userAgent);
+        profile.setPlatform(platform);
+        profile.setLanguage(language);
+        profile.setTimezone(timezone);
+        profile.setResolution(resolution);
+        profile.setBrowserExecutablePath(executablePath);
+        profile.setUserDataDir(userDataDir);
+        profile.setLastUsed(lastUsed);
+        profile.setTags(tags);
+
+        if (buffer.get() != 0) {
+            ProxySettings proxy = new ProxySettings();
+            proxy.setType(readString(buffer));
+            proxy.setHost(readString(buffer));
+            proxy.setPort(buffer.getInt());
+            proxy.setUsername(readString(buffer));
+            proxy.setPassword(readString(buffer));
+            proxy.setRequiresAuthentication(buffer.get() != 0);
+            proxy.setEnabled(buffer.get() != 0);
+            profile.setProxySettings(proxy);
+        }
+        return new Entry(profile, buffer.getLong());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(MappedByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long toEpochSecond(LocalDateTime time) {
+        return time == null ? NULL_TIME : time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime fromEpochSecond(long seconds) {
+        return seconds == NULL_TIME ? null : LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * 边写边计算校验和的输出流
+     */
+    private static final class CrcOutputStream extends FilterOutputStream {
+        private final CRC32C crc = new CRC32C();
+
+        CrcOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            crc.update(b);
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            crc.update(b, off, len);
+            out.write(b, off, len);
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.basis.fingerbrowser.service;
+
+import com.basis.fingerbrowser.model.BrowserProfile;
+import com.basis.fingerbrowser.model.ProxySettings;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 配置列表的排序索引
+ * 为每个可排序的列维护一份按该列有序的配置集合，排序键（文本列为按中文排序规则生成的 {@link CollationKey}）
+ * 在配置变更时生成一次。按列排序时只需顺序遍历集合，不再对全部配置逐一调用比较器；取值相同的配置按名称排序。
+ *
+ * <p>有序集合在加载完成后于后台建立（{@link #prepare()}），之后随配置变更增量维护；
+ * 尚未建立时按某列排序则当场建立该列。
+ * 每个配置记住上次被索引的排序键，配置对象被就地修改后再次更新时也能找到并移除旧键
+ */
+public class ProfileSortIndex {
+
+    /**
+     * 可排序的列
+     */
+    public enum SortKey {
+        NAME("名称"),
+        STATUS("状态"),
+        PROXY("代理"),
+        TIMEZONE("时区"),
+        LAST_USED("最近使用"),
+        TAGS("标签");
+
+        private final String displayName;
+
+        SortKey(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+
+    /**
+     * 一个配置在某一列上的排序键，依次按数值、文本、名称与配置ID比较
+     */
+    private record Entry(long number, CollationKey text, CollationKey name, String profileId) implements Comparable<Entry> {
+
+        @Override
+        public int compareTo(Entry other) {
+            int result = Long.compare(number, other.number);
+            if (result == 0) {
+                result = text.compareTo(other.text);
+            }
+            if (result == 0) {
+                result = name.compareTo(other.name);
+            }
+            return result != 0 ? result : profileId.compareTo(other.profileId);
+        }
+    }
+
+    /**
+     * 生成文本的排序键；Collator 不是线程安全的，每个实例只在一个线程内使用。
+     * 代理、时区与标签的取值大量重复，其排序键被缓存，超过上限时清空
+     */
+    private static final class KeyFactory {
+        private static final int MAX_CACHED_KEYS = 4096;
+
+        private final Collator collator = Collator.getInstance(Locale.CHINESE);
+        private final Map<String, CollationKey> cachedKeys = new HashMap<>();
+
+        CollationKey key(String text) {
+            return collator.getCollationKey(text == null ? "" : text);
+        }
+
+        CollationKey cachedKey(String text) {
+            String value = text == null ? "" : text;
+            CollationKey key = cachedKeys.get(value);
+            if (key == null) {
+                if (cachedKeys.size() >= MAX_CACHED_KEYS) {
+                    cachedKeys.clear();
+                }
+                key = collator.getCollationKey(value);
+                cachedKeys.put(value, key);
+            }
+            return key;
+        }
+    }
+
+    private static final String NO_PROXY = "未使用";
+
+    private final Map<String, BrowserProfile> profiles = new HashMap<>();
+    // 已建立的列：有序集合与各配置当前的排序键
+    private final Map<SortKey, NavigableSet<Entry>> orders = new EnumMap<>(SortKey.class);
+    private final Map<SortKey, Map<String, Entry>> entries = new EnumMap<>(SortKey.class);
+    // 写锁内使用的排序键工厂
+    private final KeyFactory keys = new KeyFactory();
+    // 后台建立有序集合期间发生变更的配置ID，建立完成后补上；未在建立时为 null
+    private Set<String> changedWhileBuilding;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 按配置当前的取值更新索引，已建立的列中只移动排序键有变化的配置
+     */
+    public void update(BrowserProfile profile) {
+        lock.writeLock().lock();
+        try {
+            profiles.put(profile.getId(), profile);
+            if (changedWhileBuilding != null) {
+                changedWhileBuilding.add(profile.getId());
+            }
+            if (orders.isEmpty()) {
+                return;
+            }
+            CollationKey name = keys.key(profile.getName());
+            orders.forEach((key, order) -> {
+                Entry next = entryOf(key, profile, name, keys);
+                Entry previous = entries.get(key).put(profile.getId(), next);
+                if (previous == null || previous.compareTo(next) != 0) {
+                    if (previous != null) {
+                        order.remove(previous);
+                    }
+                    order.add(next);
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 从索引中移除配置
+     */
+    public void remove(String profileId) {
+        lock.writeLock().lock();
+        try {
+            profiles.remove(profileId);
+            if (changedWhileBuilding != null) {
+                changedWhileBuilding.add(profileId);
+            }
+            orders.forEach((key, order) -> {
+                Entry previous = entries.get(key).remove(profileId);
+                if (previous != null) {
+                    order.remove(previous);
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 在当前线程预先建立所有列的有序集合，建立期间不阻塞配置变更，适合在加载完成后于后台线程调用
+     */
+    public void prepare() {
+        for (SortKey key : SortKey.values()) {
+            List<BrowserProfile> snapshot;
+            lock.writeLock().lock();
+            try {
+                if (orders.containsKey(key)) {
+                    continue;
+                }
+                snapshot = new ArrayList<>(profiles.values());
+                changedWhileBuilding = new HashSet<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            Map<String, Entry> keyEntries = new HashMap<>(snapshot.size() * 2);
+            NavigableSet<Entry> order = new TreeSet<>();
+            KeyFactory buildKeys = new KeyFactory();
+            for (BrowserProfile profile : snapshot) {
+                Entry entry = entryOf(key, profile, buildKeys.key(profile.getName()), buildKeys);
+                keyEntries.put(profile.getId(), entry);
+                order.add(entry);
+            }
+
+            lock.writeLock().lock();
+            try {
+                // 建立期间变更的配置按最新取值重新放入
+                for (String id : changedWhileBuilding) {
+                    Entry previous = keyEntries.remove(id);
+                    if (previous != null) {
+                        order.remove(previous);
+                    }
+                    BrowserProfile profile = profiles.get(id);
+                    if (profile != null) {
+                        Entry entry = entryOf(key, profile, keys.key(profile.getName()), keys);
+                        keyEntries.put(id, entry);
+                        order.add(entry);
+                    }
+                }
+                changedWhileBuilding = null;
+                // 期间按该列排序时已同步建立，丢弃后台结果
+                if (!orders.containsKey(key)) {
+                    entries.put(key, keyEntries);
+                    orders.put(key, order);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * 按指定列的顺序返回全部配置ID，耗时与配置数量成正比；该列尚未建立有序集合时先同步建立
+     */
+    public List<String> ordered(SortKey key, boolean ascending) {
+        lock.readLock().lock();
+        try {
+            NavigableSet<Entry> order = orders.get(key);
+            if (order != null) {
+                return idsOf(order, ascending);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            NavigableSet<Entry> order = orders.get(key);
+            if (order == null) {
+                order = build(key);
+            }
+            return idsOf(order, ascending);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private NavigableSet<Entry> build(SortKey key) {
+        Map<String, Entry> keyEntries = new HashMap<>(profiles.size() * 2);
+        NavigableSet<Entry> order = new TreeSet<>();
+        for (BrowserProfile profile : profiles.values()) {
+            Entry entry = entryOf(key, profile, keys.key(profile.getName()), keys);
+            keyEntries.put(profile.getId(), entry);
+            order.add(entry);
+        }
+        entries.put(key, keyEntries);
+        orders.put(key, order);
+        return order;
+    }
+
+    private static List<String> idsOf(NavigableSet<Entry> order, boolean ascending) {
+        List<String> result = new ArrayList<>(order.size());
+        for (Entry entry : ascending ? order : order.descendingSet()) {
+            result.add(entry.profileId());
+        }
+        return result;
+    }
+
+    private static Entry entryOf(SortKey key, BrowserProfile profile, CollationKey name, KeyFactory keys) {
+        String id = profile.getId();
+        CollationKey none = keys.cachedKey("");
+        return switch (key) {
+            case NAME -> new Entry(0, none, name, id);
+            // 运行中的配置排在前面
+            case STATUS -> new Entry(profile.isActive() ? 0 : 1, none, name, id);
+            case PROXY -> new Entry(0, keys.cachedKey(proxyLabel(profile)), name, id);
+            case TIMEZONE -> new Entry(0, keys.cachedKey(profile.getTimezone()), name, id);
+            case LAST_USED -> {
+                LocalDateTime lastUsed = profile.getLastUsed();
+                yield new Entry(lastUsed == null ? Long.MIN_VALUE : lastUsed.toEpochSecond(ZoneOffset.UTC), none, name, id);
+            }
+            case TAGS -> new Entry(0, keys.cachedKey(tagsLabel(profile)), name, id);
+        };
+    }
+
+    /**
+     * 配置的代理在列表中的显示文本，未启用代理时为「未使用」
+     */
+    public static String proxyLabel(BrowserProfile profile) {
+        ProxySettings proxy = profile.getProxySettings();
+        if (proxy == null || !proxy.isEnabled() || proxy.getType() == null || proxy.isDirect()) {
+            return NO_PROXY;
+        }
+        return proxy.getType() + " " + proxy.getHost() + ":" + proxy.getPort();
+    }
+
+    /**
+     * 配置的标签在列表中的显示文本，以逗号分隔
+     */
+    public static String tagsLabel(BrowserProfile profile) {
+        return profile.getTags() == null ? "" : String.join(", ", profile.getTags());
+    }
+}
@@ -0,0 +1,147 @@
+package com.basis.fingerbrowser.service;
+
+import com.basis.fingerbrowser.model.BrowserProfile;
+import com.basis.fingerbrowser.model.ProfileState;
+import com.basis.fingerbrowser.util.DirectoryLayout;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 配置文件存储后端
+ * 负责配置记录的枚举、读取、批量写入与删除，实现需支持多线程并发读取
+ */
+public interface ProfileStore extends AutoCloseable {
+
+    /**
+     * 存储后端类型
+     */
+    enum Backend {
+        JSON("JSON 文件（每个配置一个文件）"),
+        SEGMENTED("分段日志（适合大量配置）");
+
+        private final String displayName;
+
+        Backend(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        /**
+         * 按名称解析，无法识别时返回默认的 JSON 后端
+         */
+        public static Backend fromName(String name) {
+            for (Backend backend : values()) {
+                if (backend.name().equalsIgnoreCase(name)) {
+                    return backend;
+                }
+            }
+            return JSON;
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+
+    /**
+     * 打开指定类型的存储
+     *
+     * @param directory 配置根目录
+     * @param codec     写入时使用的编码格式，读取时自动识别
+     * @param durable   是否在写入后 fsync
+     * @param layout    文件平铺或分片存放，仅对 JSON 文件后端有效
+     */
+    static ProfileStore open(Backend backend, Path directory, ProfileCodec codec, BooleanSupplier durable,
+                             DirectoryLayout layout) throws IOException {
+        return switch (backend) {
+            case JSON -> new JsonFileProfileStore(directory, codec, durable, layout);
+            case SEGMENTED -> new SegmentedProfileStore(directory, codec, durable);
+        };
+    }
+
+    /**
+     * 判断目录中是否已有该类型存储的数据
+     */
+    static boolean hasData(Backend backend, Path directory) {
+        return switch (backend) {
+            case JSON -> JsonFileProfileStore.hasData(directory);
+            case SEGMENTED -> SegmentedProfileStore.hasData(directory);
+        };
+    }
+
+    /**
+     * 获取存储类型
+     */
+    Backend getBackend();
+
+    /**
+     * 获取写入时使用的编码格式
+     */
+    ProfileCodec getCodec();
+
+    /**
+     * 列出所有配置ID
+     */
+    List<String> listIds() throws IOException;
+
+    /**
+     * 获取所有配置的版本戳，记录被重写后版本戳随之改变，用于校验启动快照是否过期
+     */
+    Map<String, Long> readStamps() throws IOException;
+
+    /**
+     * 获取所有配置最近一次写入的时间（含会话数据），用于增量导出；可能晚于实际修改时间，但不会更早
+     */
+    Map<String, Instant> readModifiedTimes() throws IOException;
+
+    /**
+     * 读取指定配置，不存在时返回 null
+     * 会话数据不随主记录读取，而是在首次访问时通过 {@link #readState(String)} 加载
+     */
+    BrowserProfile read(String profileId) throws IOException;
+
+    /**
+     * 读取指定配置的会话数据，不存在时返回 null
+     */
+    ProfileState readState(String profileId) throws IOException;
+
+    /**
+     * 批量写入配置，已存在的记录被覆盖；会话数据仅在已加载时写入
+     */
+    void write(Collection<BrowserProfile> profiles) throws IOException;
+
+    /**
+     * 批量删除配置
+     */
+    void delete(Collection<String> profileIds) throws IOException;
+
+    /**
+     * 删除存储中的全部数据
+     */
+    void clear() throws IOException;
+
+    /**
+     * 读取过程中是否遇到了与当前编码格式不同的记录
+     */
+    boolean needsConversion();
+
+    /**
+     * 将所有与当前编码格式不同的记录转换为当前格式，线程被中断时提前结束
+     *
+     * @return 转换的记录数量
+     */
+    int convertFormat() throws IOException;
+
+    @Override
+    void close();
+}
@@ -0,0 +1,77 @@
+package com.basis.fingerbrowser.service;
+
+import com.basis.fingerbrowser.model.BrowserProfile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 存储后端迁移工具
+ * 将源存储中的全部配置分批复制到目标存储，全部成功后清空源存储；
+ * 中途失败时源数据保持不变，下次可重新执行
+ */
+public class ProfileStoreMigrator {
+
+    private static final Logger log = LoggerFactory.getLogger(ProfileStoreMigrator.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * 迁移进度回调
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(int migrated, int total);
+    }
+
+    private final ProfileStore source;
+    private final ProfileStore target;
+
+    public ProfileStoreMigrator(ProfileStore source, ProfileStore target) {
+        this.source = source;
+        this.target = target;
+    }
+
+    /**
+     * 执行迁移
+     *
+     * @return 迁移的配置数量
+     */
+    public int migrate(ProgressListener listener) throws IOException {
+        long start = System.currentTimeMillis();
+        List<String> ids = source.listIds();
+        log.info("Migrating {} profile(s) from {} to {} store", ids.size(), source.getBackend(), target.getBackend());
+
+        int migrated = 0;
+        List<BrowserProfile> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < ids.size(); i++) {
+            BrowserProfile profile = source.read(ids.get(i));
+            if (profile != null) {
+                // 会话数据按需加载，迁移时必须显式读出，否则不会写入目标存储
+                try {
+                    profile.loadState();
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+                batch.add(profile);
+            }
+            if (batch.size() >= BATCH_SIZE || i == ids.size() - 1) {
+                target.write(batch);
+                migrated += batch.size();
+                batch.clear();
+                if (listener != null) {
+                    listener.onProgress(i + 1, ids.size());
+                }
+            }
+        }
+
+        source.clear();
+        log.info("Migrated {} profile(s) to {} store in {} ms", migrated, target.getBackend(),
+                System.currentTimeMillis() - start);
+        return migrated;
+    }
+}
@@ -0,0 +1,244 @@
+package com.basis.fingerbrowser.service;
+
+import com.basis.fingerbrowser.model.BrowserProfile;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 配置名称与备注的三元组（trigram）索引，用于容错的模糊搜索
+ * 文本按词切分，每个词前补两个空格、后补一个空格后取所有连续三个字符，得到三元组集合；
+ * 查询与名称的相似度为两个集合的 Dice 系数，与备注的相似度为查询三元组被备注覆盖的比例（按较低权重计），
+ * 取两者中较高者。相似度达到阈值的配置按相似度取前 k 个，相似度相同时最近使用的在前。
+ *
+ * <p>查询时只遍历查询三元组的倒排表并在按文档号索引的数组中计数，耗时与命中的倒排项数量成正比
+ */
+public class ProfileTrigramIndex {
+
+    private static final int NAME = 1;
+    private static final int NOTES = 2;
+    // 备注通常较长，按覆盖率命中时的权重低于名称
+    private static final double NOTES_WEIGHT = 0.8;
+
+    private record Document(String profileId, String name, String notes, int nameSize, long lastUsed) {
+
+        static Document of(BrowserProfile profile) {
+            LocalDateTime lastUsed = profile.getLastUsed();
+            return new Document(profile.getId(), profile.getName(), profile.getNotes(), trigrams(profile.getName()).size(),
+                    lastUsed == null ? Long.MIN_VALUE : lastUsed.toEpochSecond(ZoneOffset.UTC));
+        }
+
+        boolean sameText(Document other) {
+            return Objects.equals(name, other.name) && Objects.equals(notes, other.notes);
+        }
+
+        Map<String, Integer> grams() {
+            Map<String, Integer> grams = new HashMap<>();
+            for (String gram : trigrams(name)) {
+                grams.merge(gram, NAME, (a, b) -> a | b);
+            }
+            for (String gram : trigrams(notes)) {
+                grams.merge(gram, NOTES, (a, b) -> a | b);
+            }
+            return grams;
+        }
+    }
+
+    /**
+     * 模糊搜索的一条结果
+     */
+    private record Hit(int doc, double similarity, long lastUsed) {}
+
+    private final Map<String, PostingList> postings = new HashMap<>();
+    // 文档号 → 文档，删除后的文档号回收复用
+    private final List<Document> documents = new ArrayList<>();
+    private final Map<String, Integer> docsById = new HashMap<>();
+    private final Deque<Integer> freeDocs = new ArrayDeque<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 按配置当前的名称与备注更新索引，只增减有变化的三元组
+     */
+    public void update(BrowserProfile profile) {
+        Document next = Document.of(profile);
+        lock.writeLock().lock();
+        try {
+            Integer existing = docsById.get(profile.getId());
+            if (existing == null) {
+                int doc = allocate(next);
+                docsById.put(profile.getId(), doc);
+                next.grams().forEach((gram, field) -> postings.computeIfAbsent(gram, g -> new PostingList()).put(doc, field));
+                return;
+            }
+
+            int doc = existing;
+            Document previous = documents.set(doc, next);
+            if (previous.sameText(next)) {
+                return;
+            }
+            Map<String, Integer> oldGrams = previous.grams();
+            Map<String, Integer> newGrams = next.grams();
+            oldGrams.forEach((gram, field) -> {
+                if (!newGrams.containsKey(gram)) {
+                    unlink(gram, doc);
+                }
+            });
+            newGrams.forEach((gram, field) -> {
+                if (!field.equals(oldGrams.get(gram))) {
+                    postings.computeIfAbsent(gram, g -> new PostingList()).put(doc, field);
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 从索引中移除配置
+     */
+    public void remove(String profileId) {
+        lock.writeLock().lock();
+        try {
+            Integer doc = docsById.remove(profileId);
+            if (doc == null) {
+                return;
+            }
+            Document previous = documents.set(doc, null);
+            previous.grams().keySet().forEach(gram -> unlink(gram, doc));
+            freeDocs.push(doc);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 模糊搜索配置，返回相似度不低于阈值的前 limit 个配置ID，按相似度与最近使用时间排序
+     *
+     * @param threshold 相似度阈值，取值 0 到 1
+     * @param cancelled 返回 true 后尽快结束并返回空列表
+     */
+    public List<String> search(String query, double threshold, int limit, BooleanSupplier cancelled) {
+        Set<String> queryGrams = trigrams(query);
+        if (queryGrams.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            int[] nameMatches = new int[documents.size()];
+            int[] notesMatches = new int[documents.size()];
+            // 被命中过的文档号，避免最后遍历全部文档
+            int[] touched = new int[documents.size()];
+            int touchedCount = 0;
+            for (String gram : queryGrams) {
+                PostingList posting = postings.get(gram);
+                if (posting == null) {
+                    continue;
+                }
+                if (cancelled.getAsBoolean()) {
+                    return List.of();
+                }
+                for (int i = 0; i < posting.size(); i++) {
+                    int doc = posting.doc(i);
+                    int field = posting.field(i);
+                    if (nameMatches[doc] == 0 && notesMatches[doc] == 0) {
+                        touched[touchedCount++] = doc;
+                    }
+                    if ((field & NAME) != 0) {
+                        nameMatches[doc]++;
+                    }
+                    if ((field & NOTES) != 0) {
+                        notesMatches[doc]++;
+                    }
+                }
+            }
+
+            // 小顶堆保留相似度最高的 limit 个结果
+            PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, ProfileTrigramIndex::compareHits);
+            int querySize = queryGrams.size();
+            for (int i = 0; i < touchedCount; i++) {
+                int doc = touched[i];
+                Document document = documents.get(doc);
+                double nameSimilarity = 2.0 * nameMatches[doc] / (querySize + document.nameSize());
+                double notesSimilarity = NOTES_WEIGHT * notesMatches[doc] / querySize;
+                double similarity = Math.max(nameSimilarity, notesSimilarity);
+                if (similarity >= threshold) {
+                    top.add(new Hit(doc, similarity, document.lastUsed()));
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                }
+            }
+
+            List<String> result = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                result.add(documents.get(top.poll().doc()).profileId());
+            }
+            // 堆中按从低到高弹出
+            Collections.reverse(result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int compareHits(Hit a, Hit b) {
+        int bySimilarity = Double.compare(a.similarity(), b.similarity());
+        return bySimilarity != 0 ? bySimilarity : Long.compare(a.lastUsed(), b.lastUsed());
+    }
+
+    private int allocate(Document document) {
+        Integer doc = freeDocs.poll();
+        if (doc != null) {
+            documents.set(doc, document);
+            return doc;
+        }
+        documents.add(document);
+        return documents.size() - 1;
+    }
+
+    private void unlink(String gram, int doc) {
+        PostingList posting = postings.get(gram);
+        if (posting != null) {
+            posting.remove(doc);
+            if (posting.size() == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    /**
+     * 取文本的三元组集合：按非字母数字字符切词，转为小写，每个词补齐空格后取连续三个字符
+     */
+    static Set<String> trigrams(String text) {
+        Set<String> grams = new HashSet<>();
+        if (text == null || text.isBlank()) {
+            return grams;
+        }
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams.add(padded.substring(i, i + 3));
+            }
+        }
+        return grams;
+    }
+}
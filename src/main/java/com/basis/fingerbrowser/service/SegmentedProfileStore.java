@@ -0,0 +1,781 @@
+package com.basis.fingerbrowser.service;
+
+import com.basis.fingerbrowser.model.BrowserProfile;
+import com.basis.fingerbrowser.model.ProfileState;
+import com.basis.fingerbrowser.util.AtomicFileWriter;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+import java.util.zip.CRC32C;
+
+/**
+ * 分段追加日志存储后端
+ * 所有配置记录追加写入少量段文件，内存中维护 ID 到记录位置的索引；
+ * 过期记录由后台线程压缩回收，检查点保存索引快照以缩短启动时的日志重放；
+ * 会话数据以 "ID/state" 为键单独存储
+ *
+ * <p>记录格式：int 正文长度 | int CRC32C | 正文（byte 类型 | short ID 长度 | ID | 编码后的数据）
+ */
+public class SegmentedProfileStore implements ProfileStore {
+
+    private static final Logger log = LoggerFactory.getLogger(SegmentedProfileStore.class);
+
+    static final String DIRECTORY_NAME = "segments";
+    private static final String SEGMENT_EXTENSION = ".seg";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final String STATE_KEY_SUFFIX = "/state";
+
+    private static final byte TYPE_PUT = 1;
+    private static final byte TYPE_DELETE = 2;
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_RECORD_BYTES = 64 * 1024 * 1024;
+
+    private static final long MAX_SEGMENT_BYTES = 64L * 1024 * 1024;
+    // 已封存段中过期数据超过该比例时压缩
+    private static final double COMPACTION_THRESHOLD = 0.5;
+    // 距上次检查点追加超过该字节数时写入新的检查点
+    private static final long CHECKPOINT_INTERVAL_BYTES = 32L * 1024 * 1024;
+    private static final int CONVERSION_BATCH_SIZE = 256;
+
+    private static final int CHECKPOINT_MAGIC = 0x46424350; // "FBCP"
+    private static final int CHECKPOINT_VERSION = 1;
+
+    /**
+     * 记录在段文件中的位置
+     */
+    private record RecordPointer(int segment, long offset, int length) {}
+
+    /**
+     * 待追加的记录
+     */
+    private record PendingRecord(String profileId, byte type, byte[] bytes) {}
+
+    /**
+     * 段文件
+     */
+    private static final class Segment {
+        final int id;
+        final Path path;
+        final FileChannel channel;
+        volatile long size;
+        final AtomicLong deadBytes = new AtomicLong();
+
+        Segment(int id, Path path) throws IOException {
+            this.id = id;
+            this.path = path;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.size = channel.size();
+        }
+
+        boolean isCompactable() {
+            return size > 0 && deadBytes.get() >= size * COMPACTION_THRESHOLD;
+        }
+    }
+
+    private final Path directory;
+    private final ProfileCodec codec;
+    private final BooleanSupplier durable;
+    private final AtomicBoolean formatMismatch = new AtomicBoolean(false);
+
+    private final Map<String, RecordPointer> index = new ConcurrentHashMap<>();
+    // 最新状态为删除的ID及其删除记录所在段，压缩时用于判断是否需要保留删除记录
+    private final Map<String, Integer> tombstones = new ConcurrentHashMap<>();
+    private final NavigableMap<Integer, Segment> segments = new ConcurrentSkipListMap<>();
+    // 读操作持有读锁，移除段文件时持有写锁
+    private final ReentrantReadWriteLock segmentLock = new ReentrantReadWriteLock();
+    private final Object appendLock = new Object();
+    private Segment active;
+    private long bytesSinceCheckpoint;
+
+    private final AtomicBoolean maintenanceScheduled = new AtomicBoolean(false);
+    private final ExecutorService maintenanceExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "profile-store-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SegmentedProfileStore(Path profilesDirectory, ProfileCodec codec, BooleanSupplier durable) throws IOException {
+        this.directory = profilesDirectory.resolve(DIRECTORY_NAME);
+        this.codec = codec;
+        this.durable = durable;
+        Files.createDirectories(directory);
+        open();
+    }
+
+    static boolean hasData(Path profilesDirectory) {
+        Path directory = profilesDirectory.resolve(DIRECTORY_NAME);
+        if (!Files.isDirectory(directory)) {
+            return false;
+        }
+        try (var stream = Files.list(directory)) {
+            return stream.anyMatch(path -> path.getFileName().toString().endsWith(SEGMENT_EXTENSION) && path.toFile().length() > 0);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public Backend getBackend() {
+        return Backend.SEGMENTED;
+    }
+
+    @Override
+    public ProfileCodec getCodec() {
+        return codec;
+    }
+
+    @Override
+    public List<String> listIds() {
+        return index.keySet().stream().filter(key -> !key.endsWith(STATE_KEY_SUFFIX)).toList();
+    }
+
+    /**
+     * 版本戳由记录所在段号与偏移组成，每次重写都会追加到新位置
+     */
+    @Override
+    public Map<String, Long> readStamps() {
+        Map<String, Long> stamps = new HashMap<>(index.size() * 2);
+        index.forEach((key, pointer) -> {
+            if (!key.endsWith(STATE_KEY_SUFFIX)) {
+                stamps.put(key, ((long) pointer.segment() << 40) | pointer.offset());
+            }
+        });
+        return stamps;
+    }
+
+    /**
+     * 记录本身不带写入时间，取其所在段文件的修改时间；压缩会把仍有效的记录搬到新段，此后这些配置也视为已修改
+     */
+    @Override
+    public Map<String, Instant> readModifiedTimes() throws IOException {
+        Map<Integer, Instant> segmentTimes = new HashMap<>();
+        Map<String, Instant> times = new HashMap<>(index.size() * 2);
+        segmentLock.readLock().lock();
+        try {
+            for (Map.Entry<String, RecordPointer> entry : index.entrySet()) {
+                int segmentId = entry.getValue().segment();
+                Instant time = segmentTimes.get(segmentId);
+                if (time == null) {
+                    Segment segment = segments.get(segmentId);
+                    if (segment == null) {
+                        continue;
+                    }
+                    time = Files.getLastModifiedTime(segment.path).toInstant();
+                    segmentTimes.put(segmentId, time);
+                }
+                String key = entry.getKey();
+                String profileId = key.endsWith(STATE_KEY_SUFFIX) ? key.substring(0, key.length() - STATE_KEY_SUFFIX.length()) : key;
+                times.merge(profileId, time, (a, b) -> a.isAfter(b) ? a : b);
+            }
+        } finally {
+            segmentLock.readLock().unlock();
+        }
+        times.keySet().retainAll(index.keySet());
+        return times;
+    }
+
+    @Override
+    public BrowserProfile read(String profileId) throws IOException {
+        ByteBuffer record = readLatest(profileId);
+        if (record == null) {
+            return null;
+        }
+        int payloadOffset = payloadOffset(record);
+        int payloadLength = record.limit() - payloadOffset;
+        BrowserProfile profile = decoderFor(record.array(), payloadOffset, payloadLength)
+                .profileReader().readValue(record.array(), payloadOffset, payloadLength);
+        profile.setStateLoader(() -> readState(profileId));
+        return profile;
+    }
+
+    @Override
+    public ProfileState readState(String profileId) throws IOException {
+        ByteBuffer record = readLatest(profileId + STATE_KEY_SUFFIX);
+        if (record == null) {
+            return null;
+        }
+        int payloadOffset = payloadOffset(record);
+        int payloadLength = record.limit() - payloadOffset;
+        return decoderFor(record.array(), payloadOffset, payloadLength)
+                .stateReader().readValue(record.array(), payloadOffset, payloadLength);
+    }
+
+    /**
+     * 会话数据记录排在主记录之前，截断损坏尾部后主记录存在则其会话数据必然存在
+     */
+    @Override
+    public void write(Collection<BrowserProfile> profiles) throws IOException {
+        // 序列化在追加锁外完成，锁内只做顺序写入
+        List<PendingRecord> records = new ArrayList<>(profiles.size());
+        for (BrowserProfile profile : profiles) {
+            if (profile.isStateLoaded()) {
+                records.add(encode(profile.getId() + STATE_KEY_SUFFIX, TYPE_PUT, codec.stateWriter().writeValueAsBytes(profile.toState())));
+            }
+            records.add(encode(profile.getId(), TYPE_PUT, codec.recordWriter().writeValueAsBytes(profile)));
+        }
+        append(records, durable.getAsBoolean());
+    }
+
+    private ByteBuffer readLatest(String key) throws IOException {
+        segmentLock.readLock().lock();
+        try {
+            RecordPointer pointer = index.get(key);
+            return pointer == null ? null : readRecord(pointer);
+        } finally {
+            segmentLock.readLock().unlock();
+        }
+    }
+
+    private ProfileCodec decoderFor(byte[] data, int offset, int length) {
+        ProfileCodec detected = ProfileCodec.detect(data, offset, length);
+        if (detected != codec) {
+            formatMismatch.set(true);
+        }
+        return detected;
+    }
+
+    @Override
+    public boolean needsConversion() {
+        return formatMismatch.get();
+    }
+
+    /**
+     * 以当前格式重新编码并追加格式不同的记录，旧记录随后由压缩回收
+     */
+    @Override
+    public int convertFormat() throws IOException {
+        List<String> keys = new ArrayList<>(index.keySet());
+        int converted = 0;
+        for (int from = 0; from < keys.size(); from += CONVERSION_BATCH_SIZE) {
+            if (Thread.currentThread().isInterrupted()) {
+                log.info("Profile format conversion interrupted after {} record(s)", converted);
+                return converted;
+            }
+            // 持有追加锁期间索引不会变化，读到的一定是最新记录
+            synchronized (appendLock) {
+                List<PendingRecord> records = new ArrayList<>();
+                for (String key : keys.subList(from, Math.min(from + CONVERSION_BATCH_SIZE, keys.size()))) {
+                    RecordPointer pointer = index.get(key);
+                    if (pointer == null) {
+                        continue;
+                    }
+                    ByteBuffer record = readRecord(pointer);
+                    int payloadOffset = payloadOffset(record);
+                    int payloadLength = record.limit() - payloadOffset;
+                    ProfileCodec detected = ProfileCodec.detect(record.array(), payloadOffset, payloadLength);
+                    if (payloadLength == 0 || detected == codec) {
+                        continue;
+                    }
+                    JsonNode tree = detected.mapper().readTree(record.array(), payloadOffset, payloadLength);
+                    records.add(encode(key, TYPE_PUT, codec.mapper().writeValueAsBytes(tree)));
+                }
+                append(records, durable.getAsBoolean());
+                converted += records.size();
+            }
+        }
+        formatMismatch.set(false);
+        log.info("Converted {} profile record(s) to {}", converted, codec.name());
+        return converted;
+    }
+
+    private static int payloadOffset(ByteBuffer record) {
+        int idLength = record.getShort(HEADER_BYTES + 1) & 0xFFFF;
+        return HEADER_BYTES + 3 + idLength;
+    }
+
+    @Override
+    public void delete(Collection<String> profileIds) throws IOException {
+        List<PendingRecord> records = new ArrayList<>(profileIds.size());
+        for (String profileId : profileIds) {
+            for (String key : List.of(profileId, profileId + STATE_KEY_SUFFIX)) {
+                if (index.containsKey(key)) {
+                    records.add(encode(key, TYPE_DELETE, new byte[0]));
+                }
+            }
+        }
+        append(records, durable.getAsBoolean());
+    }
+
+    /**
+     * 删除全部数据，迁移到其他后端后调用
+     */
+    @Override
+    public void clear() throws IOException {
+        awaitMaintenance();
+        synchronized (appendLock) {
+            segmentLock.writeLock().lock();
+            try {
+                for (Segment segment : segments.values()) {
+                    segment.channel.close();
+                    Files.deleteIfExists(segment.path);
+                }
+                segments.clear();
+                index.clear();
+                tombstones.clear();
+                Files.deleteIfExists(directory.resolve(CHECKPOINT_FILE));
+                active = openSegment(1);
+                bytesSinceCheckpoint = 0;
+            } finally {
+                segmentLock.writeLock().unlock();
+            }
+        }
+    }
+
+    // ==================== 打开与重放 ====================
+
+    private void open() throws IOException {
+        try (var stream = Files.list(directory)) {
+            for (Path path : stream.filter(p -> p.getFileName().toString().endsWith(SEGMENT_EXTENSION)).toList()) {
+                String name = path.getFileName().toString();
+                try {
+                    int id = Integer.parseInt(name.substring(0, name.length() - SEGMENT_EXTENSION.length()));
+                    segments.put(id, new Segment(id, path));
+                } catch (NumberFormatException e) {
+                    log.warn("Ignoring unexpected file in segment directory: {}", path);
+                }
+            }
+        }
+
+        int replaySegment = segments.isEmpty() ? 1 : segments.firstKey();
+        long replayOffset = 0;
+        long[] checkpointPosition = loadCheckpoint();
+        if (checkpointPosition != null) {
+            replaySegment = (int) checkpointPosition[0];
+            replayOffset = checkpointPosition[1];
+        }
+
+        int replayed = 0;
+        for (Segment segment : segments.tailMap(replaySegment, true).values()) {
+            replayed += replay(segment, segment.id == replaySegment ? replayOffset : 0,
+                    segment.id == segments.lastKey());
+        }
+
+        // 过期字节数 = 段大小 - 仍被索引引用的记录大小
+        Map<Integer, Long> liveBytes = new HashMap<>();
+        for (RecordPointer pointer : index.values()) {
+            liveBytes.merge(pointer.segment(), (long) pointer.length(), Long::sum);
+        }
+        for (Segment segment : segments.values()) {
+            segment.deadBytes.set(segment.size - liveBytes.getOrDefault(segment.id, 0L));
+        }
+
+        active = segments.isEmpty() ? openSegment(1) : segments.lastEntry().getValue();
+        log.info("Opened segmented profile store with {} profile(s) in {} segment(s), replayed {} record(s)",
+                index.size(), segments.size(), replayed);
+        scheduleMaintenance();
+    }
+
+    /**
+     * 从指定位置顺序重放段文件，遇到不完整或校验失败的记录时停止；
+     * 最后一个段的损坏尾部视为写入中断并截断
+     */
+    private int replay(Segment segment, long fromOffset, boolean isLast) throws IOException {
+        int count = 0;
+        long position = fromOffset;
+        segment.channel.position(fromOffset);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(segment.channel), 1 << 16));
+        CRC32C crc = new CRC32C();
+        try {
+            while (position < segment.size) {
+                int bodyLength = in.readInt();
+                int checksum = in.readInt();
+                if (bodyLength < 3 || bodyLength > MAX_RECORD_BYTES) {
+                    break;
+                }
+                byte[] body = new byte[bodyLength];
+                in.readFully(body);
+                crc.reset();
+                crc.update(body);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                int idLength = ((body[1] & 0xFF) << 8) | (body[2] & 0xFF);
+                String profileId = new String(body, 3, idLength, StandardCharsets.UTF_8);
+                int length = HEADER_BYTES + bodyLength;
+                apply(profileId, body[0], new RecordPointer(segment.id, position, length));
+                position += length;
+                count++;
+            }
+        } catch (EOFException e) {
+            // 不完整的尾部记录，按损坏处理
+        }
+
+        if (position < segment.size) {
+            if (isLast) {
+                log.warn("Truncating torn tail of segment {} at offset {} ({} byte(s) discarded)",
+                        segment.path, position, segment.size - position);
+                segment.channel.truncate(position);
+                segment.size = position;
+            } else {
+                log.error("Corrupted record in segment {} at offset {}, ignoring remainder", segment.path, position);
+            }
+        }
+        return count;
+    }
+
+    private void apply(String profileId, byte type, RecordPointer pointer) {
+        RecordPointer previous = type == TYPE_PUT ? index.put(profileId, pointer) : index.remove(profileId);
+        if (previous != null) {
+            Segment old = segments.get(previous.segment());
+            if (old != null) {
+                old.deadBytes.addAndGet(previous.length());
+            }
+        }
+        if (type == TYPE_PUT) {
+            tombstones.remove(profileId);
+        } else {
+            tombstones.put(profileId, pointer.segment());
+            // 删除记录本身不承载数据，同样计为过期字节
+            Segment current = segments.get(pointer.segment());
+            if (current != null) {
+                current.deadBytes.addAndGet(pointer.length());
+            }
+        }
+    }
+
+    // ==================== 追加写入 ====================
+
+    private PendingRecord encode(String profileId, byte type, byte[] payload) {
+        byte[] id = profileId.getBytes(StandardCharsets.UTF_8);
+        int bodyLength = 3 + id.length + payload.length;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + bodyLength);
+        buffer.putInt(bodyLength).putInt(0).put(type).putShort((short) id.length).put(id).put(payload);
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), HEADER_BYTES, bodyLength);
+        buffer.putInt(4, (int) crc.getValue());
+        return new PendingRecord(profileId, type, buffer.array());
+    }
+
+    /**
+     * 将记录顺序追加到活动段，段满时切换到新段；写入完成后才更新索引，读者不会看到未写完的记录
+     */
+    private void append(List<PendingRecord> records, boolean sync) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        synchronized (appendLock) {
+            List<PendingRecord> chunk = new ArrayList<>();
+            long chunkBytes = 0;
+            for (PendingRecord record : records) {
+                long pending = active.size + chunkBytes;
+                if (pending > 0 && pending + record.bytes().length > MAX_SEGMENT_BYTES) {
+                    writeChunk(chunk, chunkBytes, sync);
+                    chunk.clear();
+                    chunkBytes = 0;
+                    active = openSegment(active.id + 1);
+                }
+                chunk.add(record);
+                chunkBytes += record.bytes().length;
+            }
+            writeChunk(chunk, chunkBytes, sync);
+        }
+        scheduleMaintenance();
+    }
+
+    private void writeChunk(List<PendingRecord> chunk, long chunkBytes, boolean sync) throws IOException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(chunkBytes));
+        chunk.forEach(record -> buffer.put(record.bytes()));
+        buffer.flip();
+
+        long start = active.size;
+        long position = start;
+        while (buffer.hasRemaining()) {
+            position += active.channel.write(buffer, position);
+        }
+        if (sync) {
+            active.channel.force(false);
+        }
+
+        long offset = start;
+        for (PendingRecord record : chunk) {
+            apply(record.profileId(), record.type(), new RecordPointer(active.id, offset, record.bytes().length));
+            offset += record.bytes().length;
+        }
+        active.size = position;
+        bytesSinceCheckpoint += chunkBytes;
+    }
+
+    private Segment openSegment(int id) throws IOException {
+        Segment segment = new Segment(id, directory.resolve(String.format("%08d%s", id, SEGMENT_EXTENSION)));
+        segments.put(id, segment);
+        AtomicFileWriter.syncDirectory(directory);
+        return segment;
+    }
+
+    private ByteBuffer readRecord(RecordPointer pointer) throws IOException {
+        Segment segment = segments.get(pointer.segment());
+        if (segment == null) {
+            throw new IOException("Segment " + pointer.segment() + " is missing");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(pointer.length());
+        long position = pointer.offset();
+        while (buffer.hasRemaining()) {
+            int read = segment.channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new EOFException("Unexpected end of segment " + segment.path);
+            }
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), HEADER_BYTES, pointer.length() - HEADER_BYTES);
+        if ((int) crc.getValue() != buffer.getInt(4)) {
+            throw new IOException("Checksum mismatch in segment " + segment.path + " at offset " + pointer.offset());
+        }
+        return buffer;
+    }
+
+    // ==================== 压缩与检查点 ====================
+
+    private void scheduleMaintenance() {
+        boolean needed = bytesSinceCheckpoint >= CHECKPOINT_INTERVAL_BYTES
+                || segments.values().stream().anyMatch(s -> s != active && s.isCompactable());
+        if (needed && maintenanceScheduled.compareAndSet(false, true)) {
+            try {
+                maintenanceExecutor.execute(this::runMaintenance);
+            } catch (RejectedExecutionException e) {
+                maintenanceScheduled.set(false);
+            }
+        }
+    }
+
+    private void runMaintenance() {
+        maintenanceScheduled.set(false);
+        try {
+            boolean compacted = false;
+            for (Segment segment : new ArrayList<>(segments.values())) {
+                if (segment != active && segment.isCompactable()) {
+                    compact(segment);
+                    compacted = true;
+                }
+            }
+            if (compacted || bytesSinceCheckpoint >= CHECKPOINT_INTERVAL_BYTES) {
+                writeCheckpoint();
+            }
+        } catch (IOException e) {
+            log.error("Profile store maintenance failed", e);
+        }
+    }
+
+    /**
+     * 将段中仍有效的记录复制到活动段末尾，然后删除该段
+     */
+    private void compact(Segment segment) throws IOException {
+        long start = System.nanoTime();
+        int copied;
+        synchronized (appendLock) {
+            List<PendingRecord> live = new ArrayList<>();
+            for (Map.Entry<String, RecordPointer> entry : index.entrySet()) {
+                if (entry.getValue().segment() == segment.id) {
+                    byte[] bytes = readRecord(entry.getValue()).array();
+                    live.add(new PendingRecord(entry.getKey(), TYPE_PUT, bytes));
+                }
+            }
+            // 更早的段中可能还有该ID的旧记录，此时删除记录必须保留
+            boolean hasOlderSegments = segments.firstKey() < segment.id;
+            for (Map.Entry<String, Integer> entry : tombstones.entrySet()) {
+                if (entry.getValue() == segment.id) {
+                    if (hasOlderSegments) {
+                        live.add(encode(entry.getKey(), TYPE_DELETE, new byte[0]));
+                    } else {
+                        tombstones.remove(entry.getKey(), segment.id);
+                    }
+                }
+            }
+            // 复制结果必须先落盘，才能删除原段
+            append(live, true);
+            active.channel.force(false);
+            copied = live.size();
+
+            segmentLock.writeLock().lock();
+            try {
+                segments.remove(segment.id);
+                segment.channel.close();
+                Files.deleteIfExists(segment.path);
+            } finally {
+                segmentLock.writeLock().unlock();
+            }
+        }
+        log.info("Compacted segment {} ({} live record(s) copied) in {} ms",
+                segment.path.getFileName(), copied, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * 写入检查点：当前索引快照及其对应的日志位置，启动时只需重放该位置之后的记录
+     */
+    private void writeCheckpoint() throws IOException {
+        int segmentId;
+        long offset;
+        Map<String, RecordPointer> indexSnapshot;
+        Map<String, Integer> tombstoneSnapshot;
+        synchronized (appendLock) {
+            // 检查点引用的数据必须已落盘
+            active.channel.force(false);
+            segmentId = active.id;
+            offset = active.size;
+            indexSnapshot = new HashMap<>(index);
+            tombstoneSnapshot = new HashMap<>(tombstones);
+            bytesSinceCheckpoint = 0;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(indexSnapshot.size() * 64 + 64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(CHECKPOINT_MAGIC);
+        out.writeInt(CHECKPOINT_VERSION);
+        out.writeInt(segmentId);
+        out.writeLong(offset);
+        out.writeInt(indexSnapshot.size());
+        for (Map.Entry<String, RecordPointer> entry : indexSnapshot.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue().segment());
+            out.writeLong(entry.getValue().offset());
+            out.writeInt(entry.getValue().length());
+        }
+        out.writeInt(tombstoneSnapshot.size());
+        for (Map.Entry<String, Integer> entry : tombstoneSnapshot.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue());
+        }
+        out.flush();
+        CRC32C crc = new CRC32C();
+        crc.update(bytes.toByteArray());
+        out.writeInt((int) crc.getValue());
+
+        AtomicFileWriter.write(directory.resolve(CHECKPOINT_FILE), bytes::writeTo, true);
+        log.debug("Wrote profile store checkpoint at segment {} offset {}", segmentId, offset);
+    }
+
+    /**
+     * 加载检查点，成功时返回 {段号, 偏移}；检查点缺失、损坏或与段文件不一致时返回 null，改为完整重放
+     */
+    private long[] loadCheckpoint() {
+        Path path = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try {
+            byte[] bytes = Files.readAllBytes(path);
+            if (bytes.length < 4) {
+                throw new IOException("Checkpoint is truncated");
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(bytes, 0, bytes.length - 4);
+            if ((int) crc.getValue() != ByteBuffer.wrap(bytes, bytes.length - 4, 4).getInt()) {
+                throw new IOException("Checkpoint checksum mismatch");
+            }
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 4));
+            if (in.readInt() != CHECKPOINT_MAGIC || in.readInt() != CHECKPOINT_VERSION) {
+                throw new IOException("Unsupported checkpoint format");
+            }
+            int segmentId = in.readInt();
+            long offset = in.readLong();
+            Segment checkpointSegment = segments.get(segmentId);
+            if (checkpointSegment == null || checkpointSegment.size < offset) {
+                throw new IOException("Checkpoint refers to missing data in segment " + segmentId);
+            }
+
+            Map<String, RecordPointer> loadedIndex = new HashMap<>();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String profileId = in.readUTF();
+                RecordPointer pointer = new RecordPointer(in.readInt(), in.readLong(), in.readInt());
+                Segment segment = segments.get(pointer.segment());
+                if (segment == null || segment.size < pointer.offset() + pointer.length()) {
+                    throw new IOException("Checkpoint refers to missing record for " + profileId);
+                }
+                loadedIndex.put(profileId, pointer);
+            }
+            Map<String, Integer> loadedTombstones = new HashMap<>();
+            int tombstoneCount = in.readInt();
+            for (int i = 0; i < tombstoneCount; i++) {
+                loadedTombstones.put(in.readUTF(), in.readInt());
+            }
+
+            index.putAll(loadedIndex);
+            tombstones.putAll(loadedTombstones);
+            return new long[]{segmentId, offset};
+        } catch (IOException e) {
+            log.warn("Ignoring profile store checkpoint, replaying full log: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void awaitMaintenance() {
+        try {
+            maintenanceExecutor.submit(() -> {}).get();
+        } catch (RejectedExecutionException e) {
+            // 已关闭
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("Profile store maintenance failed", e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        maintenanceExecutor.shutdown();
+        try {
+            if (!maintenanceExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Profile store compaction did not finish in time");
+                maintenanceExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            maintenanceExecutor.shutdownNow();
+        }
+
+        try {
+            writeCheckpoint();
+        } catch (IOException e) {
+            log.error("Failed to write profile store checkpoint", e);
+        }
+        segmentLock.writeLock().lock();
+        try {
+            for (Segment segment : segments.values()) {
+                try {
+                    segment.channel.close();
+                } catch (IOException e) {
+                    log.warn("Failed to close segment {}", segment.path, e);
+                }
+            }
+        } finally {
+            segmentLock.writeLock().unlock();
+        }
+    }
+}
@@ -17,6 +17,21 @@ public final class AppPreferences {
     public static final String CHECK_UPDATES_KEY = "check_updates";
     public static final String LANGUAGE_KEY = "language";
 
+    // Storage
+    public static final String DURABLE_WRITES_KEY = "durable_writes"; // default: true
+    public static final String STORAGE_BACKEND_KEY = "storage_backend"; // default: JSON
+    public static final String STORAGE_CODEC_KEY = "storage_codec"; // default: PRETTY_JSON
+    public static final String SHARDED_LAYOUT_KEY = "sharded_layout"; // default: false
+
+    // Import
+    public static final String IMPORT_DUPLICATE_POLICY_KEY = "import_duplicate_policy"; // default: SKIP
+
+    // Search
+    public static final String SEARCH_MODE_KEY = "search_mode"; // default: EXACT
+
+    // Export
+    public static final String LAST_EXPORT_TIME_KEY = "last_export_time"; // default: none (ISO-8601 local date-time)
+
     // Launch flags (configurable)
     public static final String DISABLE_EXTENSIONS_KEY = "disable_extensions"; // default: false
     public static final String DISABLE_BACKGROUND_NETWORKING_KEY = "disable_background_networking"; // default: true
@@ -0,0 +1,201 @@
+package com.basis.fingerbrowser.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Predicate;
+
+/**
+ * 崩溃安全的文件写入工具
+ * 先写临时文件再原子重命名，目标文件要么是旧内容要么是完整的新内容；
+ * 批量写入时并行 fsync 临时文件，并对每个目录只做一次 fsync（group commit）
+ */
+public final class AtomicFileWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(AtomicFileWriter.class);
+
+    public static final String TEMP_SUFFIX = ".tmp";
+    private static final int MAX_PARALLEL_WRITES = 16;
+
+    private AtomicFileWriter() {}
+
+    /**
+     * 文件内容写入器
+     */
+    @FunctionalInterface
+    public interface ContentWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * 原子写入单个文件
+     */
+    public static void write(Path target, ContentWriter content, boolean sync) throws IOException {
+        Path temp = stage(target, content, sync);
+        try {
+            commit(temp, target);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        if (sync) {
+            syncDirectory(target.toAbsolutePath().getParent());
+        }
+    }
+
+    /**
+     * 原子写入一批文件
+     *
+     * @param files 目标路径到内容的映射，按其迭代顺序替换目标文件
+     * @param sync  是否 fsync 文件与所在目录
+     * @return 成功提交的目标路径
+     */
+    public static Set<Path> writeAll(Map<Path, ContentWriter> files, boolean sync) {
+        // 阶段一：并行写入临时文件，同时进行的 fsync 可由文件系统合并为一次日志提交
+        Map<Path, Path> staged = new ConcurrentHashMap<>();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            Semaphore permits = new Semaphore(MAX_PARALLEL_WRITES);
+            for (Map.Entry<Path, ContentWriter> entry : files.entrySet()) {
+                workers.submit(() -> {
+                    permits.acquireUninterruptibly();
+                    try {
+                        staged.put(entry.getKey(), stage(entry.getKey(), entry.getValue(), sync));
+                    } catch (IOException e) {
+                        log.error("Failed to write temporary file for: {}", entry.getKey(), e);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+
+        // 阶段二：按传入顺序逐个原子替换目标文件
+        Set<Path> committed = new HashSet<>();
+        Set<Path> directories = new HashSet<>();
+        for (Path target : files.keySet()) {
+            Path temp = staged.get(target);
+            if (temp == null) {
+                continue;
+            }
+            try {
+                commit(temp, target);
+                committed.add(target);
+                directories.add(target.toAbsolutePath().getParent());
+            } catch (IOException e) {
+                log.error("Failed to replace file: {}", target, e);
+                deleteQuietly(temp);
+            }
+        }
+
+        // 阶段三：每个目录 fsync 一次，使整批重命名持久化
+        if (sync) {
+            directories.forEach(AtomicFileWriter::syncDirectory);
+        }
+        return committed;
+    }
+
+    /**
+     * 清理崩溃遗留的临时文件
+     * 目标文件存在时直接删除临时文件；目标缺失且临时文件内容完整时将其恢复为目标文件
+     *
+     * @return 恢复的文件数量
+     */
+    public static int recover(Path directory, Predicate<Path> isComplete) {
+        int recovered = 0;
+        try (var stream = Files.list(directory)) {
+            for (Path temp : stream.filter(p -> p.getFileName().toString().endsWith(TEMP_SUFFIX)).toList()) {
+                String name = temp.getFileName().toString();
+                Path target = temp.resolveSibling(name.substring(0, name.length() - TEMP_SUFFIX.length()));
+                if (!Files.exists(target) && isComplete.test(temp)) {
+                    try {
+                        commit(temp, target);
+                        recovered++;
+                        log.info("Recovered interrupted write: {}", target);
+                        continue;
+                    } catch (IOException e) {
+                        log.error("Failed to recover interrupted write: {}", target, e);
+                    }
+                }
+                deleteQuietly(temp);
+                log.info("Removed leftover temporary file: {}", temp);
+            }
+        } catch (IOException e) {
+            log.error("Failed to scan for leftover temporary files in: {}", directory, e);
+        }
+        return recovered;
+    }
+
+    private static Path stage(Path target, ContentWriter content, boolean sync) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel));
+            // 屏蔽写入器对流的关闭，确保 fsync 前通道仍然打开
+            content.writeTo(new FilterOutputStream(out) {
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    out.flush();
+                }
+            });
+            out.flush();
+            if (sync) {
+                channel.force(true);
+            }
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            throw e;
+        }
+        return temp;
+    }
+
+    private static void commit(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * fsync 目录，使其中文件的创建、重命名与删除持久化
+     */
+    public static void syncDirectory(Path directory) {
+        // Windows 等平台不支持打开目录，忽略即可
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            log.debug("Directory fsync not supported for {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete temporary file: {}", path, e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.basis.fingerbrowser.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * 按配置ID存放文件或目录的布局
+ * 平铺布局直接放在根目录下；分片布局按ID哈希的前 16 位放入 ab/cd/ 两级子目录（共 65536 个），
+ * 避免单个目录中的条目过多。两种布局可以共存，查找时先查当前布局，找不到再查另一种
+ */
+public enum DirectoryLayout {
+    FLAT,
+    SHARDED;
+
+    /**
+     * 按偏好设置获取当前布局
+     */
+    public static DirectoryLayout current() {
+        return AppPreferences.getNode().getBoolean(AppPreferences.SHARDED_LAYOUT_KEY, false) ? SHARDED : FLAT;
+    }
+
+    public DirectoryLayout other() {
+        return this == FLAT ? SHARDED : FLAT;
+    }
+
+    /**
+     * 获取某个ID的条目所在的目录
+     */
+    public Path directoryOf(Path root, String key) {
+        if (this == FLAT) {
+            return root;
+        }
+        int hash = hash(key);
+        return root.resolve(hex(hash >>> 24)).resolve(hex((hash >>> 16) & 0xff));
+    }
+
+    /**
+     * 获取某个ID的条目路径
+     *
+     * @param name 条目的文件或目录名
+     */
+    public Path resolve(Path root, String key, String name) {
+        return directoryOf(root, key).resolve(name);
+    }
+
+    /**
+     * 判断目录名是否为分片子目录（两位小写十六进制）
+     */
+    public static boolean isShardName(String name) {
+        return name.length() == 2 && isHexDigit(name.charAt(0)) && isHexDigit(name.charAt(1));
+    }
+
+    /**
+     * 删除根目录下已经为空的分片子目录，仍有内容的保留
+     */
+    public static void removeEmptyShards(Path root) throws IOException {
+        for (Path first : listShards(root)) {
+            for (Path second : listShards(first)) {
+                deleteIfEmpty(second);
+            }
+            deleteIfEmpty(first);
+        }
+    }
+
+    private static List<Path> listShards(Path directory) throws IOException {
+        try (var stream = Files.list(directory)) {
+            return stream.filter(path -> isShardName(path.getFileName().toString()) && Files.isDirectory(path)).toList();
+        }
+    }
+
+    private static void deleteIfEmpty(Path directory) throws IOException {
+        try {
+            Files.deleteIfExists(directory);
+        } catch (DirectoryNotEmptyException e) {
+            // 仍有其他文件
+        }
+    }
+
+    private static int hash(String key) {
+        CRC32C crc = new CRC32C();
+        crc.update(key.getBytes(StandardCharsets.UTF_8));
+        return (int) crc.getValue();
+    }
+
+    private static String hex(int value) {
+        return Character.forDigit(value >>> 4, 16) + "" + Character.forDigit(value & 0xf, 16);
+    }
+
+    private static boolean isHexDigit(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f');
+    }
+}
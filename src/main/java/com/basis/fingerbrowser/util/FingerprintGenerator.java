@@ -112,6 +112,9 @@ public class FingerprintGenerator {
         derived.setLanguage(base.getLanguage());
         derived.setTimezone(base.getTimezone());
         derived.setResolution(base.getResolution());
+        if (base.getTags() != null) {
+            derived.setTags(new ArrayList<>(base.getTags()));
+        }
 
         // 稍微修改一下Canvas指纹
         var canvasSettings2 = new com.basis.fingerbrowser.model.CanvasSettings();
@@ -0,0 +1,53 @@
+package com.basis.fingerbrowser.util;
+
+import javafx.application.Platform;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * 合并投递到 JavaFX 线程的事件队列
+ * 任意线程都可提交事件；队列中有事件时只向 FX 线程投递一次处理，
+ * 同一脉冲内积累的事件按提交顺序一次性交给处理器。JavaFX 工具包未启动时在当前线程处理
+ */
+public final class FxEventQueue<T> {
+
+    private final Queue<T> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private final Consumer<List<T>> handler;
+
+    public FxEventQueue(Consumer<List<T>> handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * 提交事件，可在任意线程调用
+     */
+    public void post(T event) {
+        pending.add(event);
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                Platform.runLater(this::drain);
+            } catch (IllegalStateException e) {
+                drain();
+            }
+        }
+    }
+
+    private void drain() {
+        // 先清除标记：处理期间提交的事件会安排下一次处理，不会遗漏
+        scheduled.set(false);
+        List<T> batch = new ArrayList<>();
+        T event;
+        while ((event = pending.poll()) != null) {
+            batch.add(event);
+        }
+        if (!batch.isEmpty()) {
+            handler.accept(batch);
+        }
+    }
+}
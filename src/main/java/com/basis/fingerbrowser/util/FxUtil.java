@@ -0,0 +1,63 @@
+package com.basis.fingerbrowser.util;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * JavaFX 线程工具类
+ */
+public final class FxUtil {
+    private FxUtil() {}
+
+    /**
+     * 在 JavaFX 应用线程上执行任务
+     * 已在 FX 线程时直接执行；JavaFX 工具包未启动（如命令行工具）时在当前线程执行
+     */
+    public static void runOnFxThread(Runnable action) {
+        if (Platform.isFxApplicationThread()) {
+            action.run();
+            return;
+        }
+        try {
+            Platform.runLater(action);
+        } catch (IllegalStateException e) {
+            action.run();
+        }
+    }
+
+    /**
+     * 在 JavaFX 应用线程上执行任务并等待其结果，任务抛出的运行时异常原样抛出
+     * 已在 FX 线程时直接执行；JavaFX 工具包未启动时在当前线程执行。不可在 FX 线程正在等待的线程中调用
+     */
+    public static <T> T callOnFxThread(Supplier<T> action) {
+        if (Platform.isFxApplicationThread()) {
+            return action.get();
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            Platform.runLater(() -> {
+                try {
+                    result.complete(action.get());
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                }
+            });
+        } catch (IllegalStateException e) {
+            return action.get();
+        }
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.basis.fingerbrowser.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.prefs.BackingStoreException;
+import java.util.prefs.Preferences;
+
+/**
+ * 保存的查询视图：名称 → 查询语句，存放在偏好设置的独立子节点中
+ */
+public final class SavedViews {
+
+    private static final Logger log = LoggerFactory.getLogger(SavedViews.class);
+
+    private static final String NODE_NAME = "saved_views";
+
+    private SavedViews() {}
+
+    private static Preferences node() {
+        return AppPreferences.getNode().node(NODE_NAME);
+    }
+
+    /**
+     * 获取所有视图，按名称排序
+     */
+    public static Map<String, String> list() {
+        Map<String, String> views = new TreeMap<>();
+        Preferences node = node();
+        try {
+            for (String name : node.keys()) {
+                String query = node.get(name, null);
+                if (query != null) {
+                    views.put(name, query);
+                }
+            }
+        } catch (BackingStoreException e) {
+            log.warn("Failed to read saved views", e);
+        }
+        return views;
+    }
+
+    /**
+     * 保存视图，同名视图被覆盖
+     *
+     * @throws IllegalArgumentException 名称或查询超出偏好设置的长度限制
+     */
+    public static void save(String name, String query) {
+        if (name.isBlank() || name.length() > Preferences.MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("视图名称不能为空且不能超过 " + Preferences.MAX_KEY_LENGTH + " 个字符");
+        }
+        if (query.length() > Preferences.MAX_VALUE_LENGTH) {
+            throw new IllegalArgumentException("查询语句过长");
+        }
+        Preferences node = node();
+        node.put(name, query);
+        flush(node);
+    }
+
+    public static void delete(String name) {
+        Preferences node = node();
+        node.remove(name);
+        flush(node);
+    }
+
+    private static void flush(Preferences node) {
+        try {
+            node.flush();
+        } catch (BackingStoreException e) {
+            log.warn("Failed to save views", e);
+        }
+    }
+}
@@ -5,6 +5,7 @@ module com.basis.fingerbrowser {
     requires java.management;
     requires com.fasterxml.jackson.datatype.jsr310;
     requires com.fasterxml.jackson.databind;
+    requires com.fasterxml.jackson.dataformat.smile;
     requires java.desktop;
     requires java.logging;
     requires org.slf4j;
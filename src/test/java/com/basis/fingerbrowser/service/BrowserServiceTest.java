@@ -0,0 +1,169 @@
+package com.basis.fingerbrowser.service;
+
+import com.basis.fingerbrowser.model.BrowserProfile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * 浏览器运行状态与配置列表的协同测试
+ * 以一个脚本代替浏览器：写入 DevToolsActivePort 表示就绪，用户数据目录中出现 stop 文件后退出
+ */
+@EnabledOnOs({OS.LINUX, OS.MAC})
+class BrowserServiceTest {
+
+    private static final String FAKE_BROWSER = """
+            #!/bin/sh
+            for arg in "$@"; do
+              case "$arg" in --user-data-dir=*) dir="${arg#--user-data-dir=}";; esac
+            done
+            rm -f "$dir/stop"
+            printf '9222\\n/devtools/browser/test' > "$dir/DevToolsActivePort"
+            while [ ! -f "$dir/stop" ]; do sleep 0.05; done
+            """;
+
+    @TempDir
+    Path directory;
+
+    private ProfileManagerService profileManager;
+    private BrowserService browserService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path browser = directory.resolve("fake-browser.sh");
+        Files.writeString(browser, FAKE_BROWSER);
+        assertTrue(browser.toFile().setExecutable(true));
+
+        profileManager = new ProfileManagerService(directory.resolve("profiles").toString());
+        profileManager.getLoadFuture().get();
+        browserService = new BrowserService(browser.toString(), directory.resolve("browsers").toString());
+        browserService.setProfileLookup(profileManager::getProfile);
+    }
+
+    @AfterEach
+    void tearDown() {
+        browserService.close();
+        profileManager.close();
+    }
+
+    /**
+     * 批量修改以新对象替换运行中的配置，进程退出后列表中的新对象应为未运行，且可以再次启动
+     */
+    @Test
+    void replacedRunningProfileIsClearedOnExit() throws Exception {
+        BrowserProfile launched = new BrowserProfile();
+        launched.setName("运行中");
+        profileManager.addProfile(launched);
+        assertTrue(browserService.launchBrowser(launched));
+
+        BrowserProfile replacement = new BrowserProfile(launched.getId(), "已替换", launched.getCreatedAt());
+        profileManager.bulkUpdate(List.of(replacement));
+        BrowserProfile listed = profileManager.getProfile(launched.getId());
+        assertSame(replacement, listed);
+        assertTrue(listed.isActive());
+
+        stopBrowser(launched);
+        awaitCondition(() -> !listed.isActive());
+        assertFalse(launched.isActive());
+        assertFalse(browserService.isBrowserRunning(launched.getId()));
+
+        assertTrue(browserService.launchBrowser(profileManager.ensureLoaded(listed)));
+        assertTrue(profileManager.getProfile(launched.getId()).isActive());
+        assertTrue(browserService.isBrowserRunning(launched.getId()));
+    }
+
+    /**
+     * 以编辑后的新对象更新运行中的配置时沿用运行状态，进程退出后同样被清除
+     */
+    @Test
+    void updatedRunningProfileKeepsAndClearsState() throws Exception {
+        BrowserProfile launched = new BrowserProfile();
+        launched.setName("编辑前");
+        profileManager.addProfile(launched);
+        assertTrue(browserService.launchBrowser(launched));
+
+        BrowserProfile edited = new BrowserProfile(launched.getId(), "编辑后", launched.getCreatedAt());
+        profileManager.updateProfile(edited);
+        assertTrue(edited.isActive());
+
+        stopBrowser(launched);
+        awaitCondition(() -> !edited.isActive());
+    }
+
+    /**
+     * 界面按事件中的启动对象同步状态时，应作用于列表中当前的对象
+     */
+    @Test
+    void runningStateFollowsListedObject() {
+        BrowserProfile launched = new BrowserProfile();
+        launched.setName("启动对象");
+        profileManager.addProfile(launched);
+        launched.updateLastUsed();
+
+        BrowserProfile replacement = new BrowserProfile(launched.getId(), "替换对象", launched.getCreatedAt());
+        replacement.setLastUsed(launched.getLastUsed().minusDays(1));
+        profileManager.bulkUpdate(List.of(replacement));
+
+        BrowserProfile listed = profileManager.updateRunningState(launched, true);
+        assertSame(replacement, listed);
+        assertNotSame(launched, listed);
+        assertTrue(listed.isActive());
+        assertEquals(launched.getLastUsed(), listed.getLastUsed());
+
+        profileManager.updateRunningState(launched, false);
+        assertFalse(listed.isActive());
+    }
+
+    /**
+     * 启动时更新的最近使用时间应被保存，重新加载后仍可见
+     */
+    @Test
+    void launchPersistsLastUsed() throws Exception {
+        BrowserProfile profile = new BrowserProfile();
+        profile.setName("最近使用");
+        profile.setLastUsed(LocalDateTime.of(2020, 1, 1, 0, 0));
+        profileManager.addProfile(profile);
+        assertTrue(profileManager.flush());
+
+        profile.updateLastUsed();
+        LocalDateTime launchedAt = profile.getLastUsed().withNano(0);
+        profileManager.updateRunningState(profile, true);
+        assertTrue(profileManager.flush());
+        profileManager.close();
+
+        profileManager = new ProfileManagerService(directory.resolve("profiles").toString());
+        profileManager.getLoadFuture().get();
+        BrowserProfile reloaded = profileManager.ensureLoaded(profileManager.getProfile(profile.getId()));
+        assertEquals(launchedAt, reloaded.getLastUsed());
+    }
+
+    private void stopBrowser(BrowserProfile profile) throws Exception {
+        Files.createFile(Path.of(profile.getUserDataDir(), "stop"));
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Condition not met within 10 seconds");
+            }
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.basis.fingerbrowser.service;
+
+import com.basis.fingerbrowser.model.BrowserProfile;
+import com.basis.fingerbrowser.model.ProfileState;
+import com.basis.fingerbrowser.model.ProxyConfiguration;
+import com.basis.fingerbrowser.model.ProxyType;
+import com.basis.fingerbrowser.util.FingerprintGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 配置编码格式与流式序列化模块的读写测试
+ */
+class ProfileCodecTest {
+
+    private static final List<String> CANONICAL_FIELDS = List.of(
+            "name", "userAgent", "platform", "webRTCSettings", "canvasFingerprint", "fontFingerprint",
+            "proxySettings", "language", "timezone", "resolution", "notes", "tags",
+            "browserExecutablePath", "proxyConfiguration");
+
+    @Test
+    void roundTripPreservesEveryField() throws Exception {
+        for (ProfileCodec codec : ProfileCodec.values()) {
+            for (BrowserProfile profile : sampleProfiles()) {
+                byte[] encoded = codec.profileWriter().writeValueAsBytes(profile);
+                BrowserProfile decoded = codec.profileReader().readValue(encoded);
+
+                assertArrayEquals(encoded, codec.profileWriter().writeValueAsBytes(decoded));
+                assertEquals(profile.getId(), decoded.getId());
+                assertEquals(profile.getName(), decoded.getName());
+                assertEquals(profile.getNotes(), decoded.getNotes());
+                assertEquals(profile.getTags(), decoded.getTags());
+                assertEquals(profile.getCookies(), decoded.getCookies());
+                assertEquals(profile.getLocalStorage(), decoded.getLocalStorage());
+                assertEquals(profile.getCustomHeaders(), decoded.getCustomHeaders());
+                assertEquals(profile.getCreatedAt().withNano(0), decoded.getCreatedAt());
+                assertEquals(profile.getProxySettings() == null, decoded.getProxySettings() == null);
+                assertEquals(profile.getProxyConfiguration() == null, decoded.getProxyConfiguration() == null);
+            }
+        }
+    }
+
+    /**
+     * 流式输出必须与反射式数据绑定逐字节相同，且双方都能读回对方的输出
+     */
+    @Test
+    void jsonOutputMatchesDataBinding() throws Exception {
+        for (ProfileCodec codec : new ProfileCodec[]{ProfileCodec.PRETTY_JSON, ProfileCodec.COMPACT_JSON}) {
+            ObjectMapper legacy = new ObjectMapper();
+            legacy.registerModule(new JavaTimeModule());
+            if (codec == ProfileCodec.PRETTY_JSON) {
+                legacy.enable(SerializationFeature.INDENT_OUTPUT);
+            }
+            for (BrowserProfile profile : sampleProfiles()) {
+                byte[] expected = legacy.writeValueAsBytes(profile);
+                byte[] actual = codec.profileWriter().writeValueAsBytes(profile);
+                assertEquals(new String(expected, StandardCharsets.UTF_8), new String(actual, StandardCharsets.UTF_8));
+
+                BrowserProfile streamed = codec.profileReader().readValue(expected);
+                assertArrayEquals(expected, legacy.writeValueAsBytes(streamed));
+                BrowserProfile bound = legacy.readValue(actual, BrowserProfile.class);
+                assertArrayEquals(expected, codec.profileWriter().writeValueAsBytes(bound));
+            }
+        }
+    }
+
+    @Test
+    void recordWriterOmitsState() throws Exception {
+        for (ProfileCodec codec : ProfileCodec.values()) {
+            BrowserProfile profile = sampleProfiles().get(0);
+            JsonNode record = codec.mapper().readTree(codec.recordWriter().writeValueAsBytes(profile));
+
+            assertFalse(record.has("cookies"));
+            assertFalse(record.has("localStorage"));
+            assertFalse(record.has("customHeaders"));
+            assertEquals(profile.getId(), record.get("id").asText());
+            assertEquals(profile.getUserDataDir(), record.get("userDataDir").asText(null));
+
+            // 不含会话数据的主记录读回后会话数据为空
+            BrowserProfile decoded = codec.profileReader().readValue(codec.recordWriter().writeValueAsBytes(profile));
+            assertTrue(decoded.getCookies().isEmpty());
+        }
+    }
+
+    @Test
+    void stateRoundTripsSeparately() throws Exception {
+        for (ProfileCodec codec : ProfileCodec.values()) {
+            BrowserProfile profile = sampleProfiles().get(0);
+            ProfileState state = codec.stateReader().readValue(codec.stateWriter().writeValueAsBytes(profile.toState()));
+
+            assertEquals(profile.getCookies(), state.getCookies());
+            assertEquals(profile.getLocalStorage(), state.getLocalStorage());
+            assertEquals(profile.getCustomHeaders(), state.getCustomHeaders());
+        }
+    }
+
+    /**
+     * 旧格式记录内联会话数据，按会话数据读取时跳过其余字段
+     */
+    @Test
+    void stateReadsFromLegacyInlineRecord() throws Exception {
+        for (ProfileCodec codec : ProfileCodec.values()) {
+            BrowserProfile profile = sampleProfiles().get(0);
+            ProfileState state = codec.stateReader().readValue(codec.profileWriter().writeValueAsBytes(profile));
+
+            assertEquals(profile.getCookies(), state.getCookies());
+            assertEquals(profile.getLocalStorage(), state.getLocalStorage());
+            assertEquals(profile.getCustomHeaders(), state.getCustomHeaders());
+        }
+    }
+
+    @Test
+    void canonicalOutputHasFixedFieldOrder() throws Exception {
+        ObjectWriter canonical = ProfileCodec.COMPACT_JSON.profileWriter().withAttribute(ProfileJsonModule.CANONICAL, Boolean.TRUE);
+        for (BrowserProfile profile : sampleProfiles()) {
+            JsonNode tree = ProfileCodec.COMPACT_JSON.mapper().readTree(canonical.writeValueAsBytes(profile));
+            List<String> fields = new ArrayList<>();
+            tree.fieldNames().forEachRemaining(fields::add);
+            assertEquals(CANONICAL_FIELDS, fields);
+        }
+    }
+
+    /**
+     * 规范化内容不含ID、时间戳、用户数据目录与会话数据，仅这些字段不同的配置输出相同
+     */
+    @Test
+    void canonicalOutputIgnoresIdentityAndState() throws Exception {
+        ObjectWriter canonical = ProfileCodec.COMPACT_JSON.profileWriter().withAttribute(ProfileJsonModule.CANONICAL, Boolean.TRUE);
+        BrowserProfile profile = sampleProfiles().get(0);
+        ObjectNode tree = ProfileCodec.COMPACT_JSON.mapper().valueToTree(profile);
+        tree.put("id", "other-id");
+        tree.put("createdAt", "2000-01-01T00:00:00");
+        tree.put("lastUsed", "2001-01-01T00:00:00");
+        tree.put("userDataDir", "/elsewhere");
+        tree.putObject("cookies").put("different", "cookie");
+        BrowserProfile other = ProfileCodec.COMPACT_JSON.profileReader().readValue(tree);
+
+        assertArrayEquals(canonical.writeValueAsBytes(profile), canonical.writeValueAsBytes(other));
+
+        other.setNotes("changed");
+        assertFalse(Arrays.equals(canonical.writeValueAsBytes(profile), canonical.writeValueAsBytes(other)));
+    }
+
+    @Test
+    void missingPropertiesUseDefaults() throws Exception {
+        for (ProfileCodec codec : ProfileCodec.values()) {
+            byte[] data = codec.mapper().writeValueAsBytes(Map.of("name", "最小配置"));
+            BrowserProfile profile = codec.profileReader().readValue(data);
+
+            assertEquals("最小配置", profile.getName());
+            assertNotNull(profile.getId());
+            assertNotNull(profile.getCreatedAt());
+            assertNotNull(profile.getWebRTCSettings());
+            assertNotNull(profile.getCanvasFingerprint());
+            assertNotNull(profile.getFontFingerprint());
+            assertNull(profile.getProxySettings());
+            assertNull(profile.getProxyConfiguration());
+            assertTrue(profile.getCookies().isEmpty());
+            assertTrue(profile.getTags().isEmpty());
+        }
+    }
+
+    /**
+     * 顶层未知字段与数据绑定一致地报错；嵌套对象中的未知字段与标注忽略的字段被跳过
+     */
+    @Test
+    void unknownProperties() throws Exception {
+        for (ProfileCodec codec : ProfileCodec.values()) {
+            byte[] unknown = codec.mapper().writeValueAsBytes(Map.of("id", "a", "bogus", Map.of("x", 1)));
+            assertThrows(UnrecognizedPropertyException.class, () -> codec.profileReader().readValue(unknown));
+
+            byte[] nested = codec.mapper().writeValueAsBytes(Map.of(
+                    "id", "b",
+                    "active", true,
+                    "stateLoaded", false,
+                    "proxySettings", Map.of("host", "127.0.0.1", "extra", List.of(1, 2))));
+            BrowserProfile profile = codec.profileReader().readValue(nested);
+            assertEquals("b", profile.getId());
+            assertFalse(profile.isActive());
+            assertEquals("127.0.0.1", profile.getProxySettings().getHost());
+        }
+    }
+
+    @Test
+    void detectRecognizesOwnOutput() throws Exception {
+        for (ProfileCodec codec : ProfileCodec.values()) {
+            for (BrowserProfile profile : sampleProfiles()) {
+                assertEquals(codec, ProfileCodec.detect(codec.profileWriter().writeValueAsBytes(profile)));
+                assertEquals(codec, ProfileCodec.detect(codec.stateWriter().writeValueAsBytes(profile.toState())));
+            }
+        }
+    }
+
+    @Test
+    void detectHandlesOffsetsAndShortInput() {
+        byte[] smile = {'x', ':', ')', '\n', 0};
+        assertEquals(ProfileCodec.SMILE, ProfileCodec.detect(smile, 1, 4));
+        assertEquals(ProfileCodec.COMPACT_JSON, ProfileCodec.detect(smile, 0, 4));
+        assertEquals(ProfileCodec.PRETTY_JSON, ProfileCodec.detect("{\r\n}".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(ProfileCodec.COMPACT_JSON, ProfileCodec.detect("{}".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(ProfileCodec.COMPACT_JSON, ProfileCodec.detect(new byte[0]));
+        assertEquals(ProfileCodec.COMPACT_JSON, ProfileCodec.detect(new byte[]{':', ')'}));
+    }
+
+    @Test
+    void fromNameFallsBackToPrettyJson() {
+        assertEquals(ProfileCodec.SMILE, ProfileCodec.fromName("smile"));
+        assertEquals(ProfileCodec.COMPACT_JSON, ProfileCodec.fromName("COMPACT_JSON"));
+        assertEquals(ProfileCodec.PRETTY_JSON, ProfileCodec.fromName("unknown"));
+        assertEquals(ProfileCodec.PRETTY_JSON, ProfileCodec.fromName(null));
+    }
+
+    private static List<BrowserProfile> sampleProfiles() {
+        List<BrowserProfile> profiles = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            BrowserProfile profile = FingerprintGenerator.generateRandomProfile("配置 " + i);
+            profile.getCookies().put("session", "s" + i);
+            profile.getLocalStorage().put("theme", i % 2 == 0 ? "dark" : "light");
+            profile.getCustomHeaders().put("X-Index", String.valueOf(i));
+            profile.setNotes(i % 3 == 0 ? null : "备注 \"" + i + "\"\n第二行");
+            profile.getTags().add("tag" + (i % 4));
+            if (i % 2 == 0) {
+                profile.setProxySettings(FingerprintGenerator.generateRandomProxy());
+            }
+            if (i % 5 == 0) {
+                profile.setProxyConfiguration(new ProxyConfiguration(ProxyType.SOCKS5, "127.0.0.1", 1080, "user", "pass"));
+            }
+            profiles.add(profile);
+        }
+        return profiles;
+    }
+}
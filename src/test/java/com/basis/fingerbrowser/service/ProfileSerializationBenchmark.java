@@ -0,0 +1,98 @@
+package com.basis.fingerbrowser.service;
+
+import com.basis.fingerbrowser.model.BrowserProfile;
+import com.basis.fingerbrowser.model.ProxyConfiguration;
+import com.basis.fingerbrowser.model.ProxyType;
+import com.basis.fingerbrowser.util.FingerprintGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 对比反射式数据绑定与流式序列化模块读写配置的耗时
+ * 两种方式输出一致性的校验见 {@link ProfileCodecTest}，这里只计时
+ *
+ * <p>运行：mvn test-compile 后以测试类路径执行 com.basis.fingerbrowser.service.ProfileSerializationBenchmark [配置数量]
+ */
+public class ProfileSerializationBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        List<BrowserProfile> profiles = generateProfiles(count);
+
+        for (ProfileCodec codec : new ProfileCodec[]{ProfileCodec.PRETTY_JSON, ProfileCodec.COMPACT_JSON}) {
+            // 改动前的写法：普通 ObjectMapper，每次调用按类型查找反射生成的序列化器
+            ObjectMapper legacy = new ObjectMapper();
+            legacy.registerModule(new JavaTimeModule());
+            if (codec == ProfileCodec.PRETTY_JSON) {
+                legacy.enable(SerializationFeature.INDENT_OUTPUT);
+            }
+
+            List<byte[]> encoded = new ArrayList<>(profiles.size());
+            for (BrowserProfile profile : profiles) {
+                encoded.add(legacy.writeValueAsBytes(profile));
+            }
+
+            long legacyWrite = Long.MAX_VALUE, streamingWrite = Long.MAX_VALUE;
+            long legacyRead = Long.MAX_VALUE, streamingRead = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                for (BrowserProfile profile : profiles) {
+                    legacy.writeValueAsBytes(profile);
+                }
+                legacyWrite = Math.min(legacyWrite, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                for (BrowserProfile profile : profiles) {
+                    codec.profileWriter().writeValueAsBytes(profile);
+                }
+                streamingWrite = Math.min(streamingWrite, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                for (byte[] data : encoded) {
+                    legacy.readValue(data, BrowserProfile.class);
+                }
+                legacyRead = Math.min(legacyRead, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                for (byte[] data : encoded) {
+                    codec.profileReader().readValue(data);
+                }
+                streamingRead = Math.min(streamingRead, System.nanoTime() - start);
+            }
+
+            System.out.printf("%-12s %,d profiles, best of %d rounds%n", codec.name(), count, ROUNDS);
+            report("write", legacyWrite, streamingWrite, count);
+            report("read", legacyRead, streamingRead, count);
+        }
+    }
+
+    private static List<BrowserProfile> generateProfiles(int count) {
+        List<BrowserProfile> profiles = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            BrowserProfile profile = FingerprintGenerator.generateRandomProfile("配置 " + i);
+            profile.getCookies().put("session", "s" + i);
+            profile.getLocalStorage().put("theme", i % 2 == 0 ? "dark" : "light");
+            profile.getCustomHeaders().put("X-Index", String.valueOf(i));
+            profile.setNotes(i % 3 == 0 ? null : "备注 \"" + i + "\"\n第二行");
+            if (i % 2 == 0) {
+                profile.setProxySettings(FingerprintGenerator.generateRandomProxy());
+            }
+            if (i % 5 == 0) {
+                profile.setProxyConfiguration(new ProxyConfiguration(ProxyType.SOCKS5, "127.0.0.1", 1080, "user", "pass"));
+            }
+            profiles.add(profile);
+        }
+        return profiles;
+    }
+
+    private static void report(String operation, long legacyNanos, long streamingNanos, int count) {
+        System.out.printf("  %-6s data binding %8.2f us/op   streaming %8.2f us/op   %.2fx%n", operation,
+                legacyNanos / 1000.0 / count, streamingNanos / 1000.0 / count, (double) legacyNanos / streamingNanos);
+    }
+}